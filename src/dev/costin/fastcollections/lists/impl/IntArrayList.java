@@ -10,8 +10,10 @@ import dev.costin.fastcollections.IntCollection;
 import dev.costin.fastcollections.IntCursor;
 import dev.costin.fastcollections.lists.IntList;
 import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
 
-public class IntArrayList implements IntList, RandomAccess {
+public class IntArrayList implements IntList, RandomAccess, MemoryMeasurable {
 
    private static final int[] EMPTY = {};
 
@@ -88,6 +90,18 @@ public class IntArrayList implements IntList, RandomAccess {
       return _size;
    }
 
+   /**
+    * Returns the memory held by this list. The unused capacity of the list is
+    * wasted.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( MemoryReport.REFERENCE + 2 * 4 ), 0 );
+      report.add( "list", MemoryReport.arrayBytes( _list.length, 4 ), ( _list.length - (long) _size ) * 4 );
+      return report;
+   }
+
    @Override
    public boolean isEmpty() {
       return _size == 0;
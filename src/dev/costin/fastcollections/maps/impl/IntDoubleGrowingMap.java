@@ -8,8 +8,10 @@ import java.util.NoSuchElementException;
 import dev.costin.fastcollections.IntIterator;
 import dev.costin.fastcollections.maps.IntDoubleMap;
 import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
 
-public class IntDoubleGrowingMap implements IntDoubleMap {
+public class IntDoubleGrowingMap implements IntDoubleMap, MemoryMeasurable {
    
    protected static class KeyIterator implements dev.costin.fastcollections.IntIterator {
 
@@ -325,6 +327,22 @@ public class IntDoubleGrowingMap implements IntDoubleMap {
    public int size() {
       return _size;
    }
+
+   /**
+    * Returns the memory held by this map. The slots of the key range that do
+    * not hold an entry and the unused capacity of the entry list are wasted.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 2 * MemoryReport.REFERENCE + 3 * 4 ), 0 );
+      report.add( "key set", MemoryReport.arrayBytes( _keySet.length, MemoryReport.REFERENCE ),
+               ( _keySet.length - (long) _size ) * MemoryReport.REFERENCE );
+      report.add( "entry list", MemoryReport.arrayBytes( _entryList.length, MemoryReport.REFERENCE ),
+               ( _entryList.length - (long) _size ) * MemoryReport.REFERENCE );
+      report.add( "entries", _size * MemoryReport.objectBytes( 2 * 4 + 8 ), 0 );
+      return report;
+   }
    
    @Override
    public boolean isEmpty() {
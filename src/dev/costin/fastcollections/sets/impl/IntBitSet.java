@@ -0,0 +1,402 @@
+package dev.costin.fastcollections.sets.impl;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import dev.costin.fastcollections.IntCollection;
+import dev.costin.fastcollections.IntCursor;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+
+/**
+ * {@link IntSet} of the elements {@code [0,capacity)} based on a bit set.
+ *
+ * <p>
+ * Every possible element uses one bit, thus this set needs 64 times less memory
+ * than {@link IntGrowingSet} if the set is dense. The elements are iterated in
+ * ascending order, word by word. The bulk operations
+ * {@link #addAll(IntBitSet)}, {@link #retainAll(IntBitSet)} and
+ * {@link #removeAll(IntBitSet)} work on 64 elements at once.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class IntBitSet implements IntSet, MemoryMeasurable {
+
+   private final long[] _words;
+   private final int    _capacity;
+   private int          _size;
+   protected int        _modCounter = 0;
+
+   protected static class IntCursorIterator implements Iterator<IntCursor>, IntCursor {
+
+      private final IntIterator _iter;
+
+      IntCursorIterator( final IntBitSet set ) {
+         _iter = new IntIterator( set );
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _iter.hasNext();
+      }
+
+      @Override
+      public IntCursor next() {
+         _iter.nextInt();
+         return this;
+      }
+
+      @Override
+      public void remove() {
+         _iter.remove();
+      }
+
+      @Override
+      public int value() {
+         return _iter._lastValue;
+      }
+
+   }
+
+   protected static class IntIterator implements dev.costin.fastcollections.IntIterator {
+
+      private final IntBitSet _set;
+
+      private int             _next;
+
+      private int             _lastValue;
+
+      private int             _modCounter;
+
+      IntIterator( final IntBitSet set ) {
+         _set = set;
+         _next = set.nextSetBit( 0 );
+         _lastValue = -1;
+         _modCounter = set._modCounter;
+      }
+
+      @Override
+      public int nextInt() {
+         if( _modCounter != _set._modCounter ) {
+            throw new ConcurrentModificationException();
+         }
+         if( _next < 0 ) {
+            throw new NoSuchElementException();
+         }
+         _lastValue = _next;
+         _next = _set.nextSetBit( _next + 1 );
+         return _lastValue;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next >= 0;
+      }
+
+      @Override
+      public void remove() {
+         if( _modCounter != _set._modCounter ) {
+            throw new ConcurrentModificationException();
+         }
+         if( _lastValue < 0 ) {
+            throw new NoSuchElementException();
+         }
+         // it is important to use the remove method of the set
+         // to ensure that subclass of the set are still able to use
+         // this iterator!
+         _set.remove( _lastValue );
+         _lastValue = -1;
+         ++_modCounter;
+      }
+
+   }
+
+   /**
+    * Creates an empty set for the elements {@code [0,capacity)}.
+    */
+   public IntBitSet( final int capacity ) {
+      if( capacity < 0 ) {
+         throw new IllegalArgumentException( "Negative capacity: " + capacity );
+      }
+      _capacity = capacity;
+      _words = new long[( capacity + 63 ) >>> 6];
+      _size = 0;
+   }
+
+   /** Creates a copy of {@code set}. */
+   public IntBitSet( final IntBitSet set ) {
+      _capacity = set._capacity;
+      _words = set._words.clone();
+      _size = set._size;
+   }
+
+   /** Returns the number of possible elements, i.e. the elements are in {@code [0,capacity)}. */
+   public int capacity() {
+      return _capacity;
+   }
+
+   @Override
+   public Iterator<IntCursor> iterator() {
+      return new IntCursorIterator( this );
+   }
+
+   @Override
+   public dev.costin.fastcollections.IntIterator intIterator() {
+      return new IntIterator( this );
+   }
+
+   @Override
+   public int size() {
+      return _size;
+   }
+
+   /**
+    * Returns the memory held by this set. Nothing is reported as wasted since
+    * the size of the words depends only on the capacity.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( MemoryReport.REFERENCE + 3 * 4 ), 0 );
+      report.add( "words", MemoryReport.arrayBytes( _words.length, 8 ), 0 );
+      return report;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return _size == 0;
+   }
+
+   @Override
+   public boolean contains( final int value ) {
+      return value >= 0 && value < _capacity && ( _words[value >>> 6] & ( 1L << value ) ) != 0;
+   }
+
+   @Override
+   public boolean containsAll( IntCollection c ) {
+      for( final dev.costin.fastcollections.IntIterator iter = c.intIterator(); iter.hasNext(); ) {
+         if( !contains( iter.nextInt() ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Adds {@code value} to the set.
+    *
+    * @throws IndexOutOfBoundsException
+    *            If {@code value} is not in {@code [0,capacity)}.
+    */
+   @Override
+   public boolean add( final int value ) {
+      if( value < 0 || value >= _capacity ) {
+         throw new IndexOutOfBoundsException( "Value " + value + " out of range [0," + _capacity + ")" );
+      }
+      final int w = value >>> 6;
+      final long bit = 1L << value;
+      if( ( _words[w] & bit ) != 0 ) {
+         return false;
+      }
+      _words[w] |= bit;
+      ++_size;
+      ++_modCounter;
+      return true;
+   }
+
+   @Override
+   public boolean remove( final int value ) {
+      if( contains( value ) ) {
+         _words[value >>> 6] &= ~( 1L << value );
+         --_size;
+         ++_modCounter;
+         return true;
+      }
+      return false;
+   }
+
+   @Override
+   public void clear() {
+      Arrays.fill( _words, 0L );
+      _size = 0;
+      ++_modCounter;
+   }
+
+   @Override
+   public boolean addAll( IntCollection elements ) {
+      if( elements instanceof IntBitSet ) {
+         return addAll( (IntBitSet) elements );
+      }
+      boolean changed = false;
+      for( dev.costin.fastcollections.IntIterator iter = elements.intIterator(); iter.hasNext(); ) {
+         changed |= add( iter.nextInt() );
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean addAll( int... elements ) {
+      boolean changed = false;
+      for( int i = 0; i < elements.length; i++ ) {
+         changed |= add( elements[i] );
+      }
+      return changed;
+   }
+
+   /**
+    * Adds all elements of {@code set} (union). Elements not in
+    * {@code [0,capacity)} of this set are ignored.
+    *
+    * @return {@code true} if this set has been changed.
+    */
+   public boolean addAll( final IntBitSet set ) {
+      final long[] words = _words;
+      final long[] other = set._words;
+      final int count = Math.min( words.length, other.length );
+      final long lastMask = lastWordMask();
+      int size = 0;
+
+      for( int i = 0; i < count; i++ ) {
+         long w = words[i] | other[i];
+         if( i == words.length - 1 ) {
+            w &= lastMask;
+         }
+         words[i] = w;
+         size += Long.bitCount( w );
+      }
+      for( int i = count; i < words.length; i++ ) {
+         size += Long.bitCount( words[i] );
+      }
+      return updateSize( size );
+   }
+
+   /**
+    * Removes all elements not contained in {@code set} (intersection).
+    *
+    * @return {@code true} if this set has been changed.
+    */
+   public boolean retainAll( final IntBitSet set ) {
+      final long[] words = _words;
+      final long[] other = set._words;
+      final int count = Math.min( words.length, other.length );
+      int size = 0;
+
+      for( int i = 0; i < count; i++ ) {
+         size += Long.bitCount( words[i] &= other[i] );
+      }
+      Arrays.fill( words, count, words.length, 0L );
+      return updateSize( size );
+   }
+
+   /**
+    * Removes all elements contained in {@code set} (difference).
+    *
+    * @return {@code true} if this set has been changed.
+    */
+   public boolean removeAll( final IntBitSet set ) {
+      final long[] words = _words;
+      final long[] other = set._words;
+      final int count = Math.min( words.length, other.length );
+      int size = 0;
+
+      for( int i = 0; i < count; i++ ) {
+         size += Long.bitCount( words[i] &= ~other[i] );
+      }
+      for( int i = count; i < words.length; i++ ) {
+         size += Long.bitCount( words[i] );
+      }
+      return updateSize( size );
+   }
+
+   /**
+    * Returns the number of elements contained in this set and in {@code set}
+    * without modifying any of them.
+    */
+   public int intersectionSize( final IntBitSet set ) {
+      final long[] words = _words;
+      final long[] other = set._words;
+      final int count = Math.min( words.length, other.length );
+      int size = 0;
+
+      for( int i = 0; i < count; i++ ) {
+         size += Long.bitCount( words[i] & other[i] );
+      }
+      return size;
+   }
+
+   /**
+    * Returns the smallest element {@code >= from} or {@code -1} if there is no
+    * such element.
+    */
+   public int nextSetBit( int from ) {
+      if( from >= _capacity ) {
+         return -1;
+      }
+      if( from < 0 ) {
+         from = 0;
+      }
+      int w = from >>> 6;
+      long word = _words[w] & ( -1L << from );
+
+      while( word == 0 ) {
+         if( ++w == _words.length ) {
+            return -1;
+         }
+         word = _words[w];
+      }
+      return ( w << 6 ) + Long.numberOfTrailingZeros( word );
+   }
+
+   /**
+    * Returns the number of elements smaller than {@code value}, i.e. the
+    * position of {@code value} in ascending order if it is contained. Costs
+    * {@code O(value/64)}.
+    */
+   public int rank( final int value ) {
+      final int to = Math.min( value, _capacity );
+      if( to <= 0 ) {
+         return 0;
+      }
+      final int w = to >>> 6;
+      int count = 0;
+      for( int i = 0; i < w; i++ ) {
+         count += Long.bitCount( _words[i] );
+      }
+      if( ( to & 63 ) != 0 ) {
+         count += Long.bitCount( _words[w] & ( ( 1L << to ) - 1 ) );
+      }
+      return count;
+   }
+
+   @Override
+   public boolean equals( final Object o ) {
+      if( o instanceof IntBitSet ) {
+         final IntBitSet set = (IntBitSet) o;
+         return set == this || _size == set._size && intersectionSize( set ) == _size;
+      }
+      if( o instanceof IntSet ) {
+         final IntSet set = (IntSet) o;
+         return size() == set.size() && containsAll( set );
+      }
+      return false;
+   }
+
+   private long lastWordMask() {
+      final int bits = _capacity & 63;
+      return bits == 0 ? -1L : ( 1L << bits ) - 1;
+   }
+
+   private boolean updateSize( final int size ) {
+      if( size != _size ) {
+         _size = size;
+         ++_modCounter;
+         return true;
+      }
+      return false;
+   }
+}
@@ -10,8 +10,10 @@ import dev.costin.fastcollections.IntCursor;
 import dev.costin.fastcollections.sets.IntSet;
 import dev.costin.fastcollections.tools.CollectionUtils;
 import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
 
-public class IntGrowingSet implements IntSet {
+public class IntGrowingSet implements IntSet, MemoryMeasurable {
 
    private static final int[] EMPTY = {};
    
@@ -226,6 +228,19 @@ public class IntGrowingSet implements IntSet {
    public int size() {
       return _size;
    }
+
+   /**
+    * Returns the memory held by this set. All slots of the range array that
+    * do not hold an element and the unused capacity of the list are wasted.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 2 * MemoryReport.REFERENCE + 3 * 4 ), 0 );
+      report.add( "set", MemoryReport.arrayBytes( _set.length, 4 ), ( _set.length - (long) _size ) * 4 );
+      report.add( "list", MemoryReport.arrayBytes( _list.length, 4 ), ( _list.length - (long) _size ) * 4 );
+      return report;
+   }
    
    @Override
    public boolean isEmpty() {
@@ -346,6 +361,17 @@ public class IntGrowingSet implements IntSet {
       return false;
    }
 
+   /**
+    * Returns the position of {@code value} in the internal list, i.e. the index
+    * {@code i} with {@code get(i) == value}, or {@code -1} if the value is not
+    * contained. Adding appends at position {@code size()-1}; removing moves the
+    * last element into the position of the removed one.
+    */
+   public int indexOf( final int value ) {
+      final int idx = value - _offset;
+      return idx >= 0 && idx < _set.length ? _set[idx] - 1 : -1;
+   }
+
    public int get( int i ) {
       if( i >= _size ) {
          throw new IndexOutOfBoundsException();
@@ -0,0 +1,437 @@
+package dev.costin.fastcollections.sets.impl;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import dev.costin.fastcollections.IntCollection;
+import dev.costin.fastcollections.IntCursor;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+
+/**
+ * {@link IntSet} based on open addressing with linear probing.
+ *
+ * <p>
+ * Unlike {@link IntGrowingSet} the memory used is proportional to the number
+ * of elements and not to the range of the elements, which makes this set the
+ * better choice for few elements spread over a large range. The elements are
+ * additionally kept in a dense list, so iteration is as fast as for
+ * {@link IntGrowingSet}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class IntHashSet implements IntSet, MemoryMeasurable {
+
+   private static final int[] EMPTY = {};
+
+   private static final int MAX_CAPACITY = 1 << 30;
+
+   /** Hash table of references into {@link #_list}, {@code 0} marks a free slot. */
+   private int[]       _table;
+   private int[]       _list;
+   private int         _size;
+   protected int       _modCounter = 0;
+
+   protected static class IntCursorIterator implements Iterator<IntCursor>, IntCursor {
+
+      private final IntHashSet _set;
+      private final int[]      _list;
+      private int              _next;
+      private int              _value;
+      private int              _modCounter;
+      private int              _lastRemoved;
+
+      IntCursorIterator( final IntHashSet set ) {
+         _set = set;
+         _list = _set._list;
+         _next = 0;
+         _value = 0;
+         _modCounter = _set._modCounter;
+         _lastRemoved = -1;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next < _set.size();
+      }
+
+      @Override
+      public IntCursor next() {
+         if( _modCounter != _set._modCounter ) {
+            throw new ConcurrentModificationException();
+         }
+
+         _value = _list[_next++];
+         return this;
+      }
+
+      @Override
+      public void remove() {
+         assert _set.contains( _value ) : "Element has already been removed!";
+
+         if( _modCounter != _set._modCounter ) {
+            throw new ConcurrentModificationException();
+         }
+         if( _lastRemoved >= _next ) {
+            throw new NoSuchElementException();
+         }
+         // it is important to use the remove method of the set
+         // to ensure that subclass of the set are still able to use
+         // this iterator!
+         _lastRemoved = --_next;
+         _set.remove( _value );
+         ++_modCounter;
+      }
+
+      @Override
+      public int value() {
+         return _value;
+      }
+
+   }
+
+   protected static class IntIterator implements dev.costin.fastcollections.IntIterator {
+
+      private final IntHashSet _set;
+
+      private final int[]      _list;
+
+      private int              _next;
+
+      private int              _lastValue;
+
+      private int              _modCounter;
+      private int              _lastRemoved;
+
+      IntIterator( final IntHashSet set ) {
+         _set = set;
+         _list = _set._list;
+         _next = 0;
+         _modCounter = _set._modCounter;
+         _lastRemoved = -1;
+      }
+
+      @Override
+      public int nextInt() {
+         if( _modCounter != _set._modCounter ) {
+            throw new ConcurrentModificationException();
+         }
+
+         return _lastValue = _list[_next++];
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next < _set.size();
+      }
+
+      @Override
+      public void remove() {
+         assert _set.contains( _lastValue ) : "Element has already been removed!";
+
+         if( _modCounter != _set._modCounter ) {
+            throw new ConcurrentModificationException();
+         }
+         if( _lastRemoved >= _next ) {
+            throw new NoSuchElementException();
+         }
+         // it is important to use the remove method of the set
+         // to ensure that subclass of the set are still able to use
+         // this iterator!
+         _lastRemoved = --_next;
+         _set.remove( _lastValue );
+         ++_modCounter;
+      }
+
+   }
+
+   public IntHashSet() {
+      _table = EMPTY;
+      _list = EMPTY;
+      _size = 0;
+   }
+
+   /**
+    * Creates a set which is able to hold {@code expectedSize} elements without
+    * growing.
+    */
+   public IntHashSet( final int expectedSize ) {
+      this();
+
+      if( expectedSize > 0 ) {
+         _list = new int[expectedSize];
+         _table = new int[tableCapacityFor( expectedSize )];
+      }
+   }
+
+   public IntHashSet( final IntSet set ) {
+      this( set.size() );
+      addAll( set );
+   }
+
+   @Override
+   public Iterator<IntCursor> iterator() {
+      return new IntCursorIterator( this );
+   }
+
+   @Override
+   public int size() {
+      return _size;
+   }
+
+   /**
+    * Returns the memory held by this set. The empty slots of the hash table and
+    * the unused capacity of the list are wasted.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 2 * MemoryReport.REFERENCE + 2 * 4 ), 0 );
+      report.add( "table", MemoryReport.arrayBytes( _table.length, 4 ), ( _table.length - (long) _size ) * 4 );
+      report.add( "list", MemoryReport.arrayBytes( _list.length, 4 ), ( _list.length - (long) _size ) * 4 );
+      return report;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return _size == 0;
+   }
+
+   @Override
+   public boolean contains( final int value ) {
+      return slotOf( value ) >= 0;
+   }
+
+   @Override
+   public boolean containsAll( IntCollection c ) {
+      for( final dev.costin.fastcollections.IntIterator iter = c.intIterator(); iter.hasNext(); ) {
+         if( !contains( iter.nextInt() ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public boolean add( final int value ) {
+      if( _size >= ( _table.length >> 1 ) + ( _table.length >> 2 ) ) {
+         rehash( tableCapacityFor( _size + 1 ) );
+      }
+
+      final int mask = _table.length - 1;
+      int slot = hash( value ) & mask;
+      int ref;
+
+      while( ( ref = _table[slot] ) != 0 ) {
+         if( _list[ref - 1] == value ) {
+            return false;
+         }
+         slot = ( slot + 1 ) & mask;
+      }
+
+      ensureListCapacity( _size + 1 );
+      _list[_size++] = value;
+      _table[slot] = _size;
+      ++_modCounter;
+
+      return true;
+   }
+
+   @Override
+   public boolean remove( final int value ) {
+      final int slot = slotOf( value );
+
+      if( slot < 0 ) {
+         return false;
+      }
+
+      final int ref = _table[slot];
+      deleteSlot( slot );
+
+      if( ref != _size-- ) { // Careful: the decrement must be postponed!
+         // move the last list element into the gap
+         final int other = _list[_size];
+         _list[ref - 1] = other;
+         _table[slotOf( other )] = ref;
+      }
+
+      ++_modCounter;
+
+      return true;
+   }
+
+   @Override
+   public dev.costin.fastcollections.IntIterator intIterator() {
+      return new IntIterator( this );
+   }
+
+   @Override
+   public void clear() {
+      if( _size < _table.length >> 3 ) {
+         // the slots already freed break the probe chains, thus the slot of each
+         // element is found by its reference instead of a lookup stopping at
+         // the first free slot
+         final int mask = _table.length - 1;
+         for( int i = 0; i < _size; i++ ) {
+            int slot = hash( _list[i] ) & mask;
+            while( _table[slot] != i + 1 ) {
+               slot = ( slot + 1 ) & mask;
+            }
+            _table[slot] = 0;
+         }
+      }
+      else {
+         Arrays.fill( _table, 0 );
+      }
+      _size = 0;
+      ++_modCounter;
+   }
+
+   @Override
+   public boolean addAll( IntCollection elements ) {
+      for( dev.costin.fastcollections.IntIterator iter = elements.intIterator(); iter.hasNext(); ) {
+         add( iter.nextInt() );
+      }
+      return true;
+   }
+
+   @Override
+   public boolean addAll( int... elements ) {
+      for( int i = 0; i < elements.length; i++ ) {
+         add( elements[i] );
+      }
+      return true;
+   }
+
+   @Override
+   public boolean equals( final Object o ) {
+      if( o instanceof IntSet ) {
+         final IntSet set = (IntSet) o;
+         return set == this || size() == set.size() && containsAll( set );
+      }
+      return false;
+   }
+
+   /**
+    * Returns the position of {@code value} in the internal list, i.e. the index
+    * {@code i} with {@code get(i) == value}, or {@code -1} if the value is not
+    * contained. Adding appends at position {@code size()-1}; removing moves the
+    * last element into the position of the removed one.
+    */
+   public int indexOf( final int value ) {
+      final int slot = slotOf( value );
+      return slot < 0 ? -1 : _table[slot] - 1;
+   }
+
+   /** Returns the element at position {@code i} of the internal list. */
+   public int get( int i ) {
+      if( i >= _size ) {
+         throw new IndexOutOfBoundsException();
+      }
+      return _list[i];
+   }
+
+   private static int hash( final int value ) {
+      final int h = value * 0x9E3779B9;
+      return h ^ ( h >>> 16 );
+   }
+
+   private static int tableCapacityFor( final int size ) {
+      // keep the load factor below 0.75
+      final int minCapacity = size + ( size / 3 ) + 1;
+      if( minCapacity > MAX_CAPACITY || minCapacity < 0 ) {
+         throw new OutOfMemoryError();
+      }
+      int capacity = FastCollections.DEFAULT_LIST_CAPACITY;
+      while( capacity < minCapacity ) {
+         capacity <<= 1;
+      }
+      return capacity;
+   }
+
+   /** Returns the table slot referencing {@code value} or {@code -1}. */
+   private int slotOf( final int value ) {
+      if( _size == 0 ) {
+         return -1;
+      }
+
+      final int mask = _table.length - 1;
+      int slot = hash( value ) & mask;
+      int ref;
+
+      while( ( ref = _table[slot] ) != 0 ) {
+         if( _list[ref - 1] == value ) {
+            return slot;
+         }
+         slot = ( slot + 1 ) & mask;
+      }
+
+      return -1;
+   }
+
+   /**
+    * Frees the given slot by shifting back following entries of the same probe
+    * sequence, thus no tombstones are needed.
+    */
+   private void deleteSlot( int hole ) {
+      final int mask = _table.length - 1;
+      int slot = hole;
+
+      for( ;; ) {
+         slot = ( slot + 1 ) & mask;
+         final int ref = _table[slot];
+         if( ref == 0 ) {
+            break;
+         }
+         final int ideal = hash( _list[ref - 1] ) & mask;
+         if( ( ( slot - ideal ) & mask ) >= ( ( slot - hole ) & mask ) ) {
+            _table[hole] = ref;
+            hole = slot;
+         }
+      }
+
+      _table[hole] = 0;
+   }
+
+   private void rehash( final int newCapacity ) {
+      final int[] table = new int[newCapacity];
+      final int mask = newCapacity - 1;
+
+      for( int i = 0; i < _size; i++ ) {
+         int slot = hash( _list[i] ) & mask;
+         while( table[slot] != 0 ) {
+            slot = ( slot + 1 ) & mask;
+         }
+         table[slot] = i + 1;
+      }
+
+      _table = table;
+   }
+
+   private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+   private void ensureListCapacity( final int minCapacity ) {
+      if( minCapacity < 0 ) { // overflow
+         throw new OutOfMemoryError();
+      }
+      if( _list == EMPTY ) {
+         _list = new int[Math.max( minCapacity, FastCollections.DEFAULT_LIST_CAPACITY )];
+      }
+      else if( minCapacity > _list.length ) {
+         int newCapacity = _list.length + ( _list.length >> 1 ) + 1;
+         if( newCapacity - minCapacity < 0 ) {
+            newCapacity = minCapacity;
+         }
+         if( newCapacity - MAX_ARRAY_SIZE > 0 ) {
+            newCapacity = MAX_ARRAY_SIZE;
+         }
+         _list = Arrays.copyOf( _list, newCapacity );
+      }
+   }
+}
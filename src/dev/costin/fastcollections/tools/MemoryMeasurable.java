@@ -0,0 +1,16 @@
+package dev.costin.fastcollections.tools;
+
+/**
+ * A structure that can estimate the memory it holds, see {@link MemoryReport}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface MemoryMeasurable {
+
+   /**
+    * Returns the estimated memory held by this structure, broken down into its
+    * components. The report is a snapshot; it is not updated by later changes.
+    */
+   MemoryReport memoryFootprint();
+}
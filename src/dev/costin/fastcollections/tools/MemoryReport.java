@@ -0,0 +1,184 @@
+package dev.costin.fastcollections.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Estimated memory held by a collection or graph, broken down into named
+ * components, e.g. the internal arrays of a set.
+ *
+ * <p>
+ * Every component reports the bytes it retains and the part of them that is
+ * wasted, i.e. capacity reserved by the growth policy but not holding any
+ * element. A report can contain further reports, {@link #bytes()} and
+ * {@link #wastedBytes()} include them:
+ * </p>
+ *
+ * <pre>
+ * final MemoryReport report = graph.memoryFootprint();
+ * if( report.wastedBytes() > report.bytes() / 2 ) {
+ *    // e.g. switch to a sparse or compact representation
+ * }
+ * System.out.println( report );
+ * </pre>
+ *
+ * <p>
+ * The sizes are estimates for a 64 bit JVM with compressed references, see
+ * {@link #OBJECT_HEADER}, {@link #ARRAY_HEADER} and {@link #REFERENCE}. Objects
+ * shared with other structures, e.g. the values of a map, are not included.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public final class MemoryReport {
+
+   /** The size of an object header in bytes. */
+   public static final int OBJECT_HEADER = 12;
+   /** The size of an array header, including the length, in bytes. */
+   public static final int ARRAY_HEADER  = 16;
+   /** The size of a reference in bytes. */
+   public static final int REFERENCE     = 4;
+
+   private final String             _name;
+   private long                     _bytes;
+   private long                     _wastedBytes;
+   private final List<MemoryReport> _components = new ArrayList<MemoryReport>();
+
+   /** Creates an empty report. */
+   public MemoryReport( final String name ) {
+      this( name, 0, 0 );
+   }
+
+   /**
+    * Creates a report of {@code bytes} retained bytes of which
+    * {@code wastedBytes} are unused.
+    */
+   public MemoryReport( final String name, final long bytes, final long wastedBytes ) {
+      _name = name;
+      _bytes = bytes;
+      _wastedBytes = wastedBytes;
+   }
+
+   public String name() {
+      return _name;
+   }
+
+   /** Returns the retained bytes, including all components. */
+   public long bytes() {
+      long bytes = _bytes;
+      for( final MemoryReport component : _components ) {
+         bytes += component.bytes();
+      }
+      return bytes;
+   }
+
+   /** Returns the unused part of {@link #bytes()}. */
+   public long wastedBytes() {
+      long bytes = _wastedBytes;
+      for( final MemoryReport component : _components ) {
+         bytes += component.wastedBytes();
+      }
+      return bytes;
+   }
+
+   /** Returns the components in the order they have been added. */
+   public List<MemoryReport> components() {
+      return Collections.unmodifiableList( _components );
+   }
+
+   /** Returns the component with the given name or {@code null} if there is no such component. */
+   public MemoryReport component( final String name ) {
+      for( final MemoryReport component : _components ) {
+         if( component._name.equals( name ) ) {
+            return component;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Adds a component of {@code bytes} retained bytes of which
+    * {@code wastedBytes} are unused.
+    *
+    * @return This report.
+    */
+   public MemoryReport add( final String name, final long bytes, final long wastedBytes ) {
+      return add( new MemoryReport( name, bytes, wastedBytes ) );
+   }
+
+   /**
+    * Adds {@code component}.
+    *
+    * @return This report.
+    */
+   public MemoryReport add( final MemoryReport component ) {
+      _components.add( component );
+      return this;
+   }
+
+   /**
+    * Adds a copy of {@code component} under another name, e.g. to tell apart
+    * the reports of two collections of the same type.
+    *
+    * @return This report.
+    */
+   public MemoryReport add( final String name, final MemoryReport component ) {
+      return add( new MemoryReport( name ).merge( component ) );
+   }
+
+   /**
+    * Adds the bytes of {@code report} to this report, summing up the
+    * components with the same name. Used to aggregate the reports of many
+    * small structures, e.g. the adjacencies of a graph, into one.
+    *
+    * @return This report.
+    */
+   public MemoryReport merge( final MemoryReport report ) {
+      _bytes += report._bytes;
+      _wastedBytes += report._wastedBytes;
+      for( final MemoryReport other : report._components ) {
+         MemoryReport component = component( other._name );
+         if( component == null ) {
+            component = new MemoryReport( other._name );
+            _components.add( component );
+         }
+         component.merge( other );
+      }
+      return this;
+   }
+
+   /** Returns the size of an object with {@code fieldBytes} bytes of fields. */
+   public static long objectBytes( final long fieldBytes ) {
+      return align( OBJECT_HEADER + fieldBytes );
+   }
+
+   /** Returns the size of an array of {@code length} elements of {@code elementBytes} each. */
+   public static long arrayBytes( final int length, final int elementBytes ) {
+      return align( ARRAY_HEADER + (long) length * elementBytes );
+   }
+
+   private static long align( final long bytes ) {
+      return ( bytes + 7 ) & ~7L;
+   }
+
+   /** Returns one line per component, indented by depth, with the retained and the wasted bytes. */
+   @Override
+   public String toString() {
+      final StringBuilder sb = new StringBuilder();
+      append( sb, 0 );
+      return sb.toString();
+   }
+
+   private void append( final StringBuilder sb, final int depth ) {
+      for( int i = 0; i < depth; i++ ) {
+         sb.append( "  " );
+      }
+      sb.append( String.format( Locale.ROOT, "%s: %,d bytes (%,d wasted)%n", _name, bytes(), wastedBytes() ) );
+      for( final MemoryReport component : _components ) {
+         component.append( sb, depth + 1 );
+      }
+   }
+}
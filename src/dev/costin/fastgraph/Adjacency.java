@@ -14,4 +14,12 @@ public interface Adjacency extends IntSet {
    
    int owner();
    
+   /**
+    * Returns the id of the edge from {@link #owner()} to {@code vertex} or
+    * {@code -1} if there is no such edge.
+    *
+    * @see Graph#edgeId(int, int)
+    */
+   int edgeId( int vertex );
+   
 }
@@ -1,11 +1,23 @@
 package dev.costin.fastgraph;
 
+/**
+ * A {@link Graph} whose vertices can be temporarily disabled.
+ *
+ * <p>
+ * A disabled vertex keeps its id but has no edges: it is neither contained in
+ * any adjacency nor has an adjacency of its own, and traversals do not start
+ * from it. Enabling the vertex restores all of its edges.
+ * </p>
+ */
 public interface DeactivatableVerticesGraph extends Graph {
 
-	  void disable( int vertex );
-	   
-	  void enable( int vertex );
-	  
-	  
+   void disable( int vertex );
+
+   void enable( int vertex );
+
+   boolean isEnabled( int vertex );
+
+   /** Enables all vertices. */
+   void enableAll();
 
 }
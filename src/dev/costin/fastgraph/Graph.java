@@ -20,6 +20,39 @@ public interface Graph {
 
    int getInDegree( int vertex );
 
+   /**
+    * Returns the set of vertices having an edge to {@code vertex}. The returned
+    * set must not be modified.
+    */
+   IntSet predecessorsOf( int vertex );
+
+   /**
+    * Returns {@code false} if every edge {@code u->v} implies {@code v->u},
+    * i.e. the graph is undirected and {@link #edgesCount()} counts each pair
+    * once.
+    */
+   boolean isDirected();
+
+   /**
+    * Returns the id of the edge {@code source->dest} or {@code -1} if there is
+    * no such edge.
+    *
+    * <p>
+    * Edge ids are in {@code [0,edgeIdBound())} and do not change as long as
+    * the edge exists, so values per edge can be stored in plain arrays indexed
+    * by the id. Ids of removed edges are reused for edges added later. Both
+    * directions of an undirected edge have the same id.
+    * </p>
+    */
+   int edgeId( int source, int dest );
+
+   /**
+    * Returns an upper bound (exclusive) of all edge ids, i.e. the length an
+    * array indexed by edge id needs to have. For immutable graphs the bound
+    * equals {@link #edgesCount()}.
+    */
+   int edgeIdBound();
+
    Graph subGraph( IntSet vertices );
 
 }
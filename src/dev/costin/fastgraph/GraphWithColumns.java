@@ -0,0 +1,26 @@
+package dev.costin.fastgraph;
+
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
+
+/**
+ * A {@link Graph} with columnar properties, see {@link PropertyColumns}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface GraphWithColumns extends Graph {
+
+   /**
+    * Returns the vertex property columns, keyed by vertex id. The columns grow
+    * with the graph.
+    */
+   PropertyColumns vertexColumns();
+
+   /**
+    * Returns the edge property columns, keyed by {@link #edgeId(int, int)}. The
+    * columns grow with the graph; the values of a new edge are {@code 0}, also
+    * if its id is reused.
+    */
+   PropertyColumns edgeColumns();
+
+}
@@ -9,6 +9,10 @@ public interface GraphWithProperties<V extends BasicProperties, E extends BasicP
    AdjacencyWithProperties<E> adjacencyOf( int vertex );
    
    V getVertexProperties( int vertex );
+   /**
+    * Returns the properties of the edge {@code source->dest}, created on first
+    * access, or {@code null} if there is no such edge.
+    */
    E getEdgeProperties( int source, int dest );
    
 }
@@ -0,0 +1,202 @@
+package dev.costin.fastgraph.algos;
+
+import java.util.Arrays;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.dequeue.impl.IntArrayRingDeque;
+import dev.costin.fastgraph.DeactivatableVerticesGraph;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+
+/**
+ * Breadth first search traversal.
+ *
+ * <p>
+ * The vertices are visited level by level, starting with a root at depth
+ * {@code 0}. Every vertex is reported once, when it is taken from the queue,
+ * together with its depth and its parent in the BFS tree ({@code -1} for the
+ * root). If the visitor returns {@code false} the traversal stops immediately.
+ * </p>
+ *
+ * <p>
+ * The queue is the {@link TraversalWorkspace#deque()} and the visited marks,
+ * depths and parents are kept in the workspace, so apart from the adjacency
+ * iterators nothing is allocated per vertex; the edges of a
+ * {@link CompactDiGraph} are read from its arrays without any iterator. The
+ * depths and parents can additionally be recorded into arrays of the caller,
+ * see {@link #recordDistances(int[])} and {@link #recordParents(int[])}.
+ * </p>
+ *
+ * <p>
+ * Disabled vertices of a {@link DeactivatableVerticesGraph} are skipped like
+ * by {@link DepthFirstSearch}.
+ * </p>
+ *
+ * <p>
+ * <strong>NOTE:</strong> This class is not stateless and thus also not
+ * thread-save!
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BreadthFirstSearch implements VertexTraversal {
+
+   /**
+    * Visitor interface receiving the depth and the parent of every vertex.
+    */
+   public static interface BFSVertexVisitor {
+
+      /**
+       * Called for every reached vertex in BFS order.
+       *
+       * @param parent
+       *           The vertex {@code vertex} has been reached from, {@code -1}
+       *           for the root.
+       * @return {@code false} to stop the traversal.
+       */
+      boolean visit( int vertex, int depth, int parent );
+
+   }
+
+   private static final BFSVertexVisitor CONTINUE = new BFSVertexVisitor() {
+      @Override
+      public boolean visit( int vertex, int depth, int parent ) {
+         return true;
+      }
+   };
+
+   private final TraversalWorkspace _workspace;
+   private int[]                    _distances;
+   private int[]                    _parents;
+   /** The queue, depths and parents of the workspace during a search. */
+   private IntArrayRingDeque        _queue;
+   private int[]                    _depths;
+   private int[]                    _treeParents;
+
+   public BreadthFirstSearch() {
+      this( new TraversalWorkspace() );
+   }
+
+   /** Creates a search using the given workspace for the queue and the state of the vertices. */
+   public BreadthFirstSearch( final TraversalWorkspace workspace ) {
+      _workspace = workspace;
+   }
+
+   /**
+    * Sets an array receiving the depth of every visited vertex, {@code null}
+    * to record nothing. The entries of the vertices not reached are left
+    * unchanged, fill the array with e.g. {@code -1} beforehand.
+    */
+   public void recordDistances( final int[] distances ) {
+      _distances = distances;
+   }
+
+   /** Sets an array receiving the parent of every visited vertex, see {@link #recordDistances(int[])}. */
+   public void recordParents( final int[] parents ) {
+      _parents = parents;
+   }
+
+   /**
+    * Returns the distances of all vertices from {@code start} in edges,
+    * {@code -1} for the vertices not reachable.
+    */
+   public static int[] distances( final Graph graph, final int start ) {
+      final int[] distances = new int[graph.verticesCount()];
+      Arrays.fill( distances, -1 );
+      final BreadthFirstSearch bfs = new BreadthFirstSearch();
+      bfs.recordDistances( distances );
+      bfs.traverse2( graph, start, CONTINUE );
+      return distances;
+   }
+
+   /** Visits all vertices, a new tree is started at every vertex not reached yet. */
+   @Override
+   public void traverse( final Graph graph, final VertexVisitor visitor ) {
+      traverse2( graph, adapter( visitor ) );
+   }
+
+   /** Visits the vertices reachable from {@code start}. */
+   public void traverse( final Graph graph, final int start, final VertexVisitor visitor ) {
+      traverse2( graph, start, adapter( visitor ) );
+   }
+
+   public void traverse2( final Graph graph, final BFSVertexVisitor visitor ) {
+      _workspace.begin( graph.verticesCount() );
+
+      boolean doContinue = true;
+      for( int i = 0; i < graph.verticesCount() && doContinue; i++ ) {
+         if( !_workspace.isMarked( i ) && DepthFirstSearch.isEnabled( graph, i ) ) {
+            doContinue = search( graph, i, visitor );
+         }
+      }
+   }
+
+   /**
+    * Visits the vertices reachable from {@code start}, costs
+    * {@code O(visited)} with a reused workspace.
+    */
+   public void traverse2( final Graph graph, final int start, final BFSVertexVisitor visitor ) {
+      _workspace.begin( graph.verticesCount() );
+      if( DepthFirstSearch.isEnabled( graph, start ) ) {
+         search( graph, start, visitor );
+      }
+   }
+
+   private boolean search( final Graph graph, final int root, final BFSVertexVisitor visitor ) {
+      final IntArrayRingDeque queue = _queue = _workspace.deque();
+      final int[] depths = _depths = _workspace.depths();
+      final int[] parents = _treeParents = _workspace.parents();
+      final CompactDiGraph compact = graph instanceof CompactDiGraph ? (CompactDiGraph) graph : null;
+
+      reach( root, 0, -1 );
+      while( !queue.isEmpty() ) {
+         final int v = queue.take();
+         final int depth = depths[v];
+         if( !visitor.visit( v, depth, parents[v] ) ) {
+            queue.clear();
+            return false;
+         }
+
+         if( compact != null ) {
+            for( int i = compact.edgesBegin( v ), end = compact.edgesEnd( v ); i < end; i++ ) {
+               final int w = compact.targetAt( i );
+               if( !_workspace.isMarked( w ) ) {
+                  reach( w, depth + 1, v );
+               }
+            }
+         }
+         else {
+            for( final IntIterator iter = graph.adjacencyOf( v ).intIterator(); iter.hasNext(); ) {
+               final int w = iter.nextInt();
+               if( !_workspace.isMarked( w ) ) {
+                  reach( w, depth + 1, v );
+               }
+            }
+         }
+      }
+      return true;
+   }
+
+   private void reach( final int v, final int depth, final int parent ) {
+      _workspace.mark( v, 1 );
+      _depths[v] = depth;
+      _treeParents[v] = parent;
+      if( _distances != null ) {
+         _distances[v] = depth;
+      }
+      if( _parents != null ) {
+         _parents[v] = parent;
+      }
+      _queue.offer( v );
+   }
+
+   private static BFSVertexVisitor adapter( final VertexVisitor visitor ) {
+      return new BFSVertexVisitor() {
+         @Override
+         public boolean visit( int vertex, int depth, int parent ) {
+            return visitor.visit( vertex );
+         }
+      };
+   }
+}
@@ -1,12 +1,34 @@
 package dev.costin.fastgraph.algos;
 
 import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastgraph.DeactivatableVerticesGraph;
 import dev.costin.fastgraph.Graph;
 
 /**
  * Depth first search traversal.
  * 
  * <p>
+ * On undirected graphs (see {@link Graph#isDirected()}) every edge is reported
+ * once: the tree edge is not reported again as back edge from the child and
+ * all other edges are back edges, there are no crossing edges.
+ * </p>
+ * 
+ * <p>
+ * Disabled vertices of a {@link DeactivatableVerticesGraph} are skipped: no
+ * tree starts at them and, as their edges are hidden by the graph, they are
+ * never reached.
+ * </p>
+ * 
+ * <p>
+ * The marks and tree roots of the vertices are kept in a
+ * {@link TraversalWorkspace} which is reused by all traversals of this
+ * instance and can be shared with other searches. Together with
+ * {@link #traverse(Graph, int, EdgeVisitor)}, which only visits the vertices
+ * reachable from one start vertex, many small searches on a big graph cost
+ * {@code O(visited)} each.
+ * </p>
+ * 
+ * <p>
  * <strong>NOTE:</strong> This class is not stateless and thus also not
  * thread-save!
  * </p>
@@ -37,39 +59,56 @@ public class DepthFirstSearch implements EdgeTraversal {
    protected final static byte ON_PATH   = 1;
    protected final static byte DONE      = 2;
 
-   private Graph               _graph;
-   private byte[]              _mark;
-   private int[]               _treeRoot;
-   private int                 _currentTreeRoot;
+   private final TraversalWorkspace _workspace;
+   private Graph                    _graph;
+   private boolean                  _undirected;
+   private int[]                    _treeRoot;
+   private int                      _currentTreeRoot;
 
    public DepthFirstSearch() {
+      this( new TraversalWorkspace() );
+   }
+
+   /** Creates a search using the given workspace for the state of the vertices. */
+   public DepthFirstSearch( final TraversalWorkspace workspace ) {
+      _workspace = workspace;
+   }
 
+   protected TraversalWorkspace workspace() {
+      return _workspace;
    }
 
    @Override
    public void traverse( final Graph graph, final EdgeVisitor visitor ) {
-      _graph = graph;
-      _mark = new byte[graph.verticesCount()];
+      begin( graph );
 
-      // TODO: respect disabled vertices
       boolean doContinue = true;
       for( int i = 0; i < graph.verticesCount() && doContinue; i++ ) {
-         if( _mark[i] == UNVISITED ) {
+         if( _workspace.mark( i ) == UNVISITED && isEnabled( graph, i ) ) {
             doContinue = traverse_recursive( -1, i, visitor );
          }
       }
    }
 
-   public void traverse2( final Graph graph, final DFSVertexVisitor visitor ) {
-      _graph = graph;
-      _mark = new byte[graph.verticesCount()];
+   /**
+    * Traverses only the vertices reachable from {@code start}, costs
+    * {@code O(visited)} with a reused workspace.
+    */
+   public void traverse( final Graph graph, final int start, final EdgeVisitor visitor ) {
+      begin( graph );
+      if( isEnabled( graph, start ) ) {
+         traverse_recursive( -1, start, visitor );
+      }
+   }
 
-      _treeRoot = new int[graph.verticesCount()];
+   public void traverse2( final Graph graph, final DFSVertexVisitor visitor ) {
+      begin( graph );
+      _undirected = !graph.isDirected();
+      _treeRoot = _workspace.roots();
 
-      // TODO: respect disabled vertices
       boolean doContinue = true;
       for( int i = 0; i < graph.verticesCount() && doContinue; i++ ) {
-         if( _mark[i] == UNVISITED ) {
+         if( _workspace.mark( i ) == UNVISITED && isEnabled( graph, i ) ) {
             _currentTreeRoot = i;
             _treeRoot[i] = i;
             visitor.onNewTree( i );
@@ -78,20 +117,47 @@ public class DepthFirstSearch implements EdgeTraversal {
       }
    }
 
+   /**
+    * Traverses only the tree rooted at {@code start}, see
+    * {@link #traverse(Graph, int, EdgeVisitor)}. There are no tree crossing
+    * edges.
+    */
+   public void traverse2( final Graph graph, final int start, final DFSVertexVisitor visitor ) {
+      begin( graph );
+      _undirected = !graph.isDirected();
+      _treeRoot = _workspace.roots();
+
+      if( isEnabled( graph, start ) ) {
+         _currentTreeRoot = start;
+         _treeRoot[start] = start;
+         visitor.onNewTree( start );
+         traverse_recursive( -1, start, visitor );
+      }
+   }
+
+   private void begin( final Graph graph ) {
+      _graph = graph;
+      _workspace.begin( graph.verticesCount() );
+   }
+
+   protected static boolean isEnabled( final Graph graph, final int v ) {
+      return !( graph instanceof DeactivatableVerticesGraph ) || ( (DeactivatableVerticesGraph) graph ).isEnabled( v );
+   }
+
    protected boolean traverse_recursive( final int parent, final int v, final EdgeVisitor visitor ) {
-      _mark[ v ] = ON_PATH;
+      _workspace.mark( v, ON_PATH );
       
       if( visitor.visitEdge( parent, v ) ) {
          for( final IntIterator iter = _graph.adjacencyOf( v ).intIterator(); iter.hasNext(); ) {
             final int child = iter.nextInt();
 
-            if( _mark[ child ] == UNVISITED ) {
+            if( _workspace.mark( child ) == UNVISITED ) {
                if( !traverse_recursive( v, child, visitor ) ) {
                   return false;
                }
             }
          }
-         _mark[ v ] = DONE;
+         _workspace.mark( v, DONE );
          return true;
       }
       else {
@@ -100,14 +166,18 @@ public class DepthFirstSearch implements EdgeTraversal {
    }
 
    protected boolean traverse_recursive( final int parent, final int v, final DFSVertexVisitor visitor ) {
-      _mark[v] = ON_PATH;
+      _workspace.mark( v, ON_PATH );
       _treeRoot[v] = _currentTreeRoot;
 
       if( visitor.visitEdge( parent, v ) ) {
          for( final IntIterator iter = _graph.adjacencyOf( v ).intIterator(); iter.hasNext(); ) {
             final int child = iter.nextInt();
-            final byte childMark = _mark[ child ];
+            final int childMark = _workspace.mark( child );
             
+            if( _undirected && ( child == parent || childMark == DONE ) ) {
+               // the tree edge or a back edge already reported from the child
+               continue;
+            }
    			if( childMark == UNVISITED ) {
                if( !traverse_recursive( v, child, visitor ) ) {
                   return false;
@@ -127,7 +197,7 @@ public class DepthFirstSearch implements EdgeTraversal {
               return false;
             }
          }
-         _mark[v] = DONE;
+         _workspace.mark( v, DONE );
          return true;
       }
       else {
@@ -0,0 +1,284 @@
+package dev.costin.fastgraph.algos;
+
+import java.util.Arrays;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.impl.IntBitSet;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.CompactDiGraph.CompactAdjacency;
+import dev.costin.fastgraph.impl.DiGraph;
+
+/**
+ * Breadth first search switching between top-down and bottom-up steps
+ * (Beamer, Asanovi&#263;, Patterson: <i>Direction-Optimizing Breadth-First
+ * Search</i>).
+ *
+ * <p>
+ * A top-down step scans the edges of all frontier vertices. On low diameter
+ * graphs, e.g. social or scale-free graphs, the frontier of the middle levels
+ * contains a large part of the graph and most of these edges lead to vertices
+ * already reached. A bottom-up step instead checks for every vertex not yet
+ * reached whether one of its predecessors is in the frontier, which is kept as
+ * {@link IntBitSet}, and stops at the first one found. The search switches to
+ * bottom-up when the edges of the frontier exceed {@code 1/alpha} of the edges
+ * not yet checked and back to top-down when the frontier shrinks below
+ * {@code n/beta} vertices.
+ * </p>
+ *
+ * <p>
+ * Bottom-up steps iterate the predecessors of the vertices. Undirected graphs,
+ * {@link CompactDiGraph} and {@link DiGraph} with the predecessor index provide
+ * them in {@code O(in-degree)}. For all other graphs the transposed graph is
+ * built as CSR arrays at the first switch to bottom-up and dropped after the
+ * search; the graph itself is not modified, and searches staying top-down do
+ * not pay for it.
+ * </p>
+ *
+ * <p>
+ * <strong>NOTE:</strong> This class is not stateless and thus also not
+ * thread-save!
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class DirectionOptimizingBFS {
+
+   public static final int DEFAULT_ALPHA = 14;
+   public static final int DEFAULT_BETA  = 24;
+
+   private final int       _alpha;
+   private final int       _beta;
+   private int[]           _parents;
+   private int             _bottomUpLevels;
+   private long            _nextEdges;
+
+   public DirectionOptimizingBFS() {
+      this( DEFAULT_ALPHA, DEFAULT_BETA );
+   }
+
+   /**
+    * @param alpha
+    *           Switch to bottom-up if the edges of the frontier exceed
+    *           {@code 1/alpha} of the unchecked edges.
+    * @param beta
+    *           Switch back to top-down if the frontier has less than
+    *           {@code n/beta} vertices.
+    */
+   public DirectionOptimizingBFS( final int alpha, final int beta ) {
+      if( alpha <= 0 || beta <= 0 ) {
+         throw new IllegalArgumentException( "alpha and beta must be positive: " + alpha + ", " + beta );
+      }
+      _alpha = alpha;
+      _beta = beta;
+   }
+
+   /**
+    * Sets an array receiving the parent of every reached vertex in the BFS
+    * tree, {@code -1} for the start vertex. The entries of the vertices not
+    * reached are left unchanged. {@code null} records nothing.
+    */
+   public void recordParents( final int[] parents ) {
+      _parents = parents;
+   }
+
+   /** Returns the number of levels expanded bottom-up by the last search. */
+   public int bottomUpLevels() {
+      return _bottomUpLevels;
+   }
+
+   /**
+    * Returns the distances of all vertices from {@code start} in edges,
+    * {@code -1} for the vertices not reachable.
+    */
+   public int[] distances( final Graph graph, final int start ) {
+      final int n = graph.verticesCount();
+      final int[] distances = new int[n];
+      Arrays.fill( distances, -1 );
+      _bottomUpLevels = 0;
+
+      // the transposed graph, built at the first bottom-up step if needed
+      final boolean transpose = !hasFastPredecessors( graph );
+      int[][] reverse = null;
+
+      IntBitSet frontierBits = null;
+      IntBitSet nextBits = null;
+      int[] frontier = new int[n];
+      int[] next = new int[n];
+      int frontierSize = 1;
+      frontier[0] = start;
+      distances[start] = 0;
+      if( _parents != null ) {
+         _parents[start] = -1;
+      }
+
+      long uncheckedEdges = graph.isDirected() ? graph.edgesCount() : 2L * graph.edgesCount();
+      long frontierEdges = graph.getOutDegree( start );
+      int depth = 0;
+
+      while( frontierSize > 0 ) {
+         if( frontierEdges > uncheckedEdges / _alpha ) {
+            if( frontierBits == null ) {
+               frontierBits = new IntBitSet( n );
+               nextBits = new IntBitSet( n );
+               if( transpose ) {
+                  reverse = transpose( graph );
+               }
+            }
+            frontierBits.clear();
+            for( int i = 0; i < frontierSize; i++ ) {
+               frontierBits.add( frontier[i] );
+            }
+
+            int previousSize;
+            do {
+               uncheckedEdges -= frontierEdges;
+               previousSize = frontierSize;
+               frontierSize = bottomUpStep( graph, reverse, distances, depth, frontierBits, nextBits );
+               frontierEdges = _nextEdges;
+               ++depth;
+               ++_bottomUpLevels;
+               final IntBitSet swap = frontierBits;
+               frontierBits = nextBits;
+               nextBits = swap;
+            }
+            while( frontierSize > 0 && ( frontierSize >= previousSize || frontierSize > n / _beta ) );
+
+            // back to top-down with the frontier as array
+            frontierSize = 0;
+            for( int v = frontierBits.nextSetBit( 0 ); v >= 0; v = frontierBits.nextSetBit( v + 1 ) ) {
+               frontier[frontierSize++] = v;
+            }
+         }
+         else {
+            uncheckedEdges -= frontierEdges;
+            frontierEdges = 0;
+            int nextSize = 0;
+            for( int i = 0; i < frontierSize; i++ ) {
+               final int u = frontier[i];
+               for( final IntIterator iter = graph.adjacencyOf( u ).intIterator(); iter.hasNext(); ) {
+                  final int v = iter.nextInt();
+                  if( distances[v] < 0 ) {
+                     distances[v] = depth + 1;
+                     if( _parents != null ) {
+                        _parents[v] = u;
+                     }
+                     next[nextSize++] = v;
+                     frontierEdges += graph.getOutDegree( v );
+                  }
+               }
+            }
+            final int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize;
+            ++depth;
+         }
+      }
+      return distances;
+   }
+
+   /**
+    * Reaches every vertex not reached yet with a predecessor in
+    * {@code frontier}, collected into {@code next}. The out degrees of the
+    * reached vertices are summed up in {@code _nextEdges}.
+    *
+    * @return The number of vertices reached.
+    */
+   private int bottomUpStep( final Graph graph, final int[][] reverse, final int[] distances, final int depth,
+            final IntBitSet frontier, final IntBitSet next ) {
+      next.clear();
+      final CompactDiGraph compact = graph instanceof CompactDiGraph ? (CompactDiGraph) graph : null;
+      int count = 0;
+      _nextEdges = 0;
+      for( int v = 0; v < distances.length; v++ ) {
+         if( distances[v] >= 0 ) {
+            continue;
+         }
+         final int parent;
+         if( reverse != null ) {
+            parent = reverseParent( reverse, v, frontier );
+         }
+         else if( compact != null ) {
+            parent = compactParent( compact, v, frontier );
+         }
+         else {
+            parent = parent( graph, v, frontier );
+         }
+         if( parent >= 0 ) {
+            distances[v] = depth + 1;
+            if( _parents != null ) {
+               _parents[v] = parent;
+            }
+            next.add( v );
+            ++count;
+            _nextEdges += graph.getOutDegree( v );
+         }
+      }
+      return count;
+   }
+
+   private static int parent( final Graph graph, final int v, final IntBitSet frontier ) {
+      for( final IntIterator iter = graph.predecessorsOf( v ).intIterator(); iter.hasNext(); ) {
+         final int u = iter.nextInt();
+         if( frontier.contains( u ) ) {
+            return u;
+         }
+      }
+      return -1;
+   }
+
+   private static int compactParent( final CompactDiGraph graph, final int v, final IntBitSet frontier ) {
+      final CompactAdjacency predecessors = graph.predecessorsOf( v );
+      for( int i = 0, size = predecessors.size(); i < size; i++ ) {
+         final int u = predecessors.get( i );
+         if( frontier.contains( u ) ) {
+            return u;
+         }
+      }
+      return -1;
+   }
+
+   private static int reverseParent( final int[][] reverse, final int v, final IntBitSet frontier ) {
+      final int[] sources = reverse[1];
+      for( int i = reverse[0][v], end = reverse[0][v + 1]; i < end; i++ ) {
+         if( frontier.contains( sources[i] ) ) {
+            return sources[i];
+         }
+      }
+      return -1;
+   }
+
+   /** Returns {@code true} if the predecessors of {@code graph} can be iterated in {@code O(in-degree)}. */
+   private static boolean hasFastPredecessors( final Graph graph ) {
+      return !graph.isDirected() || graph instanceof CompactDiGraph
+               || graph instanceof DiGraph && ( (DiGraph) graph ).isPredecessorIndexEnabled();
+   }
+
+   /**
+    * Returns the offsets and the sources of the transposed graph, the
+    * predecessors of {@code v} are {@code sources[offsets[v]..offsets[v+1]-1]}.
+    */
+   private static int[][] transpose( final Graph graph ) {
+      final int n = graph.verticesCount();
+      final int[] offsets = new int[n + 1];
+      for( int u = 0; u < n; u++ ) {
+         for( final IntIterator iter = graph.adjacencyOf( u ).intIterator(); iter.hasNext(); ) {
+            ++offsets[iter.nextInt() + 1];
+         }
+      }
+      for( int v = 0; v < n; v++ ) {
+         offsets[v + 1] += offsets[v];
+      }
+
+      final int[] sources = new int[offsets[n]];
+      final int[] positions = Arrays.copyOf( offsets, n );
+      for( int u = 0; u < n; u++ ) {
+         for( final IntIterator iter = graph.adjacencyOf( u ).intIterator(); iter.hasNext(); ) {
+            sources[positions[iter.nextInt()]++] = u;
+         }
+      }
+      return new int[][] { offsets, sources };
+   }
+}
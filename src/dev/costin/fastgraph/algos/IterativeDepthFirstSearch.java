@@ -0,0 +1,210 @@
+package dev.costin.fastgraph.algos;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.dequeue.impl.IntArrayRingDeque;
+import dev.costin.fastgraph.Graph;
+
+/**
+ * Depth first search with an explicit stack instead of recursion.
+ *
+ * <p>
+ * The vertices and edges are reported in the same order and with the same
+ * classification as by {@link DepthFirstSearch}, but the depth of the search
+ * is not limited by the thread stack: long chains or pipelines with millions
+ * of levels do not throw {@link StackOverflowError}. The path from the root to
+ * the current vertex is kept on the {@link TraversalWorkspace#deque()} and
+ * every vertex on the path keeps the iterator over its adjacency at its
+ * current position.
+ * </p>
+ *
+ * <p>
+ * <strong>NOTE:</strong> This class is not stateless and thus also not
+ * thread-save!
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class IterativeDepthFirstSearch extends DepthFirstSearch {
+
+   private final TraversalWorkspace _workspace;
+   private Graph                    _graph;
+   private boolean                  _undirected;
+   private IntArrayRingDeque        _path;
+   private int[]                    _treeRoot;
+   private int[]                    _parent;
+   /** The iterators of the vertices on the path, {@code null} for all others. */
+   private IntIterator[]            _iterators;
+   private int                      _currentTreeRoot;
+
+   public IterativeDepthFirstSearch() {
+      this( new TraversalWorkspace() );
+   }
+
+   public IterativeDepthFirstSearch( final TraversalWorkspace workspace ) {
+      super( workspace );
+      _workspace = workspace;
+   }
+
+   @Override
+   public void traverse( final Graph graph, final EdgeVisitor visitor ) {
+      begin( graph );
+
+      boolean doContinue = true;
+      for( int i = 0; i < graph.verticesCount() && doContinue; i++ ) {
+         if( _workspace.mark( i ) == UNVISITED && isEnabled( graph, i ) ) {
+            doContinue = traverseFrom( i, visitor );
+         }
+      }
+      release();
+   }
+
+   @Override
+   public void traverse( final Graph graph, final int start, final EdgeVisitor visitor ) {
+      begin( graph );
+      if( isEnabled( graph, start ) ) {
+         traverseFrom( start, visitor );
+      }
+      release();
+   }
+
+   @Override
+   public void traverse2( final Graph graph, final DFSVertexVisitor visitor ) {
+      begin2( graph );
+
+      boolean doContinue = true;
+      for( int i = 0; i < graph.verticesCount() && doContinue; i++ ) {
+         if( _workspace.mark( i ) == UNVISITED && isEnabled( graph, i ) ) {
+            _currentTreeRoot = i;
+            _treeRoot[i] = i;
+            visitor.onNewTree( i );
+            doContinue = traverseFrom( i, visitor );
+         }
+      }
+      release();
+   }
+
+   @Override
+   public void traverse2( final Graph graph, final int start, final DFSVertexVisitor visitor ) {
+      begin2( graph );
+      if( isEnabled( graph, start ) ) {
+         _currentTreeRoot = start;
+         _treeRoot[start] = start;
+         visitor.onNewTree( start );
+         traverseFrom( start, visitor );
+      }
+      release();
+   }
+
+   private void begin( final Graph graph ) {
+      _graph = graph;
+      _workspace.begin( graph.verticesCount() );
+      _path = _workspace.deque();
+      _iterators = _workspace.iterators();
+   }
+
+   private void begin2( final Graph graph ) {
+      begin( graph );
+      _undirected = !graph.isDirected();
+      _treeRoot = _workspace.roots();
+      _parent = _workspace.parents();
+   }
+
+   /**
+    * Drops the references to the graph and the iterators left on the path by
+    * an early termination, which costs {@code O(path)}.
+    */
+   private void release() {
+      while( !_path.isEmpty() ) {
+         _iterators[_path.pop()] = null;
+      }
+      _graph = null;
+      _iterators = null;
+      _path = null;
+   }
+
+   private boolean traverseFrom( final int root, final EdgeVisitor visitor ) {
+      if( !enter( -1, root, visitor ) ) {
+         return false;
+      }
+      while( !_path.isEmpty() ) {
+         final int v = _path.peekTop();
+         final IntIterator iter = _iterators[v];
+
+         if( iter.hasNext() ) {
+            final int child = iter.nextInt();
+            if( _workspace.mark( child ) == UNVISITED && !enter( v, child, visitor ) ) {
+               return false;
+            }
+         }
+         else {
+            leave( v );
+         }
+      }
+      return true;
+   }
+
+   private boolean enter( final int parent, final int v, final EdgeVisitor visitor ) {
+      _workspace.mark( v, ON_PATH );
+      if( !visitor.visitEdge( parent, v ) ) {
+         return false;
+      }
+      _iterators[v] = _graph.adjacencyOf( v ).intIterator();
+      _path.push( v );
+      return true;
+   }
+
+   private void leave( final int v ) {
+      _path.pop();
+      _iterators[v] = null;
+      _workspace.mark( v, DONE );
+   }
+
+   private boolean traverseFrom( final int root, final DFSVertexVisitor visitor ) {
+      if( !enter( -1, root, visitor ) ) {
+         return false;
+      }
+      while( !_path.isEmpty() ) {
+         final int v = _path.peekTop();
+         final IntIterator iter = _iterators[v];
+
+         if( !iter.hasNext() ) {
+            leave( v );
+            continue;
+         }
+
+         final int child = iter.nextInt();
+         final int childMark = _workspace.mark( child );
+
+         if( _undirected && ( child == _parent[v] || childMark == DONE ) ) {
+            // the tree edge or a back edge already reported from the child
+            continue;
+         }
+         if( childMark == UNVISITED ) {
+            if( !enter( v, child, visitor ) ) {
+               return false;
+            }
+         }
+         else if( childMark == ON_PATH ) {
+            if( !visitor.onBackEdge( v, child ) ) {
+               return false;
+            }
+         }
+         else if( _treeRoot[child] != _currentTreeRoot ) {
+            if( !visitor.onTreeCrossingEdge( v, child ) ) {
+               return false;
+            }
+         }
+         else if( !visitor.onSameTreeCrossingEdge( v, child ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean enter( final int parent, final int v, final DFSVertexVisitor visitor ) {
+      _treeRoot[v] = _currentTreeRoot;
+      _parent[v] = parent;
+      return enter( parent, v, (EdgeVisitor) visitor );
+   }
+}
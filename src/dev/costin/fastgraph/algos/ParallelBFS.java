@@ -0,0 +1,200 @@
+package dev.costin.fastgraph.algos;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+
+/**
+ * Level synchronous breadth first search expanding every frontier in
+ * parallel on a {@link ForkJoinPool}.
+ *
+ * <p>
+ * The frontier is split into ranges which are expanded by fork/join tasks.
+ * A vertex is claimed by the first task setting its distance with a
+ * compare-and-set on an {@link AtomicIntegerArray}, so every vertex is added
+ * to the next frontier exactly once. Every task collects the vertices it
+ * claimed in a local buffer; the buffers are concatenated into the next
+ * frontier between the levels. Small frontiers are expanded in the calling
+ * thread.
+ * </p>
+ *
+ * <p>
+ * The graph is read by several threads at once and must not be modified
+ * during the search. {@link CompactDiGraph} is scanned through its arrays,
+ * all other graphs through their adjacency iterators.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class ParallelBFS {
+
+   /** Frontier ranges are not split any further below this size. */
+   static final int MIN_GRAIN = 256;
+
+   /** Vertices claimed by one task, chained to the buffers of the other tasks. */
+   private static class Buffer {
+
+      int[]  _values = new int[64];
+      int    _size;
+      Buffer _next;
+      Buffer _last   = this;
+      int    _total;
+
+      void add( final int v ) {
+         if( _size == _values.length ) {
+            final int[] values = new int[_size * 2];
+            System.arraycopy( _values, 0, values, 0, _size );
+            _values = values;
+         }
+         _values[_size++] = v;
+         ++_total;
+      }
+
+      /** Appends the chain of {@code buffer}, returns this buffer. */
+      Buffer append( final Buffer buffer ) {
+         _last._next = buffer;
+         _last = buffer._last;
+         _total += buffer._total;
+         return this;
+      }
+   }
+
+   private static class ExpandTask extends RecursiveTask<Buffer> {
+
+      private static final long serialVersionUID = 1L;
+
+      private final Graph              _graph;
+      private final AtomicIntegerArray _claims;
+      private final int[]              _frontier;
+      private final int                _from;
+      private final int                _to;
+      private final int                _grain;
+      private final int                _claim;
+
+      ExpandTask( final Graph graph, final AtomicIntegerArray claims, final int[] frontier, final int from,
+               final int to, final int grain, final int claim ) {
+         _graph = graph;
+         _claims = claims;
+         _frontier = frontier;
+         _from = from;
+         _to = to;
+         _grain = grain;
+         _claim = claim;
+      }
+
+      @Override
+      protected Buffer compute() {
+         if( _to - _from <= _grain ) {
+            return expand( _graph, _claims, _frontier, _from, _to, _claim );
+         }
+         final int mid = ( _from + _to ) >>> 1;
+         final ExpandTask left = new ExpandTask( _graph, _claims, _frontier, _from, mid, _grain, _claim );
+         final ExpandTask right = new ExpandTask( _graph, _claims, _frontier, mid, _to, _grain, _claim );
+         left.fork();
+         final Buffer rightBuffer = right.compute();
+         return left.join().append( rightBuffer );
+      }
+   }
+
+   /**
+    * Returns the distances of all vertices from {@code start} in edges,
+    * {@code -1} for the vertices not reachable, using all available
+    * processors.
+    */
+   public static int[] distances( final Graph graph, final int start ) {
+      return distances( graph, start, Runtime.getRuntime().availableProcessors() );
+   }
+
+   /**
+    * Like {@link #distances(Graph, int)} using at most {@code parallelism}
+    * threads. The pool is created for this call only.
+    */
+   public static int[] distances( final Graph graph, final int start, final int parallelism ) {
+      final ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool( parallelism ) : null;
+      try {
+         return distances( graph, start, pool );
+      }
+      finally {
+         if( pool != null ) {
+            pool.shutdown();
+         }
+      }
+   }
+
+   /**
+    * Like {@link #distances(Graph, int)} running the tasks on {@code pool}, the
+    * search runs in the calling thread if {@code pool} is {@code null}.
+    */
+   public static int[] distances( final Graph graph, final int start, final ForkJoinPool pool ) {
+      final int n = graph.verticesCount();
+      // the distance plus one, 0 for vertices not claimed yet
+      final AtomicIntegerArray claims = new AtomicIntegerArray( n );
+      claims.set( start, 1 );
+
+      int[] frontier = { start };
+      int frontierSize = 1;
+      for( int depth = 1; frontierSize > 0; depth++ ) {
+         final Buffer buffer;
+         if( pool == null || frontierSize <= MIN_GRAIN ) {
+            buffer = expand( graph, claims, frontier, 0, frontierSize, depth + 1 );
+         }
+         else {
+            final int grain = Math.max( MIN_GRAIN, frontierSize / ( pool.getParallelism() * 8 ) );
+            buffer = pool.invoke( new ExpandTask( graph, claims, frontier, 0, frontierSize, grain, depth + 1 ) );
+         }
+
+         // concatenate the local buffers into the next frontier
+         if( frontier.length < buffer._total ) {
+            frontier = new int[Math.max( buffer._total, 2 * frontier.length )];
+         }
+         frontierSize = 0;
+         for( Buffer b = buffer; b != null; b = b._next ) {
+            System.arraycopy( b._values, 0, frontier, frontierSize, b._size );
+            frontierSize += b._size;
+         }
+      }
+
+      final int[] distances = new int[n];
+      for( int v = 0; v < n; v++ ) {
+         distances[v] = claims.get( v ) - 1;
+      }
+      return distances;
+   }
+
+   /** Claims the unclaimed successors of {@code frontier[from,to)} with {@code claim}. */
+   private static Buffer expand( final Graph graph, final AtomicIntegerArray claims, final int[] frontier,
+            final int from, final int to, final int claim ) {
+      final Buffer buffer = new Buffer();
+      if( graph instanceof CompactDiGraph ) {
+         final CompactDiGraph compact = (CompactDiGraph) graph;
+         for( int i = from; i < to; i++ ) {
+            final int u = frontier[i];
+            for( int e = compact.edgesBegin( u ), end = compact.edgesEnd( u ); e < end; e++ ) {
+               final int v = compact.targetAt( e );
+               if( claims.get( v ) == 0 && claims.compareAndSet( v, 0, claim ) ) {
+                  buffer.add( v );
+               }
+            }
+         }
+      }
+      else {
+         for( int i = from; i < to; i++ ) {
+            for( final IntIterator iter = graph.adjacencyOf( frontier[i] ).intIterator(); iter.hasNext(); ) {
+               final int v = iter.nextInt();
+               if( claims.get( v ) == 0 && claims.compareAndSet( v, 0, claim ) ) {
+                  buffer.add( v );
+               }
+            }
+         }
+      }
+      return buffer;
+   }
+
+   private ParallelBFS() {
+   }
+}
@@ -0,0 +1,157 @@
+package dev.costin.fastgraph.algos;
+
+import java.util.Arrays;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.dequeue.impl.IntArrayRingDeque;
+
+/**
+ * The per vertex state of a traversal, reusable for many traversals.
+ *
+ * <p>
+ * The vertices are marked with int stamps relative to the current epoch
+ * instead of a fresh array of flags. {@link #begin(int)} starts a new epoch,
+ * which invalidates all marks of the previous traversal in {@code O(1)}, so
+ * repeated traversals on the same graph cost {@code O(visited)} rather than
+ * {@code O(n)} for allocating and clearing the arrays. Only when the epochs
+ * are exhausted, after several hundred million traversals, the stamps are
+ * cleared once.
+ * </p>
+ *
+ * <pre>
+ * final TraversalWorkspace workspace = new TraversalWorkspace();
+ * final DepthFirstSearch dfs = new DepthFirstSearch( workspace );
+ * for( final int v : starts ) {
+ *    dfs.traverse( graph, v, visitor );
+ * }
+ * </pre>
+ *
+ * <p>
+ * The other arrays, e.g. {@link #parents()}, are not cleared either: their
+ * values are only valid for the vertices marked in the current traversal.
+ * </p>
+ *
+ * <p>
+ * <strong>NOTE:</strong> A workspace must not be used by two traversals at the
+ * same time, neither by two threads nor by nested traversals.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class TraversalWorkspace {
+
+   /** The largest mark, the marks are {@code 1..MAX_MARK} and {@code 0} for unmarked. */
+   public static final int MAX_MARK = 3;
+
+   private static final int[]         EMPTY_INTS      = {};
+   private static final IntIterator[] EMPTY_ITERATORS = {};
+
+   private int[]                   _stamps    = EMPTY_INTS;
+   private int                     _epoch;
+   private int[]                   _roots     = EMPTY_INTS;
+   private int[]                   _parents   = EMPTY_INTS;
+   private int[]                   _depths    = EMPTY_INTS;
+   private IntIterator[]           _iterators = EMPTY_ITERATORS;
+   private final IntArrayRingDeque _deque     = new IntArrayRingDeque();
+   private int                     _size;
+
+   public TraversalWorkspace() {
+
+   }
+
+   /** Creates a workspace with room for {@code n} vertices. */
+   public TraversalWorkspace( final int n ) {
+      begin( n );
+   }
+
+   /**
+    * Starts a new traversal of a graph with {@code n} vertices: all vertices
+    * are unmarked and the deque is empty. The arrays only grow if {@code n} is
+    * larger than for all previous traversals.
+    */
+   public void begin( final int n ) {
+      if( n > _stamps.length ) {
+         _stamps = Arrays.copyOf( _stamps, n );
+      }
+      if( _epoch > Integer.MAX_VALUE - 2 * MAX_MARK ) {
+         Arrays.fill( _stamps, 0 );
+         _epoch = 0;
+      }
+      else {
+         _epoch += MAX_MARK;
+      }
+      _size = n;
+      _deque.clear();
+   }
+
+   /** Returns the number of vertices of the current traversal. */
+   public int size() {
+      return _size;
+   }
+
+   /**
+    * Returns the mark of {@code vertex} in the current traversal, {@code 0} if
+    * it has not been marked.
+    */
+   public int mark( final int vertex ) {
+      final int mark = _stamps[vertex] - _epoch;
+      return mark > 0 ? mark : 0;
+   }
+
+   public boolean isMarked( final int vertex ) {
+      return _stamps[vertex] > _epoch;
+   }
+
+   /**
+    * Marks {@code vertex} for the current traversal.
+    *
+    * @param mark
+    *           The mark in {@code [1,MAX_MARK]}.
+    */
+   public void mark( final int vertex, final int mark ) {
+      assert mark > 0 && mark <= MAX_MARK : "Invalid mark " + mark;
+      _stamps[vertex] = _epoch + mark;
+   }
+
+   /** Returns an array of at least {@link #size()} elements, e.g. for the tree root of every vertex. */
+   public int[] roots() {
+      if( _roots.length < _size ) {
+         _roots = new int[_stamps.length];
+      }
+      return _roots;
+   }
+
+   /** Returns an array of at least {@link #size()} elements for the parent of every vertex. */
+   public int[] parents() {
+      if( _parents.length < _size ) {
+         _parents = new int[_stamps.length];
+      }
+      return _parents;
+   }
+
+   /** Returns an array of at least {@link #size()} elements for the depth of every vertex. */
+   public int[] depths() {
+      if( _depths.length < _size ) {
+         _depths = new int[_stamps.length];
+      }
+      return _depths;
+   }
+
+   /**
+    * Returns an array of at least {@link #size()} elements for the adjacency
+    * iterators of the vertices. Traversals must set the slots back to
+    * {@code null} so the iterators can be collected.
+    */
+   public IntIterator[] iterators() {
+      if( _iterators.length < _size ) {
+         _iterators = new IntIterator[_stamps.length];
+      }
+      return _iterators;
+   }
+
+   /** Returns the deque used as stack or queue, emptied by {@link #begin(int)}. */
+   public IntArrayRingDeque deque() {
+      return _deque;
+   }
+}
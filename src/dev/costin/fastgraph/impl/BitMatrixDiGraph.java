@@ -0,0 +1,333 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.Arrays;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntBitSet;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+import dev.costin.fastgraph.Adjacency;
+import dev.costin.fastgraph.Graph;
+
+/**
+ * A directed graph stored as adjacency matrix with one bit per vertex pair.
+ *
+ * <p>
+ * Every adjacency is an {@link IntBitSet} row of {@code n} bits, so the matrix
+ * needs {@code n*n/8} bytes independent of the number of edges. This is the
+ * most compact representation for dense and nearly complete graphs, where an
+ * {@link DiGraph.IntSetAdjacency} costs 8 bytes per possible neighbor.
+ * {@link #hasEdge(int, int)} is a single bit test and adjacencies are iterated
+ * in ascending order, 64 vertices per word. Rows can be combined with the bulk
+ * operations of {@link IntBitSet}, e.g. the common successors of {@code u} and
+ * {@code v} are
+ * </p>
+ *
+ * <pre>
+ * final IntBitSet common = new IntBitSet( graph.adjacencyOf( u ) );
+ * common.retainAll( graph.adjacencyOf( v ) );
+ * </pre>
+ *
+ * <p>
+ * The in degrees are not stored but counted over the column of the vertex,
+ * which costs {@code O(n)}.
+ * </p>
+ *
+ * <p>
+ * The edge ids are handed out by the same allocator as in {@link DiGraph}, so
+ * they are stable as long as the edge exists and ids of removed edges are
+ * reused. Every row stores the ids of its edges in ascending vertex order, the
+ * position of an edge is the rank of its target in the row. This costs 4 bytes
+ * per edge, a lookup {@code O(v/64)} and inserting or removing an edge
+ * {@code O(out degree)} for shifting the ids of the row.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BitMatrixDiGraph implements Graph, MemoryMeasurable {
+
+   private final BitRowAdjacency[] _rows;
+   private int                     _edgesCount;
+   private final EdgeIdAllocator   _edgeIdAllocator;
+
+   public static class BitRowAdjacency extends IntBitSet implements Adjacency {
+
+      private static final int[] EMPTY = {};
+
+      private final BitMatrixDiGraph _ownerGraph;
+      private final int              _owner;
+      /** The edge ids in ascending order of the adjacent vertices. */
+      private int[]                  _ids = EMPTY;
+
+      protected BitRowAdjacency( final BitMatrixDiGraph ownerGraph, final int owner ) {
+         super( ownerGraph.verticesCount() );
+         _ownerGraph = ownerGraph;
+         _owner = owner;
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return _ownerGraph;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         return contains( vertex ) ? _ids[rank( vertex )] : -1;
+      }
+
+      @Override
+      public MemoryReport memoryFootprint() {
+         return super.memoryFootprint().add( "edge ids", MemoryReport.arrayBytes( _ids.length, 4 ),
+                  ( _ids.length - (long) size() ) * 4 );
+      }
+
+      @Override
+      public boolean add( int vertex ) {
+         if( super.add( vertex ) ) {
+            final int position = rank( vertex );
+            if( size() > _ids.length ) {
+               _ids = Arrays.copyOf( _ids, Math.max( size(), _ids.length + ( _ids.length >> 1 ) + 1 ) );
+            }
+            System.arraycopy( _ids, position, _ids, position + 1, size() - 1 - position );
+            _ids[position] = _ownerGraph.edgeAdded();
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public boolean remove( int vertex ) {
+         if( contains( vertex ) ) {
+            final int position = rank( vertex );
+            final int id = _ids[position];
+            super.remove( vertex );
+            System.arraycopy( _ids, position + 1, _ids, position, size() - position );
+            _ownerGraph.edgeRemoved( id );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public void clear() {
+         for( int i = 0; i < size(); i++ ) {
+            _ownerGraph.edgeRemoved( _ids[i] );
+         }
+         super.clear();
+      }
+
+      @Override
+      public boolean addAll( final IntBitSet set ) {
+         final IntBitSet old = new IntBitSet( this );
+         final boolean changed = super.addAll( set );
+         if( changed ) {
+            updateIds( old );
+         }
+         return changed;
+      }
+
+      @Override
+      public boolean retainAll( final IntBitSet set ) {
+         final IntBitSet old = new IntBitSet( this );
+         final boolean changed = super.retainAll( set );
+         if( changed ) {
+            updateIds( old );
+         }
+         return changed;
+      }
+
+      @Override
+      public boolean removeAll( final IntBitSet set ) {
+         final IntBitSet old = new IntBitSet( this );
+         final boolean changed = super.removeAll( set );
+         if( changed ) {
+            updateIds( old );
+         }
+         return changed;
+      }
+
+      /**
+       * Rebuilds the ids after a bulk operation by merging the row before the
+       * operation with the current row: the ids of the kept edges are kept,
+       * the ids of removed edges are released and new edges get new ids.
+       */
+      private void updateIds( final IntBitSet old ) {
+         final int[] ids = new int[size()];
+         int oldPosition = 0;
+         int position = 0;
+         int a = old.nextSetBit( 0 );
+         int b = nextSetBit( 0 );
+         while( a >= 0 || b >= 0 ) {
+            if( b < 0 || a >= 0 && a < b ) {
+               _ownerGraph.edgeRemoved( _ids[oldPosition++] );
+               a = old.nextSetBit( a + 1 );
+            }
+            else if( a < 0 || b < a ) {
+               ids[position++] = _ownerGraph.edgeAdded();
+               b = nextSetBit( b + 1 );
+            }
+            else {
+               ids[position++] = _ids[oldPosition++];
+               a = old.nextSetBit( a + 1 );
+               b = nextSetBit( b + 1 );
+            }
+         }
+         _ids = ids;
+      }
+   }
+
+   public BitMatrixDiGraph( final int n ) {
+      _rows = new BitRowAdjacency[n];
+      for( int i = 0; i < n; i++ ) {
+         _rows[i] = new BitRowAdjacency( this, i );
+      }
+      _edgesCount = 0;
+      _edgeIdAllocator = new EdgeIdAllocator();
+   }
+
+   /**
+    * Creates a copy of {@code graph}.
+    */
+   public BitMatrixDiGraph( final Graph graph ) {
+      this( graph.verticesCount() );
+      for( int u = 0; u < _rows.length; u++ ) {
+         _rows[u].addAll( graph.adjacencyOf( u ) );
+      }
+   }
+
+   @Override
+   public int verticesCount() {
+      return _rows.length;
+   }
+
+   @Override
+   public int edgesCount() {
+      return _edgesCount;
+   }
+
+   @Override
+   public BitRowAdjacency adjacencyOf( int vertex ) {
+      return _rows[vertex];
+   }
+
+   @Override
+   public boolean hasEdge( int source, int dest ) {
+      return _rows[source].contains( dest );
+   }
+
+   @Override
+   public int edgeId( int source, int dest ) {
+      return _rows[source].edgeId( dest );
+   }
+
+   /**
+    * Returns the bound of the edge ids, the maximum number of edges the graph
+    * had at any time, see {@link DiGraph#edgeIdBound()}.
+    */
+   @Override
+   public int edgeIdBound() {
+      return _edgeIdAllocator.bound();
+   }
+
+   /** Must be called by the rows after an edge has been added, returns its id. */
+   int edgeAdded() {
+      ++_edgesCount;
+      return _edgeIdAllocator.allocate();
+   }
+
+   /** Must be called by the rows after the edge with the given id has been removed. */
+   void edgeRemoved( final int id ) {
+      --_edgesCount;
+      _edgeIdAllocator.release( id );
+   }
+
+   @Override
+   public boolean addEdge( int source, int dest ) {
+      return _rows[source].add( dest );
+   }
+
+   @Override
+   public boolean removeEdge( int source, int dest ) {
+      return _rows[source].remove( dest );
+   }
+
+   @Override
+   public int getOutDegree( int vertex ) {
+      return _rows[vertex].size();
+   }
+
+   /** Counts the edges to {@code vertex}, costs {@code O(n)}. */
+   @Override
+   public int getInDegree( int vertex ) {
+      int count = 0;
+      for( int u = 0; u < _rows.length; u++ ) {
+         if( _rows[u].contains( vertex ) ) {
+            ++count;
+         }
+      }
+      return count;
+   }
+
+   /** Returns the predecessors of {@code vertex} as a new set, costs {@code O(n)}. */
+   @Override
+   public IntBitSet predecessorsOf( int vertex ) {
+      final IntBitSet predecessors = new IntBitSet( _rows.length );
+      for( int u = 0; u < _rows.length; u++ ) {
+         if( _rows[u].contains( vertex ) ) {
+            predecessors.add( u );
+         }
+      }
+      return predecessors;
+   }
+
+   @Override
+   public boolean isDirected() {
+      return true;
+   }
+
+   /** Returns the memory held by this graph, {@code n*n/8} bytes for the rows plus the edge ids. */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 2 * MemoryReport.REFERENCE + 4 ), 0 );
+      report.add( DiGraph.adjacenciesFootprint( _rows, _rows.length ) );
+      report.add( _edgeIdAllocator.memoryFootprint() );
+      return report;
+   }
+
+   /**
+    * Returns the induced sub graph in the same vertex id space. Each selected
+    * row is masked with {@code vertices} word by word.
+    */
+   @Override
+   public BitMatrixDiGraph subGraph( IntSet vertices ) {
+      final IntBitSet mask;
+      if( vertices instanceof IntBitSet ) {
+         mask = (IntBitSet) vertices;
+      }
+      else {
+         mask = new IntBitSet( _rows.length );
+         for( final IntIterator iter = vertices.intIterator(); iter.hasNext(); ) {
+            final int v = iter.nextInt();
+            if( v >= 0 && v < _rows.length ) {
+               mask.add( v );
+            }
+         }
+      }
+
+      final BitMatrixDiGraph subGraph = new BitMatrixDiGraph( _rows.length );
+      for( int u = mask.nextSetBit( 0 ); u >= 0 && u < _rows.length; u = mask.nextSetBit( u + 1 ) ) {
+         final BitRowAdjacency row = subGraph._rows[u];
+         row.addAll( _rows[u] );
+         row.retainAll( mask );
+      }
+      return subGraph;
+   }
+}
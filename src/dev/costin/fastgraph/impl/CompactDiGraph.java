@@ -0,0 +1,389 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+import dev.costin.fastgraph.Adjacency;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.GraphWithColumns;
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
+
+/**
+ * An immutable directed graph stored in compressed sparse row (CSR) format.
+ *
+ * <p>
+ * All edges are kept in one {@code int[]} of targets, ordered by source vertex,
+ * and a second {@code int[]} of {@code n+1} offsets marks where the targets of
+ * each vertex begin. The targets of every vertex are sorted ascending, so
+ * {@link #hasEdge(int, int)} is a binary search.
+ * </p>
+ *
+ * <p>
+ * Instances are usually created by {@link DiGraph#toCompact()}. All modifying
+ * operations throw an {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class CompactDiGraph implements GraphWithColumns, MemoryMeasurable {
+
+   private final int[] _offsets;
+   private final int[] _targets;
+   private final int[] _inDegree;
+
+   /** The transposed graph, created on first use by {@link #predecessorsOf(int)}. */
+   private volatile int[][] _reverse;
+
+   private PropertyColumns  _vertexColumns;
+   private PropertyColumns  _edgeColumns;
+
+   public class CompactAdjacency extends ReadOnlyAdjacency {
+
+      private final int   _owner;
+      private final int[] _targets;
+      private final int   _begin;
+      private final int   _end;
+
+      protected CompactAdjacency( final int owner ) {
+         this( owner, CompactDiGraph.this._offsets, CompactDiGraph.this._targets );
+      }
+
+      protected CompactAdjacency( final int owner, final int[] offsets, final int[] targets ) {
+         _owner = owner;
+         _targets = targets;
+         _begin = offsets[owner];
+         _end = offsets[owner + 1];
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return CompactDiGraph.this;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int size() {
+         return _end - _begin;
+      }
+
+      @Override
+      public boolean contains( int value ) {
+         return Arrays.binarySearch( _targets, _begin, _end, value ) >= 0;
+      }
+
+      @Override
+      public IntIterator intIterator() {
+         return new RangeIterator( _targets, _begin, _end );
+      }
+
+      /**
+       * Returns the slot of the edge in the target array. For an adjacency
+       * returned by {@link CompactDiGraph#predecessorsOf(int)} the id of the
+       * edge {@code value -> owner} is returned.
+       */
+      @Override
+      public int edgeId( int vertex ) {
+         if( _targets != CompactDiGraph.this._targets ) {
+            return CompactDiGraph.this.edgeId( vertex, _owner );
+         }
+         final int i = Arrays.binarySearch( _targets, _begin, _end, vertex );
+         return i < 0 ? -1 : i;
+      }
+
+      /** Returns the {@code i}-th smallest adjacent vertex. */
+      public int get( final int i ) {
+         if( i < 0 || i >= size() ) {
+            throw new IndexOutOfBoundsException();
+         }
+         return _targets[_begin + i];
+      }
+   }
+
+   static class RangeIterator implements IntIterator {
+
+      private final int[] _array;
+      private final int   _end;
+      private int         _next;
+
+      RangeIterator( final int[] array, final int begin, final int end ) {
+         _array = array;
+         _next = begin;
+         _end = end;
+      }
+
+      @Override
+      public int nextInt() {
+         if( _next >= _end ) {
+            throw new NoSuchElementException();
+         }
+         return _array[_next++];
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next < _end;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Creates a compact copy of the given {@code graph}.
+    */
+   public CompactDiGraph( final Graph graph ) {
+      final int n = graph.verticesCount();
+      _offsets = new int[n + 1];
+
+      for( int v = 0; v < n; v++ ) {
+         _offsets[v + 1] = _offsets[v] + graph.getOutDegree( v );
+      }
+
+      _targets = new int[_offsets[n]];
+      for( int v = 0; v < n; v++ ) {
+         int pos = _offsets[v];
+         for( final IntIterator iter = graph.adjacencyOf( v ).intIterator(); iter.hasNext(); ) {
+            _targets[pos++] = iter.nextInt();
+         }
+         Arrays.sort( _targets, _offsets[v], pos );
+      }
+
+      _inDegree = computeInDegrees( n, _targets );
+   }
+
+   /**
+    * Creates a graph directly on top of the given CSR arrays. The arrays are not
+    * copied and must not be modified afterwards.
+    *
+    * @param offsets
+    *           Array of length {@code n+1}; the targets of vertex {@code v} are
+    *           stored in {@code targets[offsets[v]]..targets[offsets[v+1]-1]}.
+    * @param targets
+    *           The edge targets. The targets of every vertex must be sorted
+    *           ascending and free of duplicates.
+    */
+   public CompactDiGraph( final int[] offsets, final int[] targets ) {
+      if( offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length ) {
+         throw new IllegalArgumentException( "Offsets do not match the targets array!" );
+      }
+      _offsets = offsets;
+      _targets = targets;
+      _inDegree = computeInDegrees( offsets.length - 1, targets );
+   }
+
+   private static int[] computeInDegrees( final int n, final int[] targets ) {
+      final int[] inDegree = new int[n];
+      for( int i = 0; i < targets.length; i++ ) {
+         ++inDegree[targets[i]];
+      }
+      return inDegree;
+   }
+
+   @Override
+   public int verticesCount() {
+      return _offsets.length - 1;
+   }
+
+   @Override
+   public int edgesCount() {
+      return _targets.length;
+   }
+
+   @Override
+   public CompactAdjacency adjacencyOf( int vertex ) {
+      return new CompactAdjacency( vertex );
+   }
+
+   @Override
+   public boolean hasEdge( int source, int dest ) {
+      return Arrays.binarySearch( _targets, _offsets[source], _offsets[source + 1], dest ) >= 0;
+   }
+
+   /** Returns the slot of the edge in the target array, found by binary search. */
+   @Override
+   public int edgeId( int source, int dest ) {
+      final int i = Arrays.binarySearch( _targets, _offsets[source], _offsets[source + 1], dest );
+      return i < 0 ? -1 : i;
+   }
+
+   @Override
+   public int edgeIdBound() {
+      return _targets.length;
+   }
+
+   /** Returns the vertex property columns, created on first use. */
+   @Override
+   public synchronized PropertyColumns vertexColumns() {
+      if( _vertexColumns == null ) {
+         _vertexColumns = new PropertyColumns( verticesCount() );
+      }
+      return _vertexColumns;
+   }
+
+   /**
+    * Returns the edge property columns, created on first use. The edge ids
+    * are the slots in the target array, so the values of the edges of a vertex
+    * are stored next to each other in the order of the targets.
+    */
+   @Override
+   public synchronized PropertyColumns edgeColumns() {
+      if( _edgeColumns == null ) {
+         _edgeColumns = new PropertyColumns( _targets.length );
+      }
+      return _edgeColumns;
+   }
+
+   /**
+    * Returns the memory held by this graph. The arrays are sized exactly, so
+    * only the columns can waste memory.
+    */
+   @Override
+   public synchronized MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 6 * MemoryReport.REFERENCE ), 0 );
+      report.add( "offsets", MemoryReport.arrayBytes( _offsets.length, 4 ), 0 );
+      report.add( "targets", MemoryReport.arrayBytes( _targets.length, 4 ), 0 );
+      report.add( "in degrees", MemoryReport.arrayBytes( _inDegree.length, 4 ), 0 );
+      final int[][] reverse = _reverse;
+      if( reverse != null ) {
+         report.add( "reverse", MemoryReport.arrayBytes( 2, MemoryReport.REFERENCE )
+                  + MemoryReport.arrayBytes( reverse[0].length, 4 ) + MemoryReport.arrayBytes( reverse[1].length, 4 ), 0 );
+      }
+      if( _vertexColumns != null ) {
+         report.add( "vertex columns", _vertexColumns.memoryFootprint() );
+      }
+      if( _edgeColumns != null ) {
+         report.add( "edge columns", _edgeColumns.memoryFootprint() );
+      }
+      return report;
+   }
+
+   @Override
+   public boolean addEdge( int source, int dest ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean removeEdge( int source, int dest ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public int getOutDegree( int vertex ) {
+      return _offsets[vertex + 1] - _offsets[vertex];
+   }
+
+   @Override
+   public int getInDegree( int vertex ) {
+      return _inDegree[vertex];
+   }
+
+   /**
+    * Returns the predecessors of {@code vertex} in ascending order. The
+    * transposed graph is built on the first call, which costs {@code O(n+m)}
+    * time and the same amount of memory as this graph.
+    */
+   @Override
+   public CompactAdjacency predecessorsOf( int vertex ) {
+      final int[][] reverse = reverse();
+      return new CompactAdjacency( vertex, reverse[0], reverse[1] );
+   }
+
+   private int[][] reverse() {
+      int[][] reverse = _reverse;
+      if( reverse == null ) {
+         final int n = verticesCount();
+         final int[] offsets = new int[n + 1];
+         for( int v = 0; v < n; v++ ) {
+            offsets[v + 1] = offsets[v] + _inDegree[v];
+         }
+
+         final int[] pos = Arrays.copyOf( offsets, n );
+         final int[] sources = new int[_targets.length];
+         // sources are visited in ascending order, thus each row is sorted
+         for( int u = 0; u < n; u++ ) {
+            for( int i = _offsets[u]; i < _offsets[u + 1]; i++ ) {
+               sources[pos[_targets[i]]++] = u;
+            }
+         }
+
+         _reverse = reverse = new int[][] { offsets, sources };
+      }
+      return reverse;
+   }
+
+   @Override
+   public boolean isDirected() {
+      return true;
+   }
+
+   /**
+    * Returns the induced sub graph as a new {@link CompactDiGraph}. The vertex
+    * ids are kept, vertices not contained in {@code vertices} have no edges.
+    */
+   @Override
+   public CompactDiGraph subGraph( IntSet vertices ) {
+      final int n = verticesCount();
+      final int[] offsets = new int[n + 1];
+
+      int count = 0;
+      for( int v = 0; v < n; v++ ) {
+         if( vertices.contains( v ) ) {
+            for( int i = _offsets[v]; i < _offsets[v + 1]; i++ ) {
+               if( vertices.contains( _targets[i] ) ) {
+                  ++count;
+               }
+            }
+         }
+         offsets[v + 1] = count;
+      }
+
+      final int[] targets = new int[count];
+      int pos = 0;
+      for( int v = 0; v < n; v++ ) {
+         if( offsets[v] != offsets[v + 1] ) {
+            for( int i = _offsets[v]; i < _offsets[v + 1]; i++ ) {
+               final int w = _targets[i];
+               if( vertices.contains( w ) ) {
+                  targets[pos++] = w;
+               }
+            }
+         }
+      }
+
+      return new CompactDiGraph( offsets, targets );
+   }
+
+   /**
+    * Index into the targets at which the adjacent vertices of {@code vertex}
+    * begin. Together with {@link #edgesEnd(int)} and {@link #targetAt(int)}
+    * this allows scanning adjacencies without creating any objects.
+    */
+   public int edgesBegin( final int vertex ) {
+      return _offsets[vertex];
+   }
+
+   /**
+    * Index into the targets at which the adjacent vertices of {@code vertex}
+    * end (exclusive).
+    */
+   public int edgesEnd( final int vertex ) {
+      return _offsets[vertex + 1];
+   }
+
+   /** Returns the target vertex stored at {@code index}. */
+   public int targetAt( final int index ) {
+      return _targets[index];
+   }
+}
@@ -0,0 +1,425 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+import dev.costin.fastgraph.Graph;
+
+/**
+ * An immutable directed graph with gap compressed adjacencies, in the spirit
+ * of the WebGraph framework.
+ *
+ * <p>
+ * The adjacent vertices of every vertex are sorted and stored as a sequence of
+ * variable length integers (7 bits per byte, the high bit marks that another
+ * byte follows) in one shared {@code byte[]}:
+ * </p>
+ *
+ * <pre>
+ * degree d
+ * first target - source    (zig-zag encoded, may be negative)
+ * target[i] - target[i-1] - 1   for 0 &lt; i &lt; d
+ * </pre>
+ *
+ * <p>
+ * Graphs with locality, where vertices mostly link to vertices with nearby ids,
+ * thus need one or two bytes per edge instead of four. Only the position of
+ * every {@value #SAMPLE_RATE}-th vertex is stored, the adjacencies in between
+ * are found by skipping over the encoded bytes.
+ * </p>
+ *
+ * <p>
+ * Adjacencies are decoded on the fly while iterating, so
+ * {@link CompressedAdjacency#contains(int)} and {@link #hasEdge(int, int)} are
+ * linear in the out degree. The in degrees are computed on first use.
+ * </p>
+ *
+ * <p>
+ * The edge ids are the positions of the edges in the order of the encoding,
+ * i.e. the number of edges of the smaller source vertices plus the rank of the
+ * target in the adjacency. The number of edges before every sampled vertex is
+ * stored along with its position.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class CompressedDiGraph implements Graph, MemoryMeasurable {
+
+   /** Every how many vertices the start of the adjacency is stored. */
+   public static final int SAMPLE_RATE = 16;
+
+   private static final int SAMPLE_SHIFT = 4;
+
+   private final int    _verticesCount;
+   private final int    _edgesCount;
+   private final byte[] _data;
+   private final int[]  _samples;
+   private final int[]  _sampleEdges;
+
+   /** Created on first use by {@link #getInDegree(int)}. */
+   private volatile int[] _inDegree;
+
+   public class CompressedAdjacency extends ReadOnlyAdjacency {
+
+      private final int _owner;
+      private final int _size;
+      private final int _position;
+
+      protected CompressedAdjacency( final int owner ) {
+         _owner = owner;
+         int pos = positionOf( owner );
+         _size = readInt( pos );
+         _position = pos + varIntLength( _size );
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return CompressedDiGraph.this;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int size() {
+         return _size;
+      }
+
+      @Override
+      public boolean contains( int value ) {
+         final GapIterator iter = new GapIterator( _owner, _position, _size );
+         while( iter.hasNext() ) {
+            final int v = iter.nextInt();
+            if( v >= value ) {
+               return v == value;
+            }
+         }
+         return false;
+      }
+
+      @Override
+      public IntIterator intIterator() {
+         return new GapIterator( _owner, _position, _size );
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         return CompressedDiGraph.this.edgeId( _owner, vertex );
+      }
+   }
+
+   /** Decodes the gaps of one adjacency, the values are returned ascending. */
+   private class GapIterator implements IntIterator {
+
+      private final int _source;
+      private int       _position;
+      private int       _remaining;
+      private int       _previous;
+      private boolean   _first;
+
+      GapIterator( final int source, final int position, final int size ) {
+         _source = source;
+         _position = position;
+         _remaining = size;
+         _first = true;
+      }
+
+      @Override
+      public int nextInt() {
+         if( _remaining == 0 ) {
+            throw new NoSuchElementException();
+         }
+         final int gap = readInt( _position );
+         _position += varIntLength( gap );
+         --_remaining;
+
+         if( _first ) {
+            _first = false;
+            _previous = _source + ( ( gap >>> 1 ) ^ -( gap & 1 ) );
+         }
+         else {
+            _previous += gap + 1;
+         }
+         return _previous;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _remaining > 0;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Creates a compressed copy of the given {@code graph}.
+    *
+    * @throws IllegalArgumentException
+    *            If the encoded graph would exceed 2GB.
+    */
+   public CompressedDiGraph( final Graph graph ) {
+      final int n = graph.verticesCount();
+      _verticesCount = n;
+      _samples = new int[( ( n + SAMPLE_RATE - 1 ) >> SAMPLE_SHIFT ) + 1];
+      _sampleEdges = new int[_samples.length - 1];
+
+      byte[] data = new byte[Math.max( 16, n + graph.edgesCount() )];
+      int pos = 0;
+      int m = 0;
+      int[] row = new int[16];
+
+      for( int v = 0; v < n; v++ ) {
+         if( ( v & ( SAMPLE_RATE - 1 ) ) == 0 ) {
+            _samples[v >> SAMPLE_SHIFT] = pos;
+            _sampleEdges[v >> SAMPLE_SHIFT] = m;
+         }
+
+         final int degree = graph.getOutDegree( v );
+         if( degree > row.length ) {
+            row = new int[Math.max( degree, row.length * 2 )];
+         }
+         int d = 0;
+         for( final IntIterator iter = graph.adjacencyOf( v ).intIterator(); iter.hasNext(); ) {
+            row[d++] = iter.nextInt();
+         }
+         Arrays.sort( row, 0, d );
+
+         // at most 5 bytes per value
+         final long required = pos + 5L * ( d + 1 );
+         if( required > data.length ) {
+            if( required > Integer.MAX_VALUE - 8 ) {
+               throw new IllegalArgumentException( "Graph too large to be compressed!" );
+            }
+            data = Arrays.copyOf( data, (int) Math.min( Integer.MAX_VALUE - 8,
+                                                        Math.max( required, data.length + ( data.length >> 1 ) ) ) );
+         }
+
+         pos = writeInt( data, pos, d );
+         for( int i = 0; i < d; i++ ) {
+            if( i == 0 ) {
+               final int delta = row[0] - v;
+               pos = writeInt( data, pos, ( delta << 1 ) ^ ( delta >> 31 ) );
+            }
+            else {
+               pos = writeInt( data, pos, row[i] - row[i - 1] - 1 );
+            }
+         }
+         m += d;
+      }
+      _samples[_samples.length - 1] = pos;
+
+      _edgesCount = m;
+      _data = Arrays.copyOf( data, pos );
+   }
+
+   private static int writeInt( final byte[] data, int pos, int value ) {
+      while( ( value & ~0x7F ) != 0 ) {
+         data[pos++] = (byte) ( ( value & 0x7F ) | 0x80 );
+         value >>>= 7;
+      }
+      data[pos++] = (byte) value;
+      return pos;
+   }
+
+   private int readInt( int pos ) {
+      final byte[] data = _data;
+      int b = data[pos++];
+      int value = b & 0x7F;
+      for( int shift = 7; b < 0; shift += 7 ) {
+         b = data[pos++];
+         value |= ( b & 0x7F ) << shift;
+      }
+      return value;
+   }
+
+   private static int varIntLength( final int value ) {
+      if( ( value & ~0x7F ) == 0 ) {
+         return 1;
+      }
+      if( ( value & ~0x3FFF ) == 0 ) {
+         return 2;
+      }
+      if( ( value & ~0x1FFFFF ) == 0 ) {
+         return 3;
+      }
+      if( ( value & ~0xFFFFFFF ) == 0 ) {
+         return 4;
+      }
+      return 5;
+   }
+
+   /** Returns the position of the degree of {@code vertex} in {@link #_data}. */
+   private int positionOf( final int vertex ) {
+      if( vertex < 0 || vertex >= _verticesCount ) {
+         throw new IndexOutOfBoundsException( "Vertex " + vertex + " is not part of the graph!" );
+      }
+      int pos = _samples[vertex >> SAMPLE_SHIFT];
+      final byte[] data = _data;
+
+      for( int v = vertex & ~( SAMPLE_RATE - 1 ); v < vertex; v++ ) {
+         // skip the degree and then as many values as it says
+         int values = readInt( pos ) + 1;
+         while( values > 0 ) {
+            if( data[pos++] >= 0 ) {
+               --values;
+            }
+         }
+      }
+      return pos;
+   }
+
+   /** Returns the number of edges whose source is smaller than {@code vertex}. */
+   private int edgesBefore( final int vertex ) {
+      final int sample = vertex >> SAMPLE_SHIFT;
+      int pos = _samples[sample];
+      int edges = _sampleEdges[sample];
+      final byte[] data = _data;
+
+      for( int v = vertex & ~( SAMPLE_RATE - 1 ); v < vertex; v++ ) {
+         final int degree = readInt( pos );
+         edges += degree;
+         int values = degree + 1;
+         while( values > 0 ) {
+            if( data[pos++] >= 0 ) {
+               --values;
+            }
+         }
+      }
+      return edges;
+   }
+
+   @Override
+   public int verticesCount() {
+      return _verticesCount;
+   }
+
+   @Override
+   public int edgesCount() {
+      return _edgesCount;
+   }
+
+   @Override
+   public CompressedAdjacency adjacencyOf( int vertex ) {
+      return new CompressedAdjacency( vertex );
+   }
+
+   @Override
+   public boolean hasEdge( int source, int dest ) {
+      return adjacencyOf( source ).contains( dest );
+   }
+
+   /**
+    * Returns the position of the edge in the encoding order, costs
+    * {@code O(d)} like {@link #hasEdge(int, int)}.
+    */
+   @Override
+   public int edgeId( int source, int dest ) {
+      int rank = 0;
+      for( final IntIterator iter = adjacencyOf( source ).intIterator(); iter.hasNext(); rank++ ) {
+         final int v = iter.nextInt();
+         if( v >= dest ) {
+            return v == dest ? edgesBefore( source ) + rank : -1;
+         }
+      }
+      return -1;
+   }
+
+   @Override
+   public int edgeIdBound() {
+      return _edgesCount;
+   }
+
+   @Override
+   public boolean addEdge( int source, int dest ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean removeEdge( int source, int dest ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public int getOutDegree( int vertex ) {
+      return readInt( positionOf( vertex ) );
+   }
+
+   /**
+    * Returns the in degree of {@code vertex}. The in degrees of all vertices are
+    * computed on the first call, which decodes the whole graph once.
+    */
+   @Override
+   public int getInDegree( int vertex ) {
+      int[] inDegree = _inDegree;
+      if( inDegree == null ) {
+         inDegree = new int[_verticesCount];
+         for( int u = 0; u < _verticesCount; u++ ) {
+            for( final IntIterator iter = adjacencyOf( u ).intIterator(); iter.hasNext(); ) {
+               ++inDegree[iter.nextInt()];
+            }
+         }
+         _inDegree = inDegree;
+      }
+      return inDegree[vertex];
+   }
+
+   /**
+    * Returns the predecessors of {@code vertex}. There is no reverse index, thus
+    * every adjacency is searched which costs {@code O(m)}.
+    */
+   @Override
+   public IntSet predecessorsOf( int vertex ) {
+      final IntHashSet predecessors = new IntHashSet();
+      for( int u = 0; u < _verticesCount; u++ ) {
+         if( hasEdge( u, vertex ) ) {
+            predecessors.add( u );
+         }
+      }
+      return predecessors;
+   }
+
+   @Override
+   public boolean isDirected() {
+      return true;
+   }
+
+   /**
+    * Returns the induced sub graph, compressed the same way. The vertex ids are
+    * kept.
+    */
+   @Override
+   public CompressedDiGraph subGraph( IntSet vertices ) {
+      return new CompressedDiGraph( new CompactDiGraph( this ).subGraph( vertices ) );
+   }
+
+   /** Returns the number of bytes used by the encoded adjacencies. */
+   public long compressedSize() {
+      return _data.length + 4L * ( _samples.length + _sampleEdges.length );
+   }
+
+   /** Returns the memory held by this graph, nothing is wasted. */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 4 * MemoryReport.REFERENCE + 2 * 4 ), 0 );
+      report.add( "data", MemoryReport.arrayBytes( _data.length, 1 ), 0 );
+      report.add( "samples", MemoryReport.arrayBytes( _samples.length, 4 )
+               + MemoryReport.arrayBytes( _sampleEdges.length, 4 ), 0 );
+      final int[] inDegree = _inDegree;
+      if( inDegree != null ) {
+         report.add( "in degrees", MemoryReport.arrayBytes( inDegree.length, 4 ), 0 );
+      }
+      return report;
+   }
+}
@@ -0,0 +1,83 @@
+package dev.costin.fastgraph.impl;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntBitSet;
+import dev.costin.fastgraph.DeactivatableVerticesGraph;
+import dev.costin.fastgraph.Graph;
+
+/**
+ * A view on a {@link Graph} in which vertices can be disabled.
+ *
+ * <p>
+ * The disabled vertices are kept in a bit mask, so {@link #disable(int)} and
+ * {@link #enable(int)} cost {@code O(1)} and nothing of the underlying graph
+ * is copied. See {@link VertexFilteredGraph} for the cost of the queries.
+ * </p>
+ *
+ * <pre>
+ * final DeactivatableGraph view = new DeactivatableGraph( graph );
+ * view.disable( failed );
+ * new DepthFirstSearch().traverse( view, visitor );
+ * view.enableAll();
+ * </pre>
+ *
+ * <p>
+ * The view must not be used after vertices have been added to the underlying
+ * graph.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class DeactivatableGraph extends VertexFilteredGraph implements DeactivatableVerticesGraph {
+
+   private final IntBitSet _disabled;
+
+   /**
+    * Creates a view on {@code graph} with all vertices enabled.
+    */
+   public DeactivatableGraph( final Graph graph ) {
+      super( graph );
+      _disabled = new IntBitSet( graph.verticesCount() );
+   }
+
+   @Override
+   protected boolean accepts( final int vertex ) {
+      return !_disabled.contains( vertex );
+   }
+
+   @Override
+   protected boolean acceptsAll() {
+      return _disabled.isEmpty();
+   }
+
+   @Override
+   public void disable( final int vertex ) {
+      _disabled.add( vertex );
+   }
+
+   /** Disables all {@code vertices}. */
+   public void disableAll( final IntSet vertices ) {
+      _disabled.addAll( vertices );
+   }
+
+   @Override
+   public void enable( final int vertex ) {
+      _disabled.remove( vertex );
+   }
+
+   @Override
+   public void enableAll() {
+      _disabled.clear();
+   }
+
+   @Override
+   public boolean isEnabled( final int vertex ) {
+      return !_disabled.contains( vertex );
+   }
+
+   /** Returns the number of disabled vertices. */
+   public int disabledCount() {
+      return _disabled.size();
+   }
+}
@@ -1,28 +1,49 @@
 package dev.costin.fastgraph.impl;
 
+import java.util.Arrays;
+
 import dev.costin.fastcollections.IntIterator;
 import dev.costin.fastcollections.sets.IntSet;
 import dev.costin.fastcollections.sets.impl.IntGrowingSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
 import dev.costin.fastgraph.Adjacency;
 import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.GraphWithColumns;
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
 
-public class DiGraph implements Graph {
+public class DiGraph implements GraphWithColumns, MemoryMeasurable {
 
-   private Adjacency[] _graph;
-   int[]             _inDegree;
-   int               _edgesCount;
+   private Adjacency[]     _graph;
+   private int             _verticesCount;
+   private int[]           _inDegree;
+   private int             _edgesCount;
+   private boolean         _sparse;
+   private Predecessors[]  _predecessors;
+   private EdgeIdAllocator _edgeIdAllocator;
+   private PropertyColumns _vertexColumns;
+   private PropertyColumns _edgeColumns;
 
    public static class IntSetAdjacency extends IntGrowingSet implements Adjacency {
 
       private final DiGraph _ownerGraph;
       private final int     _owner;
+      private final EdgeIds _edgeIds = new EdgeIds();
 
       protected IntSetAdjacency( final DiGraph ownerGraph, final int owner ) {
          this( ownerGraph, owner, ownerGraph.verticesCount() );
       }
 
+      /**
+       * Creates an adjacency whose range covers all vertices of the owner graph.
+       * With an {@code initialListCapacity} of {@code 0} the range is empty
+       * instead and grows on demand, which is used for vertices added by
+       * {@link DiGraph#ensureVertices(int)}.
+       */
       protected IntSetAdjacency( final DiGraph ownerGraph, final int owner, final int initialListCapacity ) {
-         super( 0, ownerGraph.verticesCount() - 1, initialListCapacity );
+         super( 0, initialListCapacity == 0 ? -1 : ownerGraph.verticesCount() - 1, initialListCapacity );
          _ownerGraph = ownerGraph;
          _owner = owner;
       }
@@ -37,11 +58,33 @@ public class DiGraph implements Graph {
          return _owner;
       }
 
+      @Override
+      public int edgeId( int vertex ) {
+         final int i = indexOf( vertex );
+         return i < 0 ? -1 : _edgeIds.get( i );
+      }
+
+      @Override
+      public MemoryReport memoryFootprint() {
+         return super.memoryFootprint().add( _edgeIds.memoryFootprint( size() ) );
+      }
+
       @Override
       public boolean add( int vertex ) {
+         if( vertex < 0 || vertex >= _ownerGraph.verticesCount() ) {
+            throw new IndexOutOfBoundsException( "Vertex " + vertex + " is not part of the graph!" );
+         }
+         if( super.add( vertex ) ) {
+            _edgeIds.set( size() - 1, _ownerGraph.edgeAdded( _owner, vertex ) );
+            return true;
+         }
+         return false;
+      }
+
+      /** Adds the edge with the given id without notifying the graph, see {@link DiGraph#DiGraph(int[], int[], boolean)}. */
+      boolean insert( final int vertex, final int id ) {
          if( super.add( vertex ) ) {
-            ++_ownerGraph._inDegree[vertex];
-            ++_ownerGraph._edgesCount;
+            _edgeIds.set( size() - 1, id );
             return true;
          }
          return false;
@@ -49,9 +92,12 @@ public class DiGraph implements Graph {
 
       @Override
       public boolean remove( int vertex ) {
-         if( super.remove( vertex ) ) {
-            --_ownerGraph._inDegree[vertex];
-            --_ownerGraph._edgesCount;
+         final int i = indexOf( vertex );
+         if( i >= 0 ) {
+            final int id = _edgeIds.get( i );
+            super.remove( vertex );
+            _edgeIds.remove( i, size() );
+            _ownerGraph.edgeRemoved( _owner, vertex, id );
             return true;
          }
          return false;
@@ -60,14 +106,147 @@ public class DiGraph implements Graph {
       @Override
       public void clear() {
          for( int i=0; i<size(); i++ ) {
-            --_ownerGraph._inDegree[get(i)];
-            _ownerGraph._edgesCount = 0;
+            _ownerGraph.edgeRemoved( _owner, get( i ), _edgeIds.get( i ) );
+         }
+         super.clear();
+      }
+   }
+
+   /**
+    * Adjacency for sparse graphs. The memory used is proportional to the number
+    * of adjacent vertices instead of the number of vertices of the graph.
+    */
+   public static class IntHashSetAdjacency extends IntHashSet implements Adjacency {
+
+      private final DiGraph _ownerGraph;
+      private final int     _owner;
+      private final EdgeIds _edgeIds = new EdgeIds();
+
+      protected IntHashSetAdjacency( final DiGraph ownerGraph, final int owner ) {
+         this( ownerGraph, owner, 0 );
+      }
+
+      protected IntHashSetAdjacency( final DiGraph ownerGraph, final int owner, final int initialCapacity ) {
+         super( initialCapacity );
+         _ownerGraph = ownerGraph;
+         _owner = owner;
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return _ownerGraph;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         final int i = indexOf( vertex );
+         return i < 0 ? -1 : _edgeIds.get( i );
+      }
+
+      @Override
+      public MemoryReport memoryFootprint() {
+         return super.memoryFootprint().add( _edgeIds.memoryFootprint( size() ) );
+      }
+
+      @Override
+      public boolean add( int vertex ) {
+         if( vertex < 0 || vertex >= _ownerGraph.verticesCount() ) {
+            throw new IndexOutOfBoundsException( "Vertex " + vertex + " is not part of the graph!" );
+         }
+         if( super.add( vertex ) ) {
+            _edgeIds.set( size() - 1, _ownerGraph.edgeAdded( _owner, vertex ) );
+            return true;
+         }
+         return false;
+      }
+
+      /** Adds the edge with the given id without notifying the graph, see {@link DiGraph#DiGraph(int[], int[], boolean)}. */
+      boolean insert( final int vertex, final int id ) {
+         if( super.add( vertex ) ) {
+            _edgeIds.set( size() - 1, id );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public boolean remove( int vertex ) {
+         final int i = indexOf( vertex );
+         if( i >= 0 ) {
+            final int id = _edgeIds.get( i );
+            super.remove( vertex );
+            _edgeIds.remove( i, size() );
+            _ownerGraph.edgeRemoved( _owner, vertex, id );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public void clear() {
+         for( int i=0; i<size(); i++ ) {
+            _ownerGraph.edgeRemoved( _owner, get( i ), _edgeIds.get( i ) );
          }
          super.clear();
       }
    }
 
+   /**
+    * The predecessors of a vertex as maintained by the predecessor index. The
+    * set can only be modified by the owning graph.
+    */
+   static class Predecessors extends IntHashSet {
+
+      Predecessors() {
+         super();
+      }
+
+      void insert( final int vertex ) {
+         super.add( vertex );
+      }
+
+      void delete( final int vertex ) {
+         super.remove( vertex );
+      }
+
+      @Override
+      public boolean add( int value ) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean remove( int value ) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void clear() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
    public DiGraph( final int n ) {
+      this( n, false );
+   }
+
+   /**
+    * Creates a graph with {@code n} vertices.
+    *
+    * @param sparse
+    *           If {@code true} the adjacencies are hash based
+    *           ({@link IntHashSetAdjacency}) and the graph needs {@code O(n+m)}
+    *           memory. Otherwise every adjacency reserves space for all
+    *           {@code n} vertices ({@link IntSetAdjacency}), which is the fastest
+    *           choice for small or dense graphs.
+    */
+   public DiGraph( final int n, final boolean sparse ) {
+      _sparse = sparse;
+      _verticesCount = n;
       _graph = new Adjacency[n];
       for( int i = 0; i < n; i++ ) {
          _graph[i] = createAdjacency( this, i );
@@ -75,6 +254,61 @@ public class DiGraph implements Graph {
 
       _inDegree = new int[n];
       _edgesCount = 0;
+      _edgeIdAllocator = new EdgeIdAllocator();
+   }
+
+   /**
+    * Creates a graph from CSR arrays in one pass, without the bookkeeping of
+    * {@link #addEdge(int, int)} for every edge. The arrays are not kept.
+    *
+    * <p>
+    * The edges get the ids {@code 0..m-1} in the order of {@code targets}, so
+    * for duplicate free targets the id of an edge is its index into
+    * {@code targets} like in {@link CompactDiGraph}. Duplicated targets of a
+    * vertex are added once.
+    * </p>
+    *
+    * @param offsets
+    *           Array of length {@code n+1}; the targets of vertex {@code v} are
+    *           stored in {@code targets[offsets[v]]..targets[offsets[v+1]-1]}.
+    * @param sparse
+    *           See {@link #DiGraph(int, boolean)}.
+    * @throws IndexOutOfBoundsException
+    *            If a target is outside {@code [0,n)}.
+    */
+   public DiGraph( final int[] offsets, final int[] targets, final boolean sparse ) {
+      if( offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length ) {
+         throw new IllegalArgumentException( "Offsets do not match the targets array!" );
+      }
+      final int n = offsets.length - 1;
+      _sparse = sparse;
+      _verticesCount = n;
+      _graph = new Adjacency[n];
+      _inDegree = new int[n];
+
+      int id = 0;
+      for( int v = 0; v < n; v++ ) {
+         final int begin = offsets[v];
+         final int end = offsets[v + 1];
+         // the adjacencies are sized to the row like the ones of sub graphs
+         final Adjacency adj = _graph[v] = sparse ? new IntHashSetAdjacency( this, v, end - begin )
+                  : new IntSetAdjacency( this, v, end - begin );
+         for( int i = begin; i < end; i++ ) {
+            final int dest = targets[i];
+            if( dest < 0 || dest >= n ) {
+               throw new IndexOutOfBoundsException( "Vertex " + dest + " is not part of the graph!" );
+            }
+            final boolean added = sparse ? ( (IntHashSetAdjacency) adj ).insert( dest, id )
+                     : ( (IntSetAdjacency) adj ).insert( dest, id );
+            if( added ) {
+               ++_inDegree[dest];
+               ++id;
+            }
+         }
+      }
+
+      _edgesCount = id;
+      _edgeIdAllocator = new EdgeIdAllocator( id );
    }
 
    /**
@@ -83,11 +317,56 @@ public class DiGraph implements Graph {
     */
    protected DiGraph() {
       _edgesCount = 0;
+      _edgeIdAllocator = new EdgeIdAllocator();
    }
 
    @Override
    public int verticesCount() {
-      return _graph.length;
+      return _verticesCount;
+   }
+
+   /**
+    * Adds a new vertex without any edges.
+    *
+    * @return The id of the new vertex, which is the previous
+    *         {@link #verticesCount()}.
+    * @see #ensureVertices(int)
+    */
+   public int addVertex() {
+      ensureVertices( _verticesCount + 1 );
+      return _verticesCount - 1;
+   }
+
+   /**
+    * Ensures that the graph has at least {@code count} vertices by adding
+    * vertices without edges. The internal arrays grow by doubling, so adding
+    * vertices one by one costs {@code O(1)} amortized. The adjacencies of
+    * the existing vertices are not touched; they grow when an edge to a new
+    * vertex is added. The adjacencies of new vertices start empty and grow on
+    * demand as well.
+    */
+   public void ensureVertices( final int count ) {
+      final int oldCount = _verticesCount;
+      if( count <= oldCount ) {
+         return;
+      }
+
+      if( count > _graph.length ) {
+         final int capacity = (int) Math.min( Integer.MAX_VALUE - 8, Math.max( count, 2L * _graph.length ) );
+         _graph = Arrays.copyOf( _graph, capacity );
+         _inDegree = Arrays.copyOf( _inDegree, capacity );
+         if( _predecessors != null ) {
+            _predecessors = Arrays.copyOf( _predecessors, capacity );
+         }
+      }
+
+      _verticesCount = count;
+      for( int i = oldCount; i < count; i++ ) {
+         _graph[i] = createAdjacency( this, i, 0 );
+      }
+      if( _vertexColumns != null ) {
+         _vertexColumns.ensureSize( count );
+      }
    }
    
    @Override
@@ -125,32 +404,255 @@ public class DiGraph implements Graph {
       return _inDegree[vertex];
    }
 
+   /**
+    * Returns the predecessors of {@code vertex}.
+    *
+    * <p>
+    * If the predecessor index is enabled, the returned set is maintained by
+    * the graph and must not be modified. Otherwise the predecessors are
+    * collected by scanning all adjacencies, which costs {@code O(n+m)}.
+    * </p>
+    *
+    * @see #enablePredecessorIndex()
+    */
+   @Override
+   public IntSet predecessorsOf( int vertex ) {
+      if( _predecessors != null ) {
+         final IntSet predecessors = _predecessors[vertex];
+         return predecessors != null ? predecessors : FastCollections.emptyIntSet();
+      }
+
+      final IntHashSet predecessors = new IntHashSet( _inDegree[vertex] );
+      for( int u = 0; u < _verticesCount; u++ ) {
+         final Adjacency adj = _graph[u];
+         if( adj != null && adj.contains( vertex ) ) {
+            predecessors.add( u );
+         }
+      }
+      return predecessors;
+   }
+
+   @Override
+   public boolean isDirected() {
+      return true;
+   }
+
+   @Override
+   public int edgeId( int source, int dest ) {
+      return adjacencyOf( source ).edgeId( dest );
+   }
+
+   /**
+    * Returns the bound of the edge ids. Ids of removed edges are reused, thus
+    * the bound is the maximum number of edges the graph had at any time.
+    */
+   @Override
+   public int edgeIdBound() {
+      return _edgeIdAllocator.bound();
+   }
+
+   /**
+    * Returns the vertex property columns, created on first use.
+    */
+   @Override
+   public PropertyColumns vertexColumns() {
+      if( _vertexColumns == null ) {
+         _vertexColumns = new PropertyColumns( _verticesCount );
+      }
+      return _vertexColumns;
+   }
+
+   /**
+    * Returns the edge property columns, created on first use. The values of
+    * an edge are reset when its id is handed out again.
+    */
+   @Override
+   public PropertyColumns edgeColumns() {
+      if( _edgeColumns == null ) {
+         _edgeColumns = _edgeIdAllocator.newColumns();
+      }
+      return _edgeColumns;
+   }
+
+   /**
+    * Returns the memory held by this graph. The adjacencies are summed up into
+    * one component. For large graphs with dense adjacencies most of it is
+    * wasted, which is the hint to use a sparse graph or {@link #toCompact()}.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 6 * MemoryReport.REFERENCE + 2 * 4 + 1 ), 0 );
+      report.add( adjacenciesFootprint( _graph, _verticesCount ) );
+      report.add( "in degrees", MemoryReport.arrayBytes( _inDegree.length, 4 ),
+               ( _inDegree.length - (long) _verticesCount ) * 4 );
+      if( _predecessors != null ) {
+         final MemoryReport predecessors = new MemoryReport( "predecessors",
+                  MemoryReport.arrayBytes( _predecessors.length, MemoryReport.REFERENCE ),
+                  ( _predecessors.length - (long) _verticesCount ) * MemoryReport.REFERENCE );
+         for( int v = 0; v < _verticesCount; v++ ) {
+            if( _predecessors[v] != null ) {
+               predecessors.merge( _predecessors[v].memoryFootprint() );
+            }
+         }
+         report.add( predecessors );
+      }
+      report.add( _edgeIdAllocator.memoryFootprint() );
+      if( _vertexColumns != null ) {
+         report.add( "vertex columns", _vertexColumns.memoryFootprint() );
+      }
+      if( _edgeColumns != null ) {
+         report.add( "edge columns", _edgeColumns.memoryFootprint() );
+      }
+      return report;
+   }
+
+   /**
+    * Sums up the reports of the first {@code count} adjacencies and the array
+    * holding them into one component.
+    */
+   static MemoryReport adjacenciesFootprint( final Adjacency[] adjacencies, final int count ) {
+      final MemoryReport report = new MemoryReport( "adjacencies",
+               MemoryReport.arrayBytes( adjacencies.length, MemoryReport.REFERENCE ),
+               ( adjacencies.length - (long) count ) * MemoryReport.REFERENCE );
+      for( int i = 0; i < count; i++ ) {
+         if( adjacencies[i] instanceof MemoryMeasurable ) {
+            report.merge( ( (MemoryMeasurable) adjacencies[i] ).memoryFootprint() );
+         }
+      }
+      return report;
+   }
+
+   /**
+    * Builds an index of the predecessors of every vertex which is kept in sync
+    * on every modification of the graph. Afterwards {@link #predecessorsOf(int)}
+    * costs {@code O(1)} and iterating the predecessors {@code O(in-degree)}.
+    * Does nothing if the index is already enabled.
+    */
+   public void enablePredecessorIndex() {
+      if( _predecessors == null ) {
+         final Predecessors[] predecessors = new Predecessors[_graph.length];
+         for( int u = 0; u < _verticesCount; u++ ) {
+            final Adjacency adj = _graph[u];
+            if( adj != null ) {
+               for( final IntIterator iter = adj.intIterator(); iter.hasNext(); ) {
+                  addPredecessor( predecessors, u, iter.nextInt() );
+               }
+            }
+         }
+         _predecessors = predecessors;
+      }
+   }
+
+   /** Drops the predecessor index, if any, and frees its memory. */
+   public void disablePredecessorIndex() {
+      _predecessors = null;
+   }
+
+   public boolean isPredecessorIndexEnabled() {
+      return _predecessors != null;
+   }
+
+   /**
+    * Must be called by the adjacencies after the edge has been added.
+    *
+    * @return The id of the new edge.
+    */
+   int edgeAdded( final int source, final int dest ) {
+      ++_inDegree[dest];
+      ++_edgesCount;
+      if( _predecessors != null ) {
+         addPredecessor( _predecessors, source, dest );
+      }
+      final int id = _edgeIdAllocator.allocate();
+      if( _edgeColumns != null ) {
+         _edgeColumns.reset( id );
+      }
+      return id;
+   }
+
+   /** Must be called by the adjacencies after the edge with the given id has been removed. */
+   void edgeRemoved( final int source, final int dest, final int id ) {
+      --_inDegree[dest];
+      --_edgesCount;
+      if( _predecessors != null ) {
+         _predecessors[dest].delete( source );
+      }
+      _edgeIdAllocator.release( id );
+      if( _edgeColumns != null ) {
+         _edgeColumns.release( id );
+      }
+   }
+
+   private static void addPredecessor( final Predecessors[] predecessors, final int source, final int dest ) {
+      Predecessors set = predecessors[dest];
+      if( set == null ) {
+         set = predecessors[dest] = new Predecessors();
+      }
+      set.insert( source );
+   }
+
    @Override
    public Graph subGraph( IntSet vertices ) {
-      final DiGraph subGraph = new DiGraph();
-      // TODO: maybe limit the range to minimal needed?
-      subGraph._graph = new IntSetAdjacency[_graph.length];
-      subGraph._inDegree = new int[_graph.length];
+      final DiGraph subGraph = newSubGraph();
+      subGraph._sparse = _sparse;
+      // keeps the id space of this graph, see GraphUtils.compactSubGraph() for a renumbered copy
+      subGraph._verticesCount = _verticesCount;
+      subGraph._graph = new Adjacency[_verticesCount];
+      subGraph._inDegree = new int[_verticesCount];
+      if( _predecessors != null ) {
+         subGraph._predecessors = new Predecessors[_verticesCount];
+      }
       
       final int subGraphVerticesCount = vertices.size();
 
-      for( int i = 0; i < _graph.length; i++ ) {
+      for( int i = 0; i < _verticesCount; i++ ) {
          if( vertices.contains( i ) ) {
             final Adjacency adj = _graph[i];
             
-            if( adj != null ) {
-               final Adjacency newAdj =
-                     subGraph._graph[i] = createAdjacency( subGraph, subGraph._graph.length,
-                              Math.min(adj.size(), subGraphVerticesCount) );
-               
-               buildInducedAdjacency( vertices, adj, newAdj );
-            }
+            final Adjacency newAdj =
+                  subGraph._graph[i] = createAdjacency( subGraph, i,
+                           Math.min(adj.size(), subGraphVerticesCount) );
+            
+            buildInducedAdjacency( vertices, adj, newAdj );
+         }
+         else {
+            // the vertex stays part of the id space, just without edges
+            subGraph._graph[i] = createAdjacency( subGraph, i, 0 );
          }
       }
 
       return subGraph;
    }
 
+   /**
+    * Creates the empty graph filled by {@link #subGraph(IntSet)}, see
+    * {@link #DiGraph()}. Subclasses return an instance of their own type.
+    */
+   protected DiGraph newSubGraph() {
+      return new DiGraph();
+   }
+
+   /**
+    * Returns the sub graph induced by {@code vertices} as a view on this graph.
+    * Unlike {@link #subGraph(IntSet)} nothing is copied, the adjacencies are
+    * filtered while iterating them.
+    *
+    * @see SubGraphView
+    */
+   public SubGraphView subGraphView( final IntSet vertices ) {
+      return new SubGraphView( this, vertices );
+   }
+
+   /**
+    * Creates an immutable {@link CompactDiGraph} copy of this graph. The copy
+    * stores all edges in two flat arrays and is the preferred representation
+    * for read-mostly workloads.
+    */
+   public CompactDiGraph toCompact() {
+      return new CompactDiGraph( this );
+   }
+
    protected void buildInducedAdjacency( IntSet vertices, final Adjacency originalAdjacency,
          final Adjacency newAdjacency ) {
       
@@ -162,11 +664,26 @@ public class DiGraph implements Graph {
       }
    }
 
+   /**
+    * Returns {@code true} if this graph uses hash based adjacencies.
+    *
+    * @see #DiGraph(int, boolean)
+    */
+   public boolean isSparse() {
+      return _sparse;
+   }
+
    protected Adjacency createAdjacency( final DiGraph ownerGraph, final int owner ) {
+      if( ownerGraph._sparse ) {
+         return new IntHashSetAdjacency( ownerGraph, owner );
+      }
       return new IntSetAdjacency( ownerGraph, owner );
    }
 
    protected Adjacency createAdjacency( final DiGraph ownerGraph, final int owner, final int initialCapacity ) {
+      if( ownerGraph._sparse ) {
+         return new IntHashSetAdjacency( ownerGraph, owner, initialCapacity );
+      }
       return new IntSetAdjacency( ownerGraph, owner, initialCapacity );
    }
 }
@@ -1,35 +1,62 @@
 package dev.costin.fastgraph.impl;
 
+import java.util.Arrays;
+
 import dev.costin.fastcollections.IntIterator;
 import dev.costin.fastcollections.sets.IntSet;
-import dev.costin.fastcollections.sets.impl.IntGrowingSet;
+import dev.costin.fastcollections.sets.impl.IntBitSet;
+import dev.costin.fastcollections.tools.MemoryReport;
 import dev.costin.fastgraph.Adjacency;
 import dev.costin.fastgraph.AdjacencyWithProperties;
-import dev.costin.fastgraph.Graph;
 import dev.costin.fastgraph.GraphWithProperties;
 import dev.costin.fastgraph.properties.BasicProperties;
 import dev.costin.fastgraph.properties.PropertiesFactory;
 
 
+/**
+ * A {@link DiGraph} with property objects per vertex and per edge.
+ *
+ * <p>
+ * The edge properties are stored in an array indexed by
+ * {@link #edgeId(int, int)}, so they need memory proportional to the number
+ * of edges. Properties are created on first access and dropped together with
+ * their edge.
+ * </p>
+ *
+ * <p>
+ * A sub graph created with {@link #subGraph(IntSet, boolean)} in copy-on-write
+ * mode shares the property objects of this graph, they are marked as shared in
+ * both graphs. Since the properties are plain objects with public fields,
+ * every access through {@link #getVertexProperties(int)} or
+ * {@link #getEdgeProperties(int, int)} counts as write and copies the shared
+ * object the first time, in the sub graph as well as in this graph.
+ * {@link #readVertexProperties(int)} and {@link #readEdgeProperties(int, int)}
+ * return the shared object without copying, for read-only use.
+ * </p>
+ */
 public class DiGraphWithProperties<V extends BasicProperties, E extends BasicProperties> extends DiGraph implements GraphWithProperties<V,E> {
-   
+
+   private static final BasicProperties[] EMPTY = {};
+
    private final PropertiesFactory<E> _edgePropertiesFactory;
    private final PropertiesFactory<V> _vertexPropertiesFactory;
-   private final BasicProperties[] _vertexProperties;
-   private final BasicProperties[] _edgeProperties;
-   
-   public class IntSetAdjacencyWithProperties extends IntGrowingSet implements AdjacencyWithProperties<E> {
+   private BasicProperties[] _vertexProperties;
+   private BasicProperties[] _edgeProperties;
+
+   /** Vertices and edge ids whose properties are shared with the parent graph, {@code null} if none. */
+   private IntBitSet _sharedVertexProperties;
+   private IntBitSet _sharedEdgeProperties;
+
+   public class IntSetAdjacencyWithProperties extends IntSetAdjacency implements AdjacencyWithProperties<E> {
       private final DiGraphWithProperties<V,E> _ownerGraph;
-      private final int     _owner;
 
       protected IntSetAdjacencyWithProperties( final DiGraphWithProperties<V,E> ownerGraph, final int owner ) {
          this( ownerGraph, owner, ownerGraph.verticesCount() );
       }
 
       protected IntSetAdjacencyWithProperties( final DiGraphWithProperties<V,E> ownerGraph, final int owner, final int initialListCapacity ) {
-         super( 0, ownerGraph.verticesCount() - 1, initialListCapacity );
+         super( ownerGraph, owner, initialListCapacity );
          _ownerGraph = ownerGraph;
-         _owner = owner;
       }
 
       @Override
@@ -38,57 +65,79 @@ public class DiGraphWithProperties<V extends BasicProperties, E extends BasicPro
       }
 
       @Override
-      public int owner() {
-         return _owner;
+      public E getEdgeProperties( final int adjacentVertex ) {
+         return _ownerGraph.getEdgeProperties( owner(), adjacentVertex );
       }
 
-      @Override
-      public boolean add( int vertex ) {
-         if( super.add( vertex ) ) {
-            ++_ownerGraph._inDegree[vertex];
-            ++_ownerGraph._edgesCount;
-            return true;
-         }
-         return false;
+      /** See {@link DiGraphWithProperties#readEdgeProperties(int, int)}. */
+      public E readEdgeProperties( final int adjacentVertex ) {
+         return _ownerGraph.readEdgeProperties( owner(), adjacentVertex );
       }
 
-      @Override
-      public boolean remove( int vertex ) {
-         if( super.remove( vertex ) ) {
-            --_ownerGraph._inDegree[vertex];
-            --_ownerGraph._edgesCount;
-            _edgeProperties[ ((DiGraphWithProperties<V,E>)ownerGraph()).getEdgePropertiesIdx( this, vertex ) ] = null;
-            return true;
-         }
-         return false;
+   }
+
+   /** Hash based adjacency with properties, see {@link DiGraph.IntHashSetAdjacency}. */
+   public class IntHashSetAdjacencyWithProperties extends IntHashSetAdjacency implements AdjacencyWithProperties<E> {
+      private final DiGraphWithProperties<V,E> _ownerGraph;
+
+      protected IntHashSetAdjacencyWithProperties( final DiGraphWithProperties<V,E> ownerGraph, final int owner, final int initialCapacity ) {
+         super( ownerGraph, owner, initialCapacity );
+         _ownerGraph = ownerGraph;
       }
-      
+
       @Override
-      public void clear() {
-         final int offset = _ownerGraph.getEdgePropertiesIdx( this, 0 );
-         for( int i=0; i<size(); i++ ) {
-            final int v = get(i);
-            --_ownerGraph._inDegree[v];
-            _ownerGraph._edgesCount = 0;
-            _edgeProperties[ offset + v ] = null;
-         }
-         super.clear();
+      public GraphWithProperties<V,E> ownerGraph() {
+         return _ownerGraph;
       }
-      
+
       @Override
       public E getEdgeProperties( final int adjacentVertex ) {
-         return _ownerGraph.getEdgeProperties( _owner, adjacentVertex );
+         return _ownerGraph.getEdgeProperties( owner(), adjacentVertex );
       }
-      
+
+      /** See {@link DiGraphWithProperties#readEdgeProperties(int, int)}. */
+      public E readEdgeProperties( final int adjacentVertex ) {
+         return _ownerGraph.readEdgeProperties( owner(), adjacentVertex );
+      }
+
    }
-   
-   
+
+
    public DiGraphWithProperties( final int n, final PropertiesFactory<V> vertexPropertiesFactory, final PropertiesFactory<E> edgePropertiesFactory ) {
-      super(n);
+      this( n, false, vertexPropertiesFactory, edgePropertiesFactory );
+   }
+
+   /**
+    * Creates a graph with {@code n} vertices.
+    *
+    * @param sparse
+    *           If {@code true} the adjacencies are hash based, see
+    *           {@link DiGraph#DiGraph(int, boolean)}.
+    */
+   public DiGraphWithProperties( final int n, final boolean sparse, final PropertiesFactory<V> vertexPropertiesFactory, final PropertiesFactory<E> edgePropertiesFactory ) {
+      super( n, sparse );
       _vertexPropertiesFactory = vertexPropertiesFactory;
       _edgePropertiesFactory = edgePropertiesFactory;
       _vertexProperties = new BasicProperties[n];
-      _edgeProperties = new BasicProperties[n*n];
+      _edgeProperties = EMPTY;
+   }
+
+   /**
+    * Constructor for the graphs created by {@link #subGraph(IntSet)}.
+    */
+   protected DiGraphWithProperties( final PropertiesFactory<V> vertexPropertiesFactory, final PropertiesFactory<E> edgePropertiesFactory ) {
+      _vertexPropertiesFactory = vertexPropertiesFactory;
+      _edgePropertiesFactory = edgePropertiesFactory;
+      _vertexProperties = EMPTY;
+      _edgeProperties = EMPTY;
+   }
+
+   @Override
+   public void ensureVertices( final int count ) {
+      super.ensureVertices( count );
+      if( count > _vertexProperties.length ) {
+         _vertexProperties = Arrays.copyOf( _vertexProperties, Math.max( count, 2 * _vertexProperties.length ) );
+      }
    }
 
    @Override
@@ -105,79 +154,286 @@ public class DiGraphWithProperties<V extends BasicProperties, E extends BasicPro
          props = _vertexPropertiesFactory.newInstance();
          _vertexProperties[ vertex ] = props;
       }
+      else if( _sharedVertexProperties != null && _sharedVertexProperties.remove( vertex ) ) {
+         @SuppressWarnings( "unchecked" )
+         final V copy = (V) props.clone();
+         props = copy;
+         _vertexProperties[ vertex ] = props;
+      }
+      return props;
+   }
+
+   /**
+    * Returns the properties of the vertex or {@code null} if they have not
+    * been created yet. Unlike {@link #getVertexProperties(int)} shared
+    * properties are not copied, thus the result must not be modified.
+    */
+   public V readVertexProperties( final int vertex ) {
+      @SuppressWarnings( "unchecked" )
+      final V props = (V) ( vertex < _vertexProperties.length ? _vertexProperties[ vertex ] : null );
       return props;
    }
-   
+
+   /**
+    * Returns the properties of the edge, they are created on first access.
+    * Returns {@code null} if there is no such edge.
+    */
    @Override
    public E getEdgeProperties( int source, int dest ) {
-      final int idx = getEdgePropertiesIdx( source, dest );
+      final int id = edgeId( source, dest );
+      if( id < 0 ) {
+         return null;
+      }
+      ensureEdgeProperties( id );
       @SuppressWarnings( "unchecked" )
-      E props = (E) _edgeProperties[ idx ];
+      E props = (E) _edgeProperties[ id ];
       if( props == null ) {
          props = _edgePropertiesFactory.newInstance();
-         _edgeProperties[ idx ] = props;
+         _edgeProperties[ id ] = props;
+      }
+      else if( _sharedEdgeProperties != null && _sharedEdgeProperties.remove( id ) ) {
+         @SuppressWarnings( "unchecked" )
+         final E copy = (E) props.clone();
+         props = copy;
+         _edgeProperties[ id ] = props;
       }
-      
+
       return props;
    }
-   
+
+   /**
+    * Returns the properties of the edge or {@code null} if there is no such
+    * edge or its properties have not been created yet. Shared properties are
+    * not copied, see {@link #readVertexProperties(int)}.
+    */
+   public E readEdgeProperties( final int source, final int dest ) {
+      @SuppressWarnings( "unchecked" )
+      final E props = (E) peekEdgeProperties( edgeId( source, dest ) );
+      return props;
+   }
+
+   /**
+    * Returns the induced sub graph with clones of the properties of its
+    * vertices and edges.
+    *
+    * @see #subGraph(IntSet, boolean)
+    */
    @Override
-   public GraphWithProperties<V, E> subGraph( IntSet vertices ) {
+   public DiGraphWithProperties<V, E> subGraph( IntSet vertices ) {
+      return subGraph( vertices, false );
+   }
+
+   /**
+    * Returns the induced sub graph.
+    *
+    * @param copyOnWrite
+    *           If {@code true} the sub graph shares the property objects of
+    *           this graph, so the extraction costs no clones. Both graphs copy
+    *           a shared object on the first access through
+    *           {@link #getVertexProperties(int)} or
+    *           {@link #getEdgeProperties(int, int)}, thus writes through one
+    *           graph are not seen by the other. Otherwise all properties are
+    *           cloned up front.
+    */
+   public DiGraphWithProperties<V, E> subGraph( final IntSet vertices, final boolean copyOnWrite ) {
       @SuppressWarnings( "unchecked" )
       final DiGraphWithProperties<V, E> subgraph = (DiGraphWithProperties<V, E>) super.subGraph( vertices );
+      subgraph._vertexProperties = new BasicProperties[verticesCount()];
 
       for( final IntIterator iter = vertices.intIterator(); iter.hasNext(); ) {
          final int v = iter.nextInt();
-         final BasicProperties props = _vertexProperties[v];
+         final BasicProperties props = v >= 0 && v < verticesCount() ? _vertexProperties[v] : null;
          if( props != null ) {
-            subgraph._vertexProperties[v] = props.clone();
+            subgraph._vertexProperties[v] = props;
+            subgraph._sharedVertexProperties.add( v );
          }
       }
-      
+
+      if( copyOnWrite ) {
+         shareWith( subgraph, vertices );
+      }
+      else {
+         subgraph.unshareProperties();
+      }
       return subgraph;
    }
-   
+
+   /**
+    * Marks the properties shared with the copy-on-write sub graph induced by
+    * {@code vertices} as shared in this graph too, so writes through this
+    * graph copy them as well.
+    */
+   private void shareWith( final DiGraphWithProperties<V, E> subGraph, final IntSet vertices ) {
+      final IntBitSet sharedVertices = subGraph._sharedVertexProperties;
+      if( !sharedVertices.isEmpty() ) {
+         _sharedVertexProperties = withCapacity( _sharedVertexProperties, verticesCount() );
+         _sharedVertexProperties.addAll( sharedVertices );
+      }
+
+      final IntBitSet sharedEdges = subGraph._sharedEdgeProperties;
+      if( !sharedEdges.isEmpty() ) {
+         // the ids of the sub graph are new, the edges are mapped back by their vertices
+         final IntBitSet shared = _sharedEdgeProperties = withCapacity( _sharedEdgeProperties, edgeIdBound() );
+         for( final IntIterator iter = vertices.intIterator(); iter.hasNext(); ) {
+            final int u = iter.nextInt();
+            if( u < 0 || u >= verticesCount() ) {
+               continue;
+            }
+            final Adjacency adj = subGraph.adjacencyOf( u );
+            for( final IntIterator targets = adj.intIterator(); targets.hasNext(); ) {
+               final int v = targets.nextInt();
+               if( sharedEdges.contains( adj.edgeId( v ) ) ) {
+                  shared.add( edgeId( u, v ) );
+               }
+            }
+         }
+      }
+   }
+
+   /** Returns {@code set} if it can hold {@code capacity} values, otherwise a larger copy. */
+   private static IntBitSet withCapacity( final IntBitSet set, final int capacity ) {
+      if( set != null && set.capacity() >= capacity ) {
+         return set;
+      }
+      final IntBitSet grown = new IntBitSet( capacity );
+      if( set != null ) {
+         grown.addAll( set );
+      }
+      return grown;
+   }
+
+   /**
+    * Replaces all properties still shared with the parent graph or a sub graph
+    * by copies, see {@link #subGraph(IntSet, boolean)}.
+    */
+   public void unshareProperties() {
+      if( _sharedVertexProperties != null ) {
+         final IntBitSet shared = _sharedVertexProperties;
+         for( int v = shared.nextSetBit( 0 ); v >= 0; v = shared.nextSetBit( v + 1 ) ) {
+            _vertexProperties[v] = _vertexProperties[v].clone();
+         }
+         _sharedVertexProperties = null;
+      }
+      if( _sharedEdgeProperties != null ) {
+         final IntBitSet shared = _sharedEdgeProperties;
+         for( int id = shared.nextSetBit( 0 ); id >= 0; id = shared.nextSetBit( id + 1 ) ) {
+            _edgeProperties[id] = _edgeProperties[id].clone();
+         }
+         _sharedEdgeProperties = null;
+      }
+   }
+
+   /**
+    * Returns the memory held by this graph including the arrays of properties.
+    * The property objects themselves are not included since their size
+    * depends on the type; unused slots of the arrays are wasted.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = super.memoryFootprint();
+      report.add( propertiesFootprint( "vertex properties", _vertexProperties ) );
+      report.add( propertiesFootprint( "edge properties", _edgeProperties ) );
+      if( _sharedVertexProperties != null ) {
+         report.add( "shared vertex properties", _sharedVertexProperties.memoryFootprint() );
+      }
+      if( _sharedEdgeProperties != null ) {
+         report.add( "shared edge properties", _sharedEdgeProperties.memoryFootprint() );
+      }
+      return report;
+   }
+
+   private static MemoryReport propertiesFootprint( final String name, final BasicProperties[] properties ) {
+      int unused = 0;
+      for( final BasicProperties p : properties ) {
+         if( p == null ) {
+            ++unused;
+         }
+      }
+      return new MemoryReport( name, MemoryReport.arrayBytes( properties.length, MemoryReport.REFERENCE ),
+               (long) unused * MemoryReport.REFERENCE );
+   }
+
+   /**
+    * Returns the sub graph induced by {@code vertices} as a view sharing the
+    * properties of this graph, nothing is copied or cloned.
+    */
+   @Override
+   public SubGraphWithPropertiesView<V, E> subGraphView( final IntSet vertices ) {
+      return new SubGraphWithPropertiesView<V, E>( this, vertices );
+   }
+
+   @Override
+   protected DiGraph newSubGraph() {
+      final DiGraphWithProperties<V, E> subGraph =
+            new DiGraphWithProperties<V, E>( _vertexPropertiesFactory, _edgePropertiesFactory );
+      // the sub graph ids are allocated from 0, thus they are below the edges count of this graph
+      subGraph._sharedVertexProperties = new IntBitSet( verticesCount() );
+      subGraph._sharedEdgeProperties = new IntBitSet( edgesCount() );
+      return subGraph;
+   }
+
    @SuppressWarnings( "unchecked" )
    @Override
    protected AdjacencyWithProperties<E> createAdjacency( DiGraph ownerGraph, int owner ) {
+      if( ownerGraph.isSparse() ) {
+         return new IntHashSetAdjacencyWithProperties( (DiGraphWithProperties<V,E>) ownerGraph, owner, 0 );
+      }
       return new IntSetAdjacencyWithProperties( (DiGraphWithProperties<V,E>) ownerGraph, owner );
    }
-   
+
    @SuppressWarnings( "unchecked" )
    @Override
    protected AdjacencyWithProperties<E> createAdjacency( DiGraph ownerGraph, int owner, int initialCapacity ) {
+      if( ownerGraph.isSparse() ) {
+         return new IntHashSetAdjacencyWithProperties( (DiGraphWithProperties<V,E>) ownerGraph, owner, initialCapacity );
+      }
       return new IntSetAdjacencyWithProperties( (DiGraphWithProperties<V,E>) ownerGraph, owner, initialCapacity );
    }
-   
+
    @Override
    protected void buildInducedAdjacency( final IntSet vertices, final Adjacency originalAdjacency,
             final Adjacency newAdjacency ) {
-      
+
       super.buildInducedAdjacency( vertices, originalAdjacency, newAdjacency );
-      
-      @SuppressWarnings("unchecked")
-      final IntSetAdjacencyWithProperties origAdj = (DiGraphWithProperties<V,E>.IntSetAdjacencyWithProperties) originalAdjacency;
+
       @SuppressWarnings("unchecked")
-      final IntSetAdjacencyWithProperties newAdj = (DiGraphWithProperties<V,E>.IntSetAdjacencyWithProperties) newAdjacency;
-      
-      final int offset = getEdgePropertiesIdx( newAdj, 0 );
-      final BasicProperties[] newGraphEdgeProperties = newAdj._ownerGraph._edgeProperties;
-      
-      for( int i=0; i<newAdj.size(); i++ ) {
-         final int v = newAdj.get( i );
-         
-         final BasicProperties edgeProps = origAdj.getEdgeProperties( v );
+      final DiGraphWithProperties<V,E> newGraph = (DiGraphWithProperties<V,E>) newAdjacency.ownerGraph();
+
+      for( final IntIterator iter = newAdjacency.intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+
+         // the ids of the copied edges are new, the existing properties are looked up by the old id
+         final BasicProperties edgeProps = peekEdgeProperties( originalAdjacency.edgeId( v ) );
          if( edgeProps != null ) {
-            newGraphEdgeProperties[offset+v] = edgeProps.clone();
+            final int id = newAdjacency.edgeId( v );
+            newGraph.ensureEdgeProperties( id );
+            newGraph._edgeProperties[ id ] = edgeProps;
+            newGraph._sharedEdgeProperties.add( id );
          }
       }
    }
-   
-   private int getEdgePropertiesIdx( final int source, final int dest ) {
-      return source * verticesCount() + dest;
+
+   /** Drops the properties of the removed edge, its id may be reused. */
+   @Override
+   void edgeRemoved( final int source, final int dest, final int id ) {
+      super.edgeRemoved( source, dest, id );
+      if( id < _edgeProperties.length ) {
+         _edgeProperties[ id ] = null;
+      }
+      if( _sharedEdgeProperties != null ) {
+         _sharedEdgeProperties.remove( id );
+      }
+   }
+
+   private void ensureEdgeProperties( final int id ) {
+      if( id >= _edgeProperties.length ) {
+         final int length = _edgeProperties.length;
+         _edgeProperties = Arrays.copyOf( _edgeProperties, Math.max( Math.max( edgeIdBound(), id + 1 ), length + ( length >> 1 ) ) );
+      }
    }
-   
-   private int getEdgePropertiesIdx( final AdjacencyWithProperties<E> adj, final int v ) {
-      return getEdgePropertiesIdx( adj.owner(), v );
+
+   /** Returns the properties of the edge with the given id without creating them. */
+   private BasicProperties peekEdgeProperties( final int id ) {
+      return id >= 0 && id < _edgeProperties.length ? _edgeProperties[ id ] : null;
    }
 }
@@ -0,0 +1,62 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.Arrays;
+
+import dev.costin.fastcollections.tools.MemoryReport;
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
+
+/**
+ * Allocator of edge ids. Ids of removed edges are reused, most recently freed
+ * first, so the ids stay dense.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+final class EdgeIdAllocator {
+
+   private static final int[] EMPTY = {};
+
+   private int   _bound;
+   private int[] _free = EMPTY;
+   private int   _freeCount;
+
+   EdgeIdAllocator() {
+   }
+
+   /** Creates an allocator with the ids {@code 0..bound-1} in use. */
+   EdgeIdAllocator( final int bound ) {
+      _bound = bound;
+   }
+
+   int allocate() {
+      if( _freeCount > 0 ) {
+         return _free[--_freeCount];
+      }
+      return _bound++;
+   }
+
+   void release( final int id ) {
+      if( _freeCount == _free.length ) {
+         _free = Arrays.copyOf( _free, Math.max( 8, _free.length * 2 ) );
+      }
+      _free[_freeCount++] = id;
+   }
+
+   int bound() {
+      return _bound;
+   }
+
+   MemoryReport memoryFootprint() {
+      return new MemoryReport( "free edge ids", MemoryReport.arrayBytes( _free.length, 4 ),
+               ( _free.length - (long) _freeCount ) * 4 );
+   }
+
+   /** Creates edge columns for the ids below the bound, the free ids are released. */
+   PropertyColumns newColumns() {
+      final PropertyColumns columns = new PropertyColumns( _bound );
+      for( int i = 0; i < _freeCount; i++ ) {
+         columns.release( _free[i] );
+      }
+      return columns;
+   }
+}
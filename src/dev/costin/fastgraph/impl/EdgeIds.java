@@ -0,0 +1,44 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.Arrays;
+
+import dev.costin.fastcollections.tools.MemoryReport;
+
+/**
+ * The edge ids of an adjacency, stored parallel to the internal list of the
+ * adjacency set: the id at position {@code i} belongs to the edge to the
+ * {@code i}-th element of the list.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+final class EdgeIds {
+
+   private static final int[] EMPTY = {};
+
+   private int[] _ids = EMPTY;
+
+   int get( final int position ) {
+      return _ids[position];
+   }
+
+   void set( final int position, final int id ) {
+      if( position >= _ids.length ) {
+         _ids = Arrays.copyOf( _ids, Math.max( position + 1, _ids.length + ( _ids.length >> 1 ) + 1 ) );
+      }
+      _ids[position] = id;
+   }
+
+   /**
+    * Mirrors the removal of the element at {@code position} from the set
+    * which moves the element at {@code last} into the gap.
+    */
+   void remove( final int position, final int last ) {
+      _ids[position] = _ids[last];
+   }
+
+   /** Returns the memory of the ids of an adjacency with {@code size} elements. */
+   MemoryReport memoryFootprint( final int size ) {
+      return new MemoryReport( "edge ids", MemoryReport.arrayBytes( _ids.length, 4 ), ( _ids.length - (long) size ) * 4 );
+   }
+}
@@ -0,0 +1,387 @@
+package dev.costin.fastgraph.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.properties.ColumnType;
+
+/**
+ * An immutable directed graph read directly from a memory mapped file.
+ *
+ * <p>
+ * Opening the graph only reads the header and the column table; offsets,
+ * targets and property columns are paged in by the operating system on first
+ * access. Files are written by
+ * {@link dev.costin.fastgraph.tools.BinaryGraphWriter}.
+ * </p>
+ *
+ * <p>
+ * The file format, all numbers in little endian byte order:
+ * </p>
+ *
+ * <pre>
+ * header (64 bytes)
+ *    long  magic        {@link #MAGIC}
+ *    int   version      {@link #VERSION}
+ *    int   n            vertices count
+ *    long  m            edges count
+ *    int   c            columns count
+ *    int   reserved
+ *    long  position of the offsets section
+ *    long  position of the targets section
+ *    long  position of the in-degrees section
+ *    long  position of the column table
+ * offsets     (n+1) ints, the targets of v are at [offsets[v], offsets[v+1])
+ * targets     m ints, sorted ascending per vertex
+ * in-degrees  n ints
+ * column table, for each column:
+ *    byte  kind         {@link #VERTEX_COLUMN} or {@link #EDGE_COLUMN}
+ *    byte  type         {@link ColumnType#code()}
+ *    short length of the name in bytes
+ *    bytes name (UTF-8), padded with zeros to a multiple of 8
+ *    long  position of the column data
+ * column data, n (vertex columns) or m (edge columns) values each
+ * </pre>
+ *
+ * <p>
+ * All sections start at a multiple of 8. Edge columns are indexed by the
+ * position of the edge within the targets section.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class MappedDiGraph implements Graph {
+
+   /** The first 8 bytes of every file, {@code "FGRAPH"} followed by two zeros. */
+   public static final long      MAGIC         = 0x0000485041524746L;
+   public static final int       VERSION       = 1;
+   public static final int       HEADER_SIZE   = 64;
+   public static final byte      VERTEX_COLUMN = 0;
+   public static final byte      EDGE_COLUMN   = 1;
+   public static final ByteOrder BYTE_ORDER    = ByteOrder.LITTLE_ENDIAN;
+   public static final Charset   NAME_CHARSET  = Charset.forName( "UTF-8" );
+
+   private final int         _verticesCount;
+   private final int         _edgesCount;
+   private final MappedInts  _offsets;
+   private final MappedInts  _targets;
+   private final MappedInts  _inDegree;
+
+   private final Map<String, ByteBuffer> _vertexColumns;
+   private final Map<String, ByteBuffer> _edgeColumns;
+   private final Map<String, ColumnType> _vertexColumnTypes;
+   private final Map<String, ColumnType> _edgeColumnTypes;
+
+   public class MappedAdjacency extends ReadOnlyAdjacency {
+
+      private final int _owner;
+      private final int _begin;
+      private final int _end;
+
+      protected MappedAdjacency( final int owner ) {
+         _owner = owner;
+         _begin = _offsets.get( owner );
+         _end = _offsets.get( owner + 1 );
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return MappedDiGraph.this;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int size() {
+         return _end - _begin;
+      }
+
+      @Override
+      public boolean contains( int value ) {
+         return _targets.binarySearch( _begin, _end, value ) >= 0;
+      }
+
+      @Override
+      public IntIterator intIterator() {
+         return new MappedIterator( _begin, _end );
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         final int i = _targets.binarySearch( _begin, _end, vertex );
+         return i < 0 ? -1 : i;
+      }
+   }
+
+   private class MappedIterator implements IntIterator {
+
+      private final int _end;
+      private int       _next;
+
+      MappedIterator( final int begin, final int end ) {
+         _next = begin;
+         _end = end;
+      }
+
+      @Override
+      public int nextInt() {
+         if( _next >= _end ) {
+            throw new java.util.NoSuchElementException();
+         }
+         return _targets.get( _next++ );
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next < _end;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   private MappedDiGraph( final FileChannel channel ) throws IOException {
+      final ByteBuffer header = channel.map( FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE ).order( BYTE_ORDER );
+
+      if( header.getLong( 0 ) != MAGIC ) {
+         throw new IOException( "Not a graph file!" );
+      }
+      if( header.getInt( 8 ) != VERSION ) {
+         throw new IOException( "Unsupported graph file version " + header.getInt( 8 ) + "!" );
+      }
+
+      _verticesCount = header.getInt( 12 );
+      final long m = header.getLong( 16 );
+      if( m > Integer.MAX_VALUE ) {
+         throw new IOException( "Too many edges: " + m );
+      }
+      _edgesCount = (int) m;
+      final int columnsCount = header.getInt( 24 );
+
+      _offsets = new MappedInts( channel, header.getLong( 32 ), _verticesCount + 1, BYTE_ORDER );
+      _targets = new MappedInts( channel, header.getLong( 40 ), _edgesCount, BYTE_ORDER );
+      _inDegree = new MappedInts( channel, header.getLong( 48 ), _verticesCount, BYTE_ORDER );
+
+      _vertexColumns = new HashMap<String, ByteBuffer>();
+      _edgeColumns = new HashMap<String, ByteBuffer>();
+      _vertexColumnTypes = new HashMap<String, ColumnType>();
+      _edgeColumnTypes = new HashMap<String, ColumnType>();
+
+      long pos = header.getLong( 56 );
+      final ByteBuffer entry = ByteBuffer.allocate( 4 ).order( BYTE_ORDER );
+
+      for( int c = 0; c < columnsCount; c++ ) {
+         entry.clear();
+         readFully( channel, entry, pos );
+         final byte kind = entry.get( 0 );
+         final ColumnType type = ColumnType.forCode( entry.get( 1 ) );
+         final int nameLength = entry.getShort( 2 ) & 0xFFFF;
+         pos += 4;
+
+         final ByteBuffer nameBytes = ByteBuffer.allocate( nameLength );
+         readFully( channel, nameBytes, pos );
+         final String name = new String( nameBytes.array(), NAME_CHARSET );
+         pos += align8( 4 + nameLength ) - 4;
+
+         final ByteBuffer dataPos = ByteBuffer.allocate( 8 ).order( BYTE_ORDER );
+         readFully( channel, dataPos, pos );
+         pos += 8;
+
+         final long count = kind == VERTEX_COLUMN ? _verticesCount : _edgesCount;
+         final long size = count * type.width();
+         if( size > Integer.MAX_VALUE ) {
+            throw new IOException( "Column " + name + " is too large to be mapped!" );
+         }
+         final ByteBuffer data = channel.map( FileChannel.MapMode.READ_ONLY, dataPos.getLong( 0 ), size )
+                                        .order( BYTE_ORDER );
+
+         if( kind == VERTEX_COLUMN ) {
+            _vertexColumns.put( name, data );
+            _vertexColumnTypes.put( name, type );
+         }
+         else {
+            _edgeColumns.put( name, data );
+            _edgeColumnTypes.put( name, type );
+         }
+      }
+   }
+
+   /**
+    * Maps the graph stored in {@code file}. The file must not be modified
+    * while the graph is in use.
+    *
+    * @throws IOException
+    *            If the file cannot be read or is not a graph file.
+    */
+   public static MappedDiGraph open( final File file ) throws IOException {
+      final RandomAccessFile raf = new RandomAccessFile( file, "r" );
+      try {
+         // the mappings stay valid after the channel has been closed
+         return new MappedDiGraph( raf.getChannel() );
+      }
+      finally {
+         raf.close();
+      }
+   }
+
+   public static long align8( final long position ) {
+      return ( position + 7 ) & ~7L;
+   }
+
+   private static void readFully( final FileChannel channel, final ByteBuffer buffer, long position )
+         throws IOException {
+      while( buffer.hasRemaining() ) {
+         final int read = channel.read( buffer, position );
+         if( read < 0 ) {
+            throw new IOException( "Unexpected end of graph file!" );
+         }
+         position += read;
+      }
+   }
+
+   @Override
+   public int verticesCount() {
+      return _verticesCount;
+   }
+
+   @Override
+   public int edgesCount() {
+      return _edgesCount;
+   }
+
+   @Override
+   public MappedAdjacency adjacencyOf( int vertex ) {
+      return new MappedAdjacency( vertex );
+   }
+
+   @Override
+   public boolean hasEdge( int source, int dest ) {
+      return _targets.binarySearch( _offsets.get( source ), _offsets.get( source + 1 ), dest ) >= 0;
+   }
+
+   /** Returns the slot of the edge in the target array, found by binary search. */
+   @Override
+   public int edgeId( int source, int dest ) {
+      final int i = _targets.binarySearch( _offsets.get( source ), _offsets.get( source + 1 ), dest );
+      return i < 0 ? -1 : i;
+   }
+
+   @Override
+   public int edgeIdBound() {
+      return _edgesCount;
+   }
+
+   @Override
+   public boolean addEdge( int source, int dest ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean removeEdge( int source, int dest ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public int getOutDegree( int vertex ) {
+      return _offsets.get( vertex + 1 ) - _offsets.get( vertex );
+   }
+
+   @Override
+   public int getInDegree( int vertex ) {
+      return _inDegree.get( vertex );
+   }
+
+   /**
+    * Returns the predecessors of {@code vertex}. The file has no reverse
+    * index, thus every vertex is checked which costs {@code O(n log d)}.
+    */
+   @Override
+   public IntSet predecessorsOf( int vertex ) {
+      final IntHashSet predecessors = new IntHashSet( getInDegree( vertex ) );
+      for( int u = 0; u < _verticesCount && predecessors.size() < getInDegree( vertex ); u++ ) {
+         if( hasEdge( u, vertex ) ) {
+            predecessors.add( u );
+         }
+      }
+      return predecessors;
+   }
+
+   @Override
+   public boolean isDirected() {
+      return true;
+   }
+
+   /**
+    * Returns the induced sub graph as a heap based {@link CompactDiGraph}.
+    */
+   @Override
+   public CompactDiGraph subGraph( IntSet vertices ) {
+      return new CompactDiGraph( this ).subGraph( vertices );
+   }
+
+   /**
+    * Index into the targets at which the adjacent vertices of {@code vertex}
+    * begin, the same index is used for edge columns.
+    */
+   public int edgesBegin( final int vertex ) {
+      return _offsets.get( vertex );
+   }
+
+   /** Index into the targets at which the adjacent vertices of {@code vertex} end (exclusive). */
+   public int edgesEnd( final int vertex ) {
+      return _offsets.get( vertex + 1 );
+   }
+
+   /** Returns the target vertex stored at {@code index}. */
+   public int targetAt( final int index ) {
+      return _targets.get( index );
+   }
+
+   /**
+    * Returns a read-only view of the vertex column with the given name or
+    * {@code null} if there is no such column. The buffer uses
+    * {@link #BYTE_ORDER}, use e.g. {@link ByteBuffer#getInt(int)} with
+    * {@code vertex * 4} to read a value of an {@link ColumnType#INT} column.
+    */
+   public ByteBuffer vertexColumn( final String name ) {
+      final ByteBuffer column = _vertexColumns.get( name );
+      return column == null ? null : column.asReadOnlyBuffer().order( BYTE_ORDER );
+   }
+
+   /** Returns the type of the vertex column or {@code null} if there is no such column. */
+   public ColumnType vertexColumnType( final String name ) {
+      return _vertexColumnTypes.get( name );
+   }
+
+   /**
+    * Returns a read-only view of the edge column with the given name or
+    * {@code null} if there is no such column. The values are indexed like the
+    * targets, see {@link #edgesBegin(int)}.
+    */
+   public ByteBuffer edgeColumn( final String name ) {
+      final ByteBuffer column = _edgeColumns.get( name );
+      return column == null ? null : column.asReadOnlyBuffer().order( BYTE_ORDER );
+   }
+
+   /** Returns the type of the edge column or {@code null} if there is no such column. */
+   public ColumnType edgeColumnType( final String name ) {
+      return _edgeColumnTypes.get( name );
+   }
+}
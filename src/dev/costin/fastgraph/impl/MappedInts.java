@@ -0,0 +1,73 @@
+package dev.costin.fastgraph.impl;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only {@code int} array backed by a memory mapped region of a file.
+ *
+ * <p>
+ * A single {@link java.nio.MappedByteBuffer} is limited to 2 GB, thus the
+ * region is mapped in segments of {@code 2^28} ints.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+final class MappedInts {
+
+   private static final int SEGMENT_SHIFT = 28;
+   private static final int SEGMENT_SIZE  = 1 << SEGMENT_SHIFT;
+   private static final int SEGMENT_MASK  = SEGMENT_SIZE - 1;
+
+   private final IntBuffer[] _segments;
+   private final int         _length;
+
+   MappedInts( final FileChannel channel, final long position, final int length, final ByteOrder order )
+         throws IOException {
+      _length = length;
+      _segments = new IntBuffer[(int) ( ( (long) length + SEGMENT_SIZE - 1 ) >>> SEGMENT_SHIFT )];
+
+      for( int s = 0; s < _segments.length; s++ ) {
+         final int count = Math.min( SEGMENT_SIZE, length - ( s << SEGMENT_SHIFT ) );
+         _segments[s] = channel.map( FileChannel.MapMode.READ_ONLY,
+                                     position + ( (long) s << ( SEGMENT_SHIFT + 2 ) ),
+                                     (long) count << 2 ).order( order ).asIntBuffer();
+      }
+   }
+
+   int length() {
+      return _length;
+   }
+
+   int get( final int index ) {
+      return _segments[index >>> SEGMENT_SHIFT].get( index & SEGMENT_MASK );
+   }
+
+   /**
+    * Binary search for {@code key} within the sorted range
+    * {@code [from,to)}.
+    *
+    * @return The index of the key or {@code -1} if not found.
+    */
+   int binarySearch( int from, int to, final int key ) {
+      --to;
+      while( from <= to ) {
+         final int mid = ( from + to ) >>> 1;
+         final int value = get( mid );
+
+         if( value < key ) {
+            from = mid + 1;
+         }
+         else if( value > key ) {
+            to = mid - 1;
+         }
+         else {
+            return mid;
+         }
+      }
+      return -1;
+   }
+}
@@ -0,0 +1,99 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.Iterator;
+
+import dev.costin.fastcollections.IntCollection;
+import dev.costin.fastcollections.IntCursor;
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastgraph.Adjacency;
+
+/**
+ * Base class for the adjacencies of immutable graphs.
+ *
+ * <p>
+ * All modifying operations throw an {@link UnsupportedOperationException}.
+ * Subclasses only need to provide {@link #size()}, {@link #contains(int)}
+ * and {@link #intIterator()}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+abstract class ReadOnlyAdjacency implements Adjacency {
+
+   protected static class CursorIterator implements Iterator<IntCursor>, IntCursor {
+
+      private final IntIterator _iter;
+      private int               _value;
+
+      CursorIterator( final IntIterator iter ) {
+         _iter = iter;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _iter.hasNext();
+      }
+
+      @Override
+      public IntCursor next() {
+         _value = _iter.nextInt();
+         return this;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int value() {
+         return _value;
+      }
+   }
+
+   @Override
+   public boolean add( int value ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean addAll( IntCollection elements ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean addAll( int... elements ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean remove( int value ) {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public void clear() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return size() == 0;
+   }
+
+   @Override
+   public boolean containsAll( IntCollection c ) {
+      for( final IntIterator iter = c.intIterator(); iter.hasNext(); ) {
+         if( !contains( iter.nextInt() ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public Iterator<IntCursor> iterator() {
+      return new CursorIterator( intIterator() );
+   }
+}
@@ -0,0 +1,39 @@
+package dev.costin.fastgraph.impl;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastgraph.Graph;
+
+/**
+ * The sub graph induced by a set of vertices as a view on the parent graph.
+ *
+ * <p>
+ * Unlike {@link Graph#subGraph(IntSet)} nothing is copied, creating the view
+ * costs {@code O(1)}. Every access filters the adjacencies of the parent graph
+ * through {@link IntSet#contains(int)} of the vertex set, see
+ * {@link VertexFilteredGraph}. The vertex ids are kept and vertices not in the
+ * set have no edges. Changes of the parent graph and the vertex set are
+ * visible immediately.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class SubGraphView extends VertexFilteredGraph {
+
+   private final IntSet _vertices;
+
+   public SubGraphView( final Graph graph, final IntSet vertices ) {
+      super( graph );
+      _vertices = vertices;
+   }
+
+   @Override
+   protected boolean accepts( final int vertex ) {
+      return _vertices.contains( vertex );
+   }
+
+   /** Returns the set of vertices inducing this sub graph. */
+   public IntSet vertices() {
+      return _vertices;
+   }
+}
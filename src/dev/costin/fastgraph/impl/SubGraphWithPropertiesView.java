@@ -0,0 +1,64 @@
+package dev.costin.fastgraph.impl;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastgraph.Adjacency;
+import dev.costin.fastgraph.AdjacencyWithProperties;
+import dev.costin.fastgraph.GraphWithProperties;
+import dev.costin.fastgraph.properties.BasicProperties;
+
+/**
+ * A {@link SubGraphView} on a graph with properties. The properties are those
+ * of the parent graph, they are neither copied nor cloned.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class SubGraphWithPropertiesView<V extends BasicProperties, E extends BasicProperties> extends SubGraphView
+      implements GraphWithProperties<V, E> {
+
+   private final GraphWithProperties<V, E> _parent;
+
+   public class FilteredAdjacencyWithProperties extends FilteredAdjacency implements AdjacencyWithProperties<E> {
+
+      protected FilteredAdjacencyWithProperties( final int owner, final Adjacency adjacency ) {
+         super( owner, adjacency );
+      }
+
+      @Override
+      public E getEdgeProperties( final int adjacentVertex ) {
+         return SubGraphWithPropertiesView.this.getEdgeProperties( owner(), adjacentVertex );
+      }
+   }
+
+   public SubGraphWithPropertiesView( final GraphWithProperties<V, E> graph, final IntSet vertices ) {
+      super( graph, vertices );
+      _parent = graph;
+   }
+
+   @Override
+   public FilteredAdjacencyWithProperties adjacencyOf( int vertex ) {
+      return new FilteredAdjacencyWithProperties( vertex, sourceAdjacencyOf( vertex ) );
+   }
+
+   /**
+    * Returns the properties of the vertex in the parent graph.
+    *
+    * @throws IllegalStateException
+    *            If the vertex is hidden.
+    */
+   @Override
+   public V getVertexProperties( int vertex ) {
+      checkAccepted( vertex );
+      return _parent.getVertexProperties( vertex );
+   }
+
+   /**
+    * Returns the properties of the edge in the parent graph or {@code null} if
+    * there is no such edge in this view, i.e. also if one of the vertices is
+    * hidden.
+    */
+   @Override
+   public E getEdgeProperties( int source, int dest ) {
+      return accepts( source ) && accepts( dest ) ? _parent.getEdgeProperties( source, dest ) : null;
+   }
+}
@@ -0,0 +1,409 @@
+package dev.costin.fastgraph.impl;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntGrowingSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+import dev.costin.fastgraph.Adjacency;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.GraphWithColumns;
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
+
+/**
+ * An undirected graph.
+ *
+ * <p>
+ * Every edge {@code {u,v}} is stored symmetrically in the adjacencies of both
+ * end points, so {@link #adjacencyOf(int)} returns all neighbors and the
+ * algorithms written for directed graphs can iterate it unchanged. Adding or
+ * removing a vertex to/from an adjacency, directly or through
+ * {@link #addEdge(int, int)}, always updates both sides.
+ * </p>
+ *
+ * <p>
+ * {@link #edgesCount()} counts every edge once. The in and out degree of a
+ * vertex are both its number of neighbors. A self loop {@code {v,v}} is stored
+ * once and counts one to the degree of {@code v}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class UndiGraph implements GraphWithColumns, MemoryMeasurable {
+
+   private final Adjacency[] _graph;
+   private final boolean     _sparse;
+   private int               _edgesCount;
+
+   private final EdgeIdAllocator _edgeIdAllocator = new EdgeIdAllocator();
+   private PropertyColumns       _vertexColumns;
+   private PropertyColumns       _edgeColumns;
+
+   /**
+    * Dense adjacency reserving space for all vertices of the graph, see
+    * {@link DiGraph.IntSetAdjacency}.
+    */
+   public static class SymmetricAdjacency extends IntGrowingSet implements Adjacency {
+
+      private final UndiGraph _ownerGraph;
+      private final int       _owner;
+      private final EdgeIds   _edgeIds = new EdgeIds();
+
+      protected SymmetricAdjacency( final UndiGraph ownerGraph, final int owner ) {
+         super( 0, ownerGraph.verticesCount() - 1, ownerGraph.verticesCount() );
+         _ownerGraph = ownerGraph;
+         _owner = owner;
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return _ownerGraph;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         final int i = indexOf( vertex );
+         return i < 0 ? -1 : _edgeIds.get( i );
+      }
+
+      @Override
+      public MemoryReport memoryFootprint() {
+         return super.memoryFootprint().add( _edgeIds.memoryFootprint( size() ) );
+      }
+
+      /** Adds {@code vertex} to this side only. */
+      void insert( final int vertex, final int id ) {
+         super.add( vertex );
+         _edgeIds.set( size() - 1, id );
+      }
+
+      /** Removes {@code vertex} from this side only. */
+      void delete( final int vertex ) {
+         final int i = indexOf( vertex );
+         super.remove( vertex );
+         _edgeIds.remove( i, size() );
+      }
+
+      @Override
+      public boolean add( int vertex ) {
+         if( vertex < 0 || vertex >= _ownerGraph.verticesCount() ) {
+            throw new IndexOutOfBoundsException( "Vertex " + vertex + " is not part of the graph!" );
+         }
+         if( super.add( vertex ) ) {
+            _edgeIds.set( size() - 1, _ownerGraph.edgeAdded( _owner, vertex ) );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public boolean remove( int vertex ) {
+         final int i = indexOf( vertex );
+         if( i >= 0 ) {
+            final int id = _edgeIds.get( i );
+            super.remove( vertex );
+            _edgeIds.remove( i, size() );
+            _ownerGraph.edgeRemoved( _owner, vertex, id );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public void clear() {
+         while( size() > 0 ) {
+            remove( get( size() - 1 ) );
+         }
+      }
+   }
+
+   /**
+    * Hash based adjacency for sparse graphs, see
+    * {@link DiGraph.IntHashSetAdjacency}.
+    */
+   public static class SymmetricHashAdjacency extends IntHashSet implements Adjacency {
+
+      private final UndiGraph _ownerGraph;
+      private final int       _owner;
+      private final EdgeIds   _edgeIds = new EdgeIds();
+
+      protected SymmetricHashAdjacency( final UndiGraph ownerGraph, final int owner ) {
+         super( 0 );
+         _ownerGraph = ownerGraph;
+         _owner = owner;
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return _ownerGraph;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         final int i = indexOf( vertex );
+         return i < 0 ? -1 : _edgeIds.get( i );
+      }
+
+      @Override
+      public MemoryReport memoryFootprint() {
+         return super.memoryFootprint().add( _edgeIds.memoryFootprint( size() ) );
+      }
+
+      /** Adds {@code vertex} to this side only. */
+      void insert( final int vertex, final int id ) {
+         super.add( vertex );
+         _edgeIds.set( size() - 1, id );
+      }
+
+      /** Removes {@code vertex} from this side only. */
+      void delete( final int vertex ) {
+         final int i = indexOf( vertex );
+         super.remove( vertex );
+         _edgeIds.remove( i, size() );
+      }
+
+      @Override
+      public boolean add( int vertex ) {
+         if( vertex < 0 || vertex >= _ownerGraph.verticesCount() ) {
+            throw new IndexOutOfBoundsException( "Vertex " + vertex + " is not part of the graph!" );
+         }
+         if( super.add( vertex ) ) {
+            _edgeIds.set( size() - 1, _ownerGraph.edgeAdded( _owner, vertex ) );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public boolean remove( int vertex ) {
+         final int i = indexOf( vertex );
+         if( i >= 0 ) {
+            final int id = _edgeIds.get( i );
+            super.remove( vertex );
+            _edgeIds.remove( i, size() );
+            _ownerGraph.edgeRemoved( _owner, vertex, id );
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public void clear() {
+         while( size() > 0 ) {
+            remove( get( size() - 1 ) );
+         }
+      }
+   }
+
+   public UndiGraph( final int n ) {
+      this( n, false );
+   }
+
+   /**
+    * Creates a graph with {@code n} vertices.
+    *
+    * @param sparse
+    *           If {@code true} the adjacencies are hash based, see
+    *           {@link DiGraph#DiGraph(int, boolean)}.
+    */
+   public UndiGraph( final int n, final boolean sparse ) {
+      _sparse = sparse;
+      _graph = new Adjacency[n];
+      for( int i = 0; i < n; i++ ) {
+         _graph[i] = sparse ? new SymmetricHashAdjacency( this, i ) : new SymmetricAdjacency( this, i );
+      }
+      _edgesCount = 0;
+   }
+
+   @Override
+   public int verticesCount() {
+      return _graph.length;
+   }
+
+   /** Returns the number of edges, every undirected edge is counted once. */
+   @Override
+   public int edgesCount() {
+      return _edgesCount;
+   }
+
+   @Override
+   public Adjacency adjacencyOf( int vertex ) {
+      return _graph[vertex];
+   }
+
+   @Override
+   public boolean hasEdge( int source, int dest ) {
+      return _graph[source].contains( dest );
+   }
+
+   @Override
+   public boolean addEdge( int source, int dest ) {
+      return _graph[source].add( dest );
+   }
+
+   @Override
+   public boolean removeEdge( int source, int dest ) {
+      return _graph[source].remove( dest );
+   }
+
+   /** Returns the number of neighbors of {@code vertex}. */
+   @Override
+   public int getOutDegree( int vertex ) {
+      return _graph[vertex].size();
+   }
+
+   /** Returns the number of neighbors of {@code vertex}. */
+   @Override
+   public int getInDegree( int vertex ) {
+      return _graph[vertex].size();
+   }
+
+   /** Returns the neighbors of {@code vertex}, i.e. its adjacency. */
+   @Override
+   public IntSet predecessorsOf( int vertex ) {
+      return _graph[vertex];
+   }
+
+   @Override
+   public boolean isDirected() {
+      return false;
+   }
+
+   /** Returns the id of the edge, which is the same for both directions. */
+   @Override
+   public int edgeId( int source, int dest ) {
+      return _graph[source].edgeId( dest );
+   }
+
+   @Override
+   public int edgeIdBound() {
+      return _edgeIdAllocator.bound();
+   }
+
+   /** Returns the vertex property columns, created on first use. */
+   @Override
+   public PropertyColumns vertexColumns() {
+      if( _vertexColumns == null ) {
+         _vertexColumns = new PropertyColumns( _graph.length );
+      }
+      return _vertexColumns;
+   }
+
+   /**
+    * Returns the edge property columns, created on first use. Both directions
+    * of an edge share the values.
+    */
+   @Override
+   public PropertyColumns edgeColumns() {
+      if( _edgeColumns == null ) {
+         _edgeColumns = _edgeIdAllocator.newColumns();
+      }
+      return _edgeColumns;
+   }
+
+   /**
+    * Returns the memory held by this graph, see {@link DiGraph#memoryFootprint()}.
+    * Every edge is stored in both adjacencies.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName(),
+               MemoryReport.objectBytes( 4 * MemoryReport.REFERENCE + 4 + 1 ), 0 );
+      report.add( DiGraph.adjacenciesFootprint( _graph, _graph.length ) );
+      report.add( _edgeIdAllocator.memoryFootprint() );
+      if( _vertexColumns != null ) {
+         report.add( "vertex columns", _vertexColumns.memoryFootprint() );
+      }
+      if( _edgeColumns != null ) {
+         report.add( "edge columns", _edgeColumns.memoryFootprint() );
+      }
+      return report;
+   }
+
+   @Override
+   public UndiGraph subGraph( IntSet vertices ) {
+      final UndiGraph subGraph = new UndiGraph( _graph.length, _sparse );
+
+      for( final IntIterator uIter = vertices.intIterator(); uIter.hasNext(); ) {
+         final int u = uIter.nextInt();
+         for( final IntIterator vIter = _graph[u].intIterator(); vIter.hasNext(); ) {
+            final int v = vIter.nextInt();
+            // every edge is seen from both sides, add it from the smaller one
+            if( u <= v && vertices.contains( v ) ) {
+               subGraph.addEdge( u, v );
+            }
+         }
+      }
+
+      return subGraph;
+   }
+
+   /**
+    * Returns {@code true} if this graph uses hash based adjacencies.
+    *
+    * @see #UndiGraph(int, boolean)
+    */
+   public boolean isSparse() {
+      return _sparse;
+   }
+
+   /**
+    * Called by the adjacency of {@code source} after {@code dest} has been
+    * added.
+    *
+    * @return The id of the new edge.
+    */
+   int edgeAdded( final int source, final int dest ) {
+      final int id = _edgeIdAllocator.allocate();
+      if( _edgeColumns != null ) {
+         _edgeColumns.reset( id );
+      }
+      if( source != dest ) {
+         insert( _graph[dest], source, id );
+      }
+      ++_edgesCount;
+      return id;
+   }
+
+   /** Called by the adjacency of {@code source} after {@code dest} has been removed. */
+   void edgeRemoved( final int source, final int dest, final int id ) {
+      if( source != dest ) {
+         delete( _graph[dest], source );
+      }
+      --_edgesCount;
+      _edgeIdAllocator.release( id );
+      if( _edgeColumns != null ) {
+         _edgeColumns.release( id );
+      }
+   }
+
+   private static void insert( final Adjacency adj, final int vertex, final int id ) {
+      if( adj instanceof SymmetricAdjacency ) {
+         ( (SymmetricAdjacency) adj ).insert( vertex, id );
+      }
+      else {
+         ( (SymmetricHashAdjacency) adj ).insert( vertex, id );
+      }
+   }
+
+   private static void delete( final Adjacency adj, final int vertex ) {
+      if( adj instanceof SymmetricAdjacency ) {
+         ( (SymmetricAdjacency) adj ).delete( vertex );
+      }
+      else {
+         ( (SymmetricHashAdjacency) adj ).delete( vertex );
+      }
+   }
+}
@@ -0,0 +1,368 @@
+package dev.costin.fastgraph.impl;
+
+import java.util.NoSuchElementException;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastgraph.Adjacency;
+import dev.costin.fastgraph.Graph;
+
+/**
+ * Base class for views on a {@link Graph} that hide some of its vertices.
+ *
+ * <p>
+ * Nothing of the underlying graph is copied: adjacencies, degrees and
+ * {@link #hasEdge(int, int)} skip the hidden vertices on the fly, as decided
+ * by {@link #accepts(int)}. A hidden vertex keeps its id but has no edges. In
+ * exchange the degrees are counted on every call and {@link #edgesCount()}
+ * scans the whole graph.
+ * </p>
+ *
+ * <p>
+ * Edges added through the view are added to the underlying graph.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public abstract class VertexFilteredGraph implements Graph {
+
+   protected final Graph _graph;
+
+   public class FilteredAdjacency extends ReadOnlyAdjacency {
+
+      private final int       _owner;
+      private final Adjacency _adjacency;
+
+      protected FilteredAdjacency( final int owner, final Adjacency adjacency ) {
+         _owner = owner;
+         _adjacency = adjacency;
+      }
+
+      @Override
+      public Graph ownerGraph() {
+         return VertexFilteredGraph.this;
+      }
+
+      @Override
+      public int owner() {
+         return _owner;
+      }
+
+      /** Counts the visible adjacent vertices, costs {@code O(degree)}. */
+      @Override
+      public int size() {
+         if( acceptsAll() ) {
+            return _adjacency.size();
+         }
+         int size = 0;
+         for( final IntIterator iter = intIterator(); iter.hasNext(); iter.nextInt() ) {
+            ++size;
+         }
+         return size;
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return !intIterator().hasNext();
+      }
+
+      @Override
+      public boolean contains( int value ) {
+         return accepts( value ) && _adjacency.contains( value );
+      }
+
+      @Override
+      public IntIterator intIterator() {
+         return new FilteredIterator( _adjacency.intIterator() );
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         return accepts( vertex ) ? _adjacency.edgeId( vertex ) : -1;
+      }
+
+      @Override
+      public boolean add( int value ) {
+         checkAccepted( _owner );
+         checkAccepted( value );
+         return _adjacency.add( value );
+      }
+
+      @Override
+      public boolean remove( int value ) {
+         return accepts( value ) && _adjacency.remove( value );
+      }
+   }
+
+   private class FilteredIterator implements IntIterator {
+
+      private final IntIterator _iter;
+      private int               _next;
+
+      FilteredIterator( final IntIterator iter ) {
+         _iter = iter;
+         advance();
+      }
+
+      private void advance() {
+         while( _iter.hasNext() ) {
+            final int v = _iter.nextInt();
+            if( accepts( v ) ) {
+               _next = v;
+               return;
+            }
+         }
+         _next = -1;
+      }
+
+      @Override
+      public int nextInt() {
+         if( _next < 0 ) {
+            throw new NoSuchElementException();
+         }
+         final int v = _next;
+         advance();
+         return v;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next >= 0;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   protected VertexFilteredGraph( final Graph graph ) {
+      _graph = graph;
+   }
+
+   /** Returns {@code true} if {@code vertex} is visible in this view. */
+   protected abstract boolean accepts( int vertex );
+
+   /**
+    * Returns {@code true} if currently no vertex is hidden, which allows to use
+    * the counts of the underlying graph directly.
+    */
+   protected boolean acceptsAll() {
+      return false;
+   }
+
+   /** Returns the underlying graph. */
+   public Graph getGraph() {
+      return _graph;
+   }
+
+   @Override
+   public int verticesCount() {
+      return _graph.verticesCount();
+   }
+
+   /** Counts the edges between visible vertices, costs {@code O(n+m)}. */
+   @Override
+   public int edgesCount() {
+      if( acceptsAll() ) {
+         return _graph.edgesCount();
+      }
+      int count = 0;
+      for( int u = 0; u < _graph.verticesCount(); u++ ) {
+         count += getOutDegree( u );
+      }
+      // undirected graphs store every edge, except self loops, twice
+      if( !_graph.isDirected() ) {
+         int loops = 0;
+         for( int u = 0; u < _graph.verticesCount(); u++ ) {
+            if( hasEdge( u, u ) ) {
+               ++loops;
+            }
+         }
+         count = ( count - loops ) / 2 + loops;
+      }
+      return count;
+   }
+
+   /**
+    * Returns the adjacency of {@code vertex} without the hidden vertices. The
+    * adjacency of a hidden vertex is empty.
+    */
+   @Override
+   public FilteredAdjacency adjacencyOf( int vertex ) {
+      return new FilteredAdjacency( vertex, sourceAdjacencyOf( vertex ) );
+   }
+
+   /**
+    * Returns the adjacency of the underlying graph to be filtered, or an empty
+    * adjacency if {@code vertex} is hidden.
+    */
+   protected Adjacency sourceAdjacencyOf( final int vertex ) {
+      return accepts( vertex ) ? _graph.adjacencyOf( vertex ) : EmptyAdjacency.INSTANCE;
+   }
+
+   @Override
+   public boolean hasEdge( int source, int dest ) {
+      return accepts( source ) && accepts( dest ) && _graph.hasEdge( source, dest );
+   }
+
+   /** Returns the id of the edge in the underlying graph if both vertices are visible. */
+   @Override
+   public int edgeId( int source, int dest ) {
+      return accepts( source ) && accepts( dest ) ? _graph.edgeId( source, dest ) : -1;
+   }
+
+   /** Returns the bound of the underlying graph, the ids are not renumbered. */
+   @Override
+   public int edgeIdBound() {
+      return _graph.edgeIdBound();
+   }
+
+   /**
+    * Adds the edge to the underlying graph.
+    *
+    * @throws IllegalStateException
+    *            If one of the vertices is hidden.
+    */
+   @Override
+   public boolean addEdge( int source, int dest ) {
+      checkAccepted( source );
+      checkAccepted( dest );
+      return _graph.addEdge( source, dest );
+   }
+
+   @Override
+   public boolean removeEdge( int source, int dest ) {
+      return hasEdge( source, dest ) && _graph.removeEdge( source, dest );
+   }
+
+   /** Counts the visible adjacent vertices, costs {@code O(out degree)}. */
+   @Override
+   public int getOutDegree( int vertex ) {
+      return adjacencyOf( vertex ).size();
+   }
+
+   /**
+    * Counts the visible predecessors without collecting them. Costs
+    * {@code O(in degree)} if the underlying graph iterates its predecessors in
+    * that time, i.e. for undirected graphs, {@link CompactDiGraph} and
+    * {@link DiGraph} with the predecessor index. A {@link DiGraph} without the
+    * index is scanned in {@code O(n)} edge tests, for all other graphs the cost
+    * is that of {@link Graph#predecessorsOf(int)}.
+    */
+   @Override
+   public int getInDegree( int vertex ) {
+      if( acceptsAll() ) {
+         return _graph.getInDegree( vertex );
+      }
+      if( !accepts( vertex ) ) {
+         return 0;
+      }
+      if( !_graph.isDirected() ) {
+         // the predecessors are the adjacent vertices
+         return getOutDegree( vertex );
+      }
+
+      int count = 0;
+      if( _graph instanceof DiGraph && !( (DiGraph) _graph ).isPredecessorIndexEnabled() ) {
+         for( int u = 0; u < _graph.verticesCount(); u++ ) {
+            if( accepts( u ) && _graph.hasEdge( u, vertex ) ) {
+               ++count;
+            }
+         }
+      }
+      else {
+         for( final IntIterator iter = _graph.predecessorsOf( vertex ).intIterator(); iter.hasNext(); ) {
+            if( accepts( iter.nextInt() ) ) {
+               ++count;
+            }
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Returns the visible predecessors as a new set. The cost is that of
+    * {@link Graph#predecessorsOf(int)} of the underlying graph plus the in
+    * degree.
+    */
+   @Override
+   public IntSet predecessorsOf( int vertex ) {
+      final IntHashSet predecessors = new IntHashSet();
+      if( accepts( vertex ) ) {
+         for( final IntIterator iter = _graph.predecessorsOf( vertex ).intIterator(); iter.hasNext(); ) {
+            final int u = iter.nextInt();
+            if( accepts( u ) ) {
+               predecessors.add( u );
+            }
+         }
+      }
+      return predecessors;
+   }
+
+   @Override
+   public boolean isDirected() {
+      return _graph.isDirected();
+   }
+
+   /**
+    * Returns the sub graph of the underlying graph induced by the visible
+    * vertices of {@code vertices}. The sub graph is a copy, see
+    * {@link Graph#subGraph(IntSet)}.
+    */
+   @Override
+   public Graph subGraph( IntSet vertices ) {
+      final IntHashSet visible = new IntHashSet( vertices.size() );
+      for( final IntIterator iter = vertices.intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+         if( accepts( v ) ) {
+            visible.add( v );
+         }
+      }
+      return _graph.subGraph( visible );
+   }
+
+   protected void checkAccepted( final int vertex ) {
+      if( !accepts( vertex ) ) {
+         throw new IllegalStateException( "Vertex " + vertex + " is hidden in this view!" );
+      }
+   }
+
+   /** The adjacency of hidden vertices. */
+   private static class EmptyAdjacency extends ReadOnlyAdjacency {
+
+      static final EmptyAdjacency INSTANCE = new EmptyAdjacency();
+
+      @Override
+      public Graph ownerGraph() {
+         return null;
+      }
+
+      @Override
+      public int owner() {
+         return -1;
+      }
+
+      @Override
+      public int size() {
+         return 0;
+      }
+
+      @Override
+      public boolean contains( int value ) {
+         return false;
+      }
+
+      @Override
+      public IntIterator intIterator() {
+         return new CompactDiGraph.RangeIterator( null, 0, 0 );
+      }
+
+      @Override
+      public int edgeId( int vertex ) {
+         return -1;
+      }
+   }
+}
@@ -0,0 +1,50 @@
+package dev.costin.fastgraph.properties;
+
+/**
+ * The primitive types supported for property columns, that is properties
+ * stored as one primitive array indexed by vertex or edge.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public enum ColumnType {
+
+   SHORT( 1, 2 ),
+   INT( 2, 4 ),
+   LONG( 3, 8 ),
+   FLOAT( 4, 4 ),
+   DOUBLE( 5, 8 );
+
+   private final int _code;
+   private final int _width;
+
+   private ColumnType( final int code, final int width ) {
+      _code = code;
+      _width = width;
+   }
+
+   /** The code used to identify the type in binary files. */
+   public int code() {
+      return _code;
+   }
+
+   /** The number of bytes needed for one value. */
+   public int width() {
+      return _width;
+   }
+
+   /**
+    * Returns the type for the given {@link #code()}.
+    *
+    * @throws IllegalArgumentException
+    *            If there is no type with this code.
+    */
+   public static ColumnType forCode( final int code ) {
+      for( final ColumnType type : values() ) {
+         if( type._code == code ) {
+            return type;
+         }
+      }
+      throw new IllegalArgumentException( "Unknown column type code: " + code );
+   }
+}
@@ -0,0 +1,64 @@
+package dev.costin.fastgraph.properties.columns;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the column implementations, manages the
+ * {@link ColumnListener}s. Without listeners setting a value costs a single
+ * null check more.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public abstract class AbstractColumn implements Column {
+
+   private ColumnListener[] _listeners;
+
+   @Override
+   public void addListener( final ColumnListener listener ) {
+      if( _listeners == null ) {
+         _listeners = new ColumnListener[] { listener };
+      }
+      else {
+         _listeners = Arrays.copyOf( _listeners, _listeners.length + 1 );
+         _listeners[_listeners.length - 1] = listener;
+      }
+   }
+
+   @Override
+   public boolean removeListener( final ColumnListener listener ) {
+      if( _listeners != null ) {
+         for( int i = 0; i < _listeners.length; i++ ) {
+            if( _listeners[i] == listener ) {
+               if( _listeners.length == 1 ) {
+                  _listeners = null;
+               }
+               else {
+                  final ColumnListener[] listeners = new ColumnListener[_listeners.length - 1];
+                  System.arraycopy( _listeners, 0, listeners, 0, i );
+                  System.arraycopy( _listeners, i + 1, listeners, i, listeners.length - i );
+                  _listeners = listeners;
+               }
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   protected final boolean hasListeners() {
+      return _listeners != null;
+   }
+
+   protected final void fireValueChanging( final int key ) {
+      for( final ColumnListener listener : _listeners ) {
+         listener.valueChanging( this, key );
+      }
+   }
+
+   protected final void fireValueChanged( final int key ) {
+      for( final ColumnListener listener : _listeners ) {
+         listener.valueChanged( this, key );
+      }
+   }
+}
@@ -0,0 +1,43 @@
+package dev.costin.fastgraph.properties.columns;
+
+import dev.costin.fastgraph.properties.ColumnType;
+
+/**
+ * A property stored as one primitive value per key, where the keys are the
+ * vertex ids or the edge ids ({@link dev.costin.fastgraph.Graph#edgeId(int, int)})
+ * of a graph. The typed accessors are declared by the sub interfaces, e.g.
+ * {@link IntColumn}.
+ *
+ * <p>
+ * New and reset values are {@code 0}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface Column {
+
+   ColumnType type();
+
+   /** Returns the number of keys the column can hold, the valid keys are {@code [0,size)}. */
+   int size();
+
+   /**
+    * Grows the column to at least {@code size} keys. The values of the new
+    * keys are {@code 0}.
+    */
+   void ensureSize( int size );
+
+   /** Sets the value of {@code key} to {@code 0}. */
+   void reset( int key );
+
+   /**
+    * Registers a listener notified before and after every change of a value
+    * by {@code set} or {@link #reset(int)}.
+    */
+   void addListener( ColumnListener listener );
+
+   /** Returns {@code false} if the listener was not registered. */
+   boolean removeListener( ColumnListener listener );
+
+}
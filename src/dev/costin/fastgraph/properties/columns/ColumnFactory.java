@@ -0,0 +1,24 @@
+package dev.costin.fastgraph.properties.columns;
+
+import dev.costin.fastgraph.properties.ColumnType;
+
+/**
+ * Factory for the storage of {@link Column}s, see
+ * {@link dev.costin.fastgraph.properties.columns.impl.HeapColumnFactory},
+ * {@link dev.costin.fastgraph.properties.columns.impl.DirectColumnFactory} and
+ * {@link dev.costin.fastgraph.properties.columns.impl.MappedColumnFactory}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface ColumnFactory {
+
+   /**
+    * Creates a column of the given type with {@code size} keys, all values are
+    * {@code 0}. The name is the one given to
+    * {@link PropertyColumns#addColumn(String, ColumnType)}, factories that
+    * persist the columns use it to identify the storage.
+    */
+   Column newColumn( String name, ColumnType type, int size );
+
+}
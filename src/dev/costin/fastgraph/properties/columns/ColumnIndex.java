@@ -0,0 +1,27 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * A secondary index over the values of a {@link Column}, created by
+ * {@link PropertyColumns#addHashIndex(String)} or
+ * {@link PropertyColumns#addSortedIndex(String)}.
+ *
+ * <p>
+ * The index listens to the changes of the column and is told by
+ * {@link PropertyColumns} which keys are valid, i.e. belong to an existing
+ * vertex or edge. Queries return the valid keys only.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface ColumnIndex {
+
+   Column column();
+
+   /** The keys {@code [from,to)} became valid. */
+   void keysAdded( int from, int to );
+
+   /** The key is not valid anymore, e.g. the edge with this id was removed. */
+   void keyRemoved( int key );
+
+}
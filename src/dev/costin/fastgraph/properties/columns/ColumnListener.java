@@ -0,0 +1,18 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * Listener notified about every change of a value of a {@link Column}, see
+ * {@link Column#addListener(ColumnListener)}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface ColumnListener {
+
+   /** Called before the value of {@code key} changes, the old value can still be read. */
+   void valueChanging( Column column, int key );
+
+   /** Called after the value of {@code key} has changed. */
+   void valueChanged( Column column, int key );
+
+}
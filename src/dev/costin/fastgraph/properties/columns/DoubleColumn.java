@@ -0,0 +1,15 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * A {@link Column} of {@code double} values.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface DoubleColumn extends Column {
+
+   double get( int key );
+
+   void set( int key, double value );
+
+}
@@ -0,0 +1,15 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * A {@link Column} of {@code float} values.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface FloatColumn extends Column {
+
+   float get( int key );
+
+   void set( int key, float value );
+
+}
@@ -0,0 +1,15 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * A {@link Column} of {@code int} values.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface IntColumn extends Column {
+
+   int get( int key );
+
+   void set( int key, int value );
+
+}
@@ -0,0 +1,15 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * A {@link Column} of {@code long} values.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface LongColumn extends Column {
+
+   long get( int key );
+
+   void set( int key, long value );
+
+}
@@ -0,0 +1,308 @@
+package dev.costin.fastgraph.properties.columns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastcollections.tools.MemoryMeasurable;
+import dev.costin.fastcollections.tools.MemoryReport;
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.impl.AbstractColumnIndex;
+import dev.costin.fastgraph.properties.columns.impl.HashColumnIndex;
+import dev.costin.fastgraph.properties.columns.impl.HeapColumnFactory;
+import dev.costin.fastgraph.properties.columns.impl.SortedColumnIndex;
+
+/**
+ * Named property columns over the same keys, i.e. the vertex ids or the edge
+ * ids of a graph.
+ *
+ * <p>
+ * This is the columnar alternative to
+ * {@link dev.costin.fastgraph.properties.BasicProperties}: instead of one
+ * object per vertex or edge, every property is one primitive array. Reading
+ * the weights of all edges thus touches one contiguous array and no objects:
+ * </p>
+ *
+ * <pre>
+ * final IntColumn weights = graph.edgeColumns().addIntColumn( "weight" );
+ * ...
+ * final int w = weights.get( graph.edgeId( u, v ) );
+ * </pre>
+ *
+ * <p>
+ * All columns hold at least {@link #size()} keys, which is kept in sync with the
+ * graph by {@link #ensureSize(int)}, {@link #reset(int)} and
+ * {@link #release(int)}.
+ * </p>
+ *
+ * <p>
+ * Columns can be indexed to find the keys with a given value or range of
+ * values without scanning, see {@link #addHashIndex(String)} and
+ * {@link #addSortedIndex(String)}. The indexes are updated on every change.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class PropertyColumns implements MemoryMeasurable {
+
+   private ColumnFactory             _factory;
+   private final Map<String, Column> _columns;
+   private final List<ColumnIndex>   _indexes;
+   /** Keys below {@link #_size} not in use, e.g. ids of removed edges. */
+   private final IntHashSet          _released;
+   private int                       _size;
+
+   /** Creates an empty set of columns for the keys {@code [0,size)} stored on the heap. */
+   public PropertyColumns( final int size ) {
+      this( size, HeapColumnFactory.INSTANCE );
+   }
+
+   public PropertyColumns( final int size, final ColumnFactory factory ) {
+      _factory = factory;
+      _columns = new LinkedHashMap<String, Column>();
+      _indexes = new ArrayList<ColumnIndex>();
+      _released = new IntHashSet();
+      _size = size;
+   }
+
+   /** Returns the number of keys of every column. */
+   public int size() {
+      return _size;
+   }
+
+   public ColumnFactory factory() {
+      return _factory;
+   }
+
+   /**
+    * Sets the factory used for the columns added afterwards, e.g. a
+    * {@link dev.costin.fastgraph.properties.columns.impl.DirectColumnFactory}
+    * to keep large columns off the heap. Existing columns are not moved.
+    */
+   public void setFactory( final ColumnFactory factory ) {
+      _factory = factory;
+   }
+
+   /**
+    * Adds a new column with all values {@code 0}.
+    *
+    * @throws IllegalArgumentException
+    *            If there is already a column with this name.
+    */
+   public Column addColumn( final String name, final ColumnType type ) {
+      if( _columns.containsKey( name ) ) {
+         throw new IllegalArgumentException( "Column " + name + " already exists!" );
+      }
+      final Column column = _factory.newColumn( name, type, _size );
+      _columns.put( name, column );
+      return column;
+   }
+
+   public ShortColumn addShortColumn( final String name ) {
+      return (ShortColumn) addColumn( name, ColumnType.SHORT );
+   }
+
+   public IntColumn addIntColumn( final String name ) {
+      return (IntColumn) addColumn( name, ColumnType.INT );
+   }
+
+   public LongColumn addLongColumn( final String name ) {
+      return (LongColumn) addColumn( name, ColumnType.LONG );
+   }
+
+   public FloatColumn addFloatColumn( final String name ) {
+      return (FloatColumn) addColumn( name, ColumnType.FLOAT );
+   }
+
+   public DoubleColumn addDoubleColumn( final String name ) {
+      return (DoubleColumn) addColumn( name, ColumnType.DOUBLE );
+   }
+
+   /** Returns the column with the given name or {@code null} if there is no such column. */
+   public Column column( final String name ) {
+      return _columns.get( name );
+   }
+
+   /**
+    * Returns the {@link ColumnType#SHORT} column with the given name or
+    * {@code null} if there is no such column.
+    *
+    * @throws IllegalArgumentException
+    *            If the column has another type.
+    */
+   public ShortColumn shortColumn( final String name ) {
+      return (ShortColumn) column( name, ColumnType.SHORT );
+   }
+
+   /** See {@link #shortColumn(String)}. */
+   public IntColumn intColumn( final String name ) {
+      return (IntColumn) column( name, ColumnType.INT );
+   }
+
+   /** See {@link #shortColumn(String)}. */
+   public LongColumn longColumn( final String name ) {
+      return (LongColumn) column( name, ColumnType.LONG );
+   }
+
+   /** See {@link #shortColumn(String)}. */
+   public FloatColumn floatColumn( final String name ) {
+      return (FloatColumn) column( name, ColumnType.FLOAT );
+   }
+
+   /** See {@link #shortColumn(String)}. */
+   public DoubleColumn doubleColumn( final String name ) {
+      return (DoubleColumn) column( name, ColumnType.DOUBLE );
+   }
+
+   private Column column( final String name, final ColumnType type ) {
+      final Column column = _columns.get( name );
+      if( column != null && column.type() != type ) {
+         throw new IllegalArgumentException( "Column " + name + " is of type " + column.type() + ", not " + type );
+      }
+      return column;
+   }
+
+   /**
+    * Removes the column with the given name and its indexes, returns
+    * {@code false} if there is no such column.
+    */
+   public boolean removeColumn( final String name ) {
+      final Column column = _columns.remove( name );
+      if( column == null ) {
+         return false;
+      }
+      for( final Iterator<ColumnIndex> iter = _indexes.iterator(); iter.hasNext(); ) {
+         final ColumnIndex index = iter.next();
+         if( index.column() == column ) {
+            column.removeListener( (ColumnListener) index );
+            iter.remove();
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Creates a hash index over the integral column with the given name, to
+    * find the keys with a given value in {@code O(1)}.
+    *
+    * @throws IllegalArgumentException
+    *            If there is no such column or it is not integral.
+    */
+   public HashColumnIndex addHashIndex( final String name ) {
+      return addIndex( new HashColumnIndex( existingColumn( name ) ) );
+   }
+
+   /**
+    * Creates a sorted index over the column with the given name, to find the
+    * keys with a value in a range.
+    *
+    * @throws IllegalArgumentException
+    *            If there is no such column.
+    */
+   public SortedColumnIndex addSortedIndex( final String name ) {
+      return addIndex( new SortedColumnIndex( existingColumn( name ) ) );
+   }
+
+   private <I extends AbstractColumnIndex<?>> I addIndex( final I index ) {
+      for( int key = 0; key < _size; key++ ) {
+         if( !_released.contains( key ) ) {
+            index.keysAdded( key, key + 1 );
+         }
+      }
+      index.column().addListener( index );
+      _indexes.add( index );
+      return index;
+   }
+
+   /** Drops the index, returns {@code false} if it is not an index of these columns. */
+   public boolean removeIndex( final ColumnIndex index ) {
+      if( _indexes.remove( index ) ) {
+         index.column().removeListener( (ColumnListener) index );
+         return true;
+      }
+      return false;
+   }
+
+   private Column existingColumn( final String name ) {
+      final Column column = _columns.get( name );
+      if( column == null ) {
+         throw new IllegalArgumentException( "There is no column " + name );
+      }
+      return column;
+   }
+
+   /** Returns the names of the columns in the order they have been added. */
+   public Set<String> names() {
+      return Collections.unmodifiableSet( _columns.keySet() );
+   }
+
+   /** Grows all columns to at least {@code size} keys, see {@link Column#ensureSize(int)}. */
+   public void ensureSize( final int size ) {
+      if( size > _size ) {
+         final int oldSize = _size;
+         for( final Column column : _columns.values() ) {
+            column.ensureSize( size );
+         }
+         _size = size;
+         for( final ColumnIndex index : _indexes ) {
+            index.keysAdded( oldSize, size );
+         }
+      }
+   }
+
+   /**
+    * Sets the values of {@code key} in all columns to {@code 0}, growing the
+    * columns if needed. Called when a key is (re)used for a new vertex or edge.
+    */
+   public void reset( final int key ) {
+      final boolean released = _released.remove( key );
+      ensureSize( key + 1 );
+      for( final Column column : _columns.values() ) {
+         column.reset( key );
+      }
+      if( released ) {
+         for( final ColumnIndex index : _indexes ) {
+            index.keysAdded( key, key + 1 );
+         }
+      }
+   }
+
+   /**
+    * Marks {@code key} as not in use, e.g. when the edge with this id has been
+    * removed. The key is dropped from all indexes until it is
+    * {@link #reset(int)}.
+    */
+   public void release( final int key ) {
+      if( key < _size && _released.add( key ) ) {
+         for( final ColumnIndex index : _indexes ) {
+            index.keyRemoved( key );
+         }
+      }
+   }
+
+   /**
+    * Returns the memory held by the columns, on or off the heap, one component
+    * per column. The capacity beyond {@link #size()} and the values of
+    * released keys are wasted. The indexes are not included.
+    */
+   @Override
+   public MemoryReport memoryFootprint() {
+      final MemoryReport report = new MemoryReport( getClass().getSimpleName() );
+      final long used = _size - _released.size();
+      for( final Map.Entry<String, Column> entry : _columns.entrySet() ) {
+         final Column column = entry.getValue();
+         final int width = column.type().width();
+         report.add( entry.getKey(), MemoryReport.arrayBytes( column.size(), width ), ( column.size() - used ) * width );
+      }
+      if( !_released.isEmpty() ) {
+         report.add( "released keys", _released.memoryFootprint() );
+      }
+      return report;
+   }
+}
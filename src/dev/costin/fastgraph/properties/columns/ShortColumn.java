@@ -0,0 +1,15 @@
+package dev.costin.fastgraph.properties.columns;
+
+/**
+ * A {@link Column} of {@code short} values.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public interface ShortColumn extends Column {
+
+   short get( int key );
+
+   void set( int key, short value );
+
+}
@@ -0,0 +1,136 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.util.Map;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.properties.columns.Column;
+import dev.costin.fastgraph.properties.columns.ColumnIndex;
+import dev.costin.fastgraph.properties.columns.ColumnListener;
+import dev.costin.fastgraph.properties.columns.DoubleColumn;
+import dev.costin.fastgraph.properties.columns.FloatColumn;
+import dev.costin.fastgraph.properties.columns.IntColumn;
+import dev.costin.fastgraph.properties.columns.LongColumn;
+import dev.costin.fastgraph.properties.columns.ShortColumn;
+
+/**
+ * Base class of the indexes, maps every value to the set of the valid keys
+ * having it.
+ *
+ * @author Stefan C. Ionescu
+ *
+ * @param <K>
+ *           The type of the values in the map.
+ */
+public abstract class AbstractColumnIndex<K> implements ColumnIndex, ColumnListener {
+
+   private final Column              _column;
+   private final Map<K, IntHashSet> _keys;
+
+   /** Whether the key passed to {@link #valueChanging(Column, int)} was indexed. */
+   private boolean                   _changingIndexed;
+
+   protected AbstractColumnIndex( final Column column, final Map<K, IntHashSet> keys ) {
+      _column = column;
+      _keys = keys;
+   }
+
+   /** Returns the value of {@code key} as key of the map. */
+   protected abstract K valueOf( int key );
+
+   @Override
+   public Column column() {
+      return _column;
+   }
+
+   @Override
+   public void keysAdded( final int from, final int to ) {
+      for( int key = from; key < to; key++ ) {
+         add( key );
+      }
+   }
+
+   @Override
+   public void keyRemoved( final int key ) {
+      remove( key );
+   }
+
+   @Override
+   public void valueChanging( final Column column, final int key ) {
+      _changingIndexed = remove( key );
+   }
+
+   @Override
+   public void valueChanged( final Column column, final int key ) {
+      if( _changingIndexed ) {
+         add( key );
+      }
+   }
+
+   /** Returns the number of distinct values. */
+   public int valuesCount() {
+      return _keys.size();
+   }
+
+   /**
+    * Returns the keys with exactly the given value. The set is maintained by
+    * the index and must not be modified.
+    */
+   protected IntSet keysWithValue( final K value ) {
+      final IntHashSet keys = _keys.get( value );
+      return keys != null ? keys : FastCollections.emptyIntSet();
+   }
+
+   protected Map<K, IntHashSet> keys() {
+      return _keys;
+   }
+
+   private void add( final int key ) {
+      final K value = valueOf( key );
+      IntHashSet keys = _keys.get( value );
+      if( keys == null ) {
+         keys = new IntHashSet();
+         _keys.put( value, keys );
+      }
+      keys.add( key );
+   }
+
+   private boolean remove( final int key ) {
+      final K value = valueOf( key );
+      final IntHashSet keys = _keys.get( value );
+      if( keys != null && keys.remove( key ) ) {
+         if( keys.isEmpty() ) {
+            _keys.remove( value );
+         }
+         return true;
+      }
+      return false;
+   }
+
+   /** Returns the value of {@code key} of an integral column. */
+   static long longValue( final Column column, final int key ) {
+      switch( column.type() ) {
+         case SHORT:
+            return ( (ShortColumn) column ).get( key );
+         case INT:
+            return ( (IntColumn) column ).get( key );
+         case LONG:
+            return ( (LongColumn) column ).get( key );
+         default:
+            throw new IllegalArgumentException( "Not an integral column: " + column.type() );
+      }
+   }
+
+   /** Returns the value of {@code key} of any column. */
+   static double doubleValue( final Column column, final int key ) {
+      switch( column.type() ) {
+         case FLOAT:
+            return ( (FloatColumn) column ).get( key );
+         case DOUBLE:
+            return ( (DoubleColumn) column ).get( key );
+         default:
+            return longValue( column, key );
+      }
+   }
+}
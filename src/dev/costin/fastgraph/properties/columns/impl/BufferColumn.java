@@ -0,0 +1,115 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.AbstractColumn;
+
+/**
+ * Base class of the columns stored in a {@link ByteBuffer}, i.e. outside the
+ * Java heap, see {@link DirectColumnFactory} and {@link MappedColumnFactory}.
+ *
+ * <p>
+ * The values are read with absolute get methods at {@code key * width}. A
+ * buffer holds at most 2GB, thus e.g. an {@link ColumnType#INT} column has at
+ * most 512M keys.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public abstract class BufferColumn extends AbstractColumn {
+
+   /** Allocates the buffer of a column, keeping the values of the previous buffer. */
+   interface Allocator {
+
+      ByteBuffer allocate( ByteBuffer previous, int bytes );
+
+   }
+
+   private final ColumnType _type;
+   private final Allocator  _allocator;
+   protected ByteBuffer     _buffer;
+
+   BufferColumn( final ColumnType type, final Allocator allocator, final int size ) {
+      _type = type;
+      _allocator = allocator;
+      _buffer = allocator.allocate( null, bytes( type, size ) );
+   }
+
+   static BufferColumn newColumn( final ColumnType type, final Allocator allocator, final int size ) {
+      switch( type ) {
+         case SHORT:
+            return new BufferShortColumn( allocator, size );
+         case INT:
+            return new BufferIntColumn( allocator, size );
+         case LONG:
+            return new BufferLongColumn( allocator, size );
+         case FLOAT:
+            return new BufferFloatColumn( allocator, size );
+         case DOUBLE:
+            return new BufferDoubleColumn( allocator, size );
+         default:
+            throw new IllegalArgumentException( "Unsupported column type: " + type );
+      }
+   }
+
+   private static int bytes( final ColumnType type, final long size ) {
+      final long bytes = size * type.width();
+      if( bytes > Integer.MAX_VALUE ) {
+         throw new IllegalArgumentException( "Too many keys for a " + type + " buffer column: " + size );
+      }
+      return (int) bytes;
+   }
+
+   @Override
+   public ColumnType type() {
+      return _type;
+   }
+
+   @Override
+   public int size() {
+      return _buffer.capacity() / _type.width();
+   }
+
+   @Override
+   public void ensureSize( final int size ) {
+      final int current = size();
+      if( size > current ) {
+         final long grown = Math.max( size, current + ( current >> 1 ) + 1L );
+         final long max = Integer.MAX_VALUE / _type.width();
+         _buffer = _allocator.allocate( _buffer, bytes( _type, Math.max( size, Math.min( grown, max ) ) ) );
+      }
+   }
+
+   @Override
+   public void reset( final int key ) {
+      final boolean listeners = hasListeners();
+      if( listeners ) {
+         fireValueChanging( key );
+      }
+      final int width = _type.width();
+      for( int i = key * width, end = i + width; i < end; i++ ) {
+         _buffer.put( i, (byte) 0 );
+      }
+      if( listeners ) {
+         fireValueChanged( key );
+      }
+   }
+
+   /**
+    * Writes the values to the storage device if the column is memory mapped,
+    * does nothing otherwise.
+    */
+   public void force() {
+      if( _buffer instanceof MappedByteBuffer ) {
+         ( (MappedByteBuffer) _buffer ).force();
+      }
+   }
+
+   /** Returns the number of bytes used outside the heap. */
+   public long capacityInBytes() {
+      return _buffer.capacity();
+   }
+}
@@ -0,0 +1,34 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.DoubleColumn;
+
+/**
+ * {@link DoubleColumn} stored in a {@link java.nio.ByteBuffer}, see {@link BufferColumn}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BufferDoubleColumn extends BufferColumn implements DoubleColumn {
+
+   BufferDoubleColumn( final Allocator allocator, final int size ) {
+      super( ColumnType.DOUBLE, allocator, size );
+   }
+
+   @Override
+   public double get( final int key ) {
+      return _buffer.getDouble( key << 3 );
+   }
+
+   @Override
+   public void set( final int key, final double value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _buffer.putDouble( key << 3, value );
+         fireValueChanged( key );
+      }
+      else {
+         _buffer.putDouble( key << 3, value );
+      }
+   }
+}
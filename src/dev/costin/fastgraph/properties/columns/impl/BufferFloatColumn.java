@@ -0,0 +1,34 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.FloatColumn;
+
+/**
+ * {@link FloatColumn} stored in a {@link java.nio.ByteBuffer}, see {@link BufferColumn}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BufferFloatColumn extends BufferColumn implements FloatColumn {
+
+   BufferFloatColumn( final Allocator allocator, final int size ) {
+      super( ColumnType.FLOAT, allocator, size );
+   }
+
+   @Override
+   public float get( final int key ) {
+      return _buffer.getFloat( key << 2 );
+   }
+
+   @Override
+   public void set( final int key, final float value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _buffer.putFloat( key << 2, value );
+         fireValueChanged( key );
+      }
+      else {
+         _buffer.putFloat( key << 2, value );
+      }
+   }
+}
@@ -0,0 +1,34 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.IntColumn;
+
+/**
+ * {@link IntColumn} stored in a {@link java.nio.ByteBuffer}, see {@link BufferColumn}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BufferIntColumn extends BufferColumn implements IntColumn {
+
+   BufferIntColumn( final Allocator allocator, final int size ) {
+      super( ColumnType.INT, allocator, size );
+   }
+
+   @Override
+   public int get( final int key ) {
+      return _buffer.getInt( key << 2 );
+   }
+
+   @Override
+   public void set( final int key, final int value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _buffer.putInt( key << 2, value );
+         fireValueChanged( key );
+      }
+      else {
+         _buffer.putInt( key << 2, value );
+      }
+   }
+}
@@ -0,0 +1,34 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.LongColumn;
+
+/**
+ * {@link LongColumn} stored in a {@link java.nio.ByteBuffer}, see {@link BufferColumn}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BufferLongColumn extends BufferColumn implements LongColumn {
+
+   BufferLongColumn( final Allocator allocator, final int size ) {
+      super( ColumnType.LONG, allocator, size );
+   }
+
+   @Override
+   public long get( final int key ) {
+      return _buffer.getLong( key << 3 );
+   }
+
+   @Override
+   public void set( final int key, final long value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _buffer.putLong( key << 3, value );
+         fireValueChanged( key );
+      }
+      else {
+         _buffer.putLong( key << 3, value );
+      }
+   }
+}
@@ -0,0 +1,34 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.ShortColumn;
+
+/**
+ * {@link ShortColumn} stored in a {@link java.nio.ByteBuffer}, see {@link BufferColumn}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BufferShortColumn extends BufferColumn implements ShortColumn {
+
+   BufferShortColumn( final Allocator allocator, final int size ) {
+      super( ColumnType.SHORT, allocator, size );
+   }
+
+   @Override
+   public short get( final int key ) {
+      return _buffer.getShort( key << 1 );
+   }
+
+   @Override
+   public void set( final int key, final short value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _buffer.putShort( key << 1, value );
+         fireValueChanged( key );
+      }
+      else {
+         _buffer.putShort( key << 1, value );
+      }
+   }
+}
@@ -0,0 +1,42 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.Column;
+import dev.costin.fastgraph.properties.columns.ColumnFactory;
+
+/**
+ * Creates columns in direct buffers ({@link ByteBuffer#allocateDirect(int)})
+ * outside the Java heap, so large columns add nothing to the work of the
+ * garbage collector. The values are stored in native byte order. Growing a
+ * column allocates a new buffer and copies the values.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class DirectColumnFactory implements ColumnFactory {
+
+   public final static DirectColumnFactory INSTANCE = new DirectColumnFactory();
+
+   private static final BufferColumn.Allocator ALLOCATOR = new BufferColumn.Allocator() {
+
+      @Override
+      public ByteBuffer allocate( final ByteBuffer previous, final int bytes ) {
+         final ByteBuffer buffer = ByteBuffer.allocateDirect( bytes ).order( ByteOrder.nativeOrder() );
+         if( previous != null ) {
+            final ByteBuffer values = previous.duplicate();
+            values.clear();
+            buffer.put( values );
+            buffer.clear();
+         }
+         return buffer;
+      }
+   };
+
+   @Override
+   public Column newColumn( final String name, final ColumnType type, final int size ) {
+      return BufferColumn.newColumn( type, ALLOCATOR, size );
+   }
+}
@@ -0,0 +1,47 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.util.HashMap;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.Column;
+
+/**
+ * Hash index over a column with discrete values ({@link ColumnType#SHORT},
+ * {@link ColumnType#INT} or {@link ColumnType#LONG}), e.g. colors or labels.
+ * {@link #keysWith(long)} costs {@code O(1)}, an update of a value
+ * {@code O(1)} as well.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class HashColumnIndex extends AbstractColumnIndex<Long> {
+
+   /**
+    * Creates an empty index, see
+    * {@link dev.costin.fastgraph.properties.columns.PropertyColumns#addHashIndex(String)}.
+    *
+    * @throws IllegalArgumentException
+    *            If the column is not integral.
+    */
+   public HashColumnIndex( final Column column ) {
+      super( column, new HashMap<Long, IntHashSet>() );
+      if( column.type() == ColumnType.FLOAT || column.type() == ColumnType.DOUBLE ) {
+         throw new IllegalArgumentException( "Hash indexes need an integral column, not " + column.type() );
+      }
+   }
+
+   @Override
+   protected Long valueOf( final int key ) {
+      return longValue( column(), key );
+   }
+
+   /**
+    * Returns the valid keys whose value is {@code value}. The set is
+    * maintained by the index and must not be modified.
+    */
+   public IntSet keysWith( final long value ) {
+      return keysWithValue( value );
+   }
+}
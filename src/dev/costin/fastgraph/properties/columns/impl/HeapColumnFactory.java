@@ -0,0 +1,39 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.Column;
+import dev.costin.fastgraph.properties.columns.ColumnFactory;
+
+/**
+ * Creates columns backed by primitive arrays on the heap.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class HeapColumnFactory implements ColumnFactory {
+
+   public final static HeapColumnFactory INSTANCE = new HeapColumnFactory();
+
+   @Override
+   public Column newColumn( final String name, final ColumnType type, final int size ) {
+      switch( type ) {
+         case SHORT:
+            return new HeapShortColumn( size );
+         case INT:
+            return new HeapIntColumn( size );
+         case LONG:
+            return new HeapLongColumn( size );
+         case FLOAT:
+            return new HeapFloatColumn( size );
+         case DOUBLE:
+            return new HeapDoubleColumn( size );
+         default:
+            throw new IllegalArgumentException( "Unsupported column type: " + type );
+      }
+   }
+
+   /** Returns the new length of an array of {@code length} that must hold {@code size} values. */
+   static int grownSize( final int length, final int size ) {
+      return (int) Math.min( Integer.MAX_VALUE - 8, Math.max( size, length + ( length >> 1 ) + 1L ) );
+   }
+}
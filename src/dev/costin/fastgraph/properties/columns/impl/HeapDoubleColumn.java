@@ -0,0 +1,77 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.util.Arrays;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.AbstractColumn;
+import dev.costin.fastgraph.properties.columns.DoubleColumn;
+
+/**
+ * {@link DoubleColumn} backed by a {@code double[]} on the heap.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class HeapDoubleColumn extends AbstractColumn implements DoubleColumn {
+
+   private double[] _values;
+
+   public HeapDoubleColumn( final int size ) {
+      _values = new double[size];
+   }
+
+   @Override
+   public ColumnType type() {
+      return ColumnType.DOUBLE;
+   }
+
+   @Override
+   public int size() {
+      return _values.length;
+   }
+
+   @Override
+   public void ensureSize( final int size ) {
+      if( size > _values.length ) {
+         _values = Arrays.copyOf( _values, HeapColumnFactory.grownSize( _values.length, size ) );
+      }
+   }
+
+   @Override
+   public void reset( final int key ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _values[key] = 0;
+         fireValueChanged( key );
+      }
+      else {
+         _values[key] = 0;
+      }
+   }
+
+   @Override
+   public double get( final int key ) {
+      return _values[key];
+   }
+
+   @Override
+   public void set( final int key, final double value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _values[key] = value;
+         fireValueChanged( key );
+      }
+      else {
+         _values[key] = value;
+      }
+   }
+
+   /**
+    * Returns the backing array for tight loops. The array is replaced when
+    * the column grows, so it must not be kept across modifications of the
+    * graph.
+    */
+   public double[] values() {
+      return _values;
+   }
+}
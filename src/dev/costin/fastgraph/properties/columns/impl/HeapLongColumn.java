@@ -0,0 +1,77 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.util.Arrays;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.AbstractColumn;
+import dev.costin.fastgraph.properties.columns.LongColumn;
+
+/**
+ * {@link LongColumn} backed by a {@code long[]} on the heap.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class HeapLongColumn extends AbstractColumn implements LongColumn {
+
+   private long[] _values;
+
+   public HeapLongColumn( final int size ) {
+      _values = new long[size];
+   }
+
+   @Override
+   public ColumnType type() {
+      return ColumnType.LONG;
+   }
+
+   @Override
+   public int size() {
+      return _values.length;
+   }
+
+   @Override
+   public void ensureSize( final int size ) {
+      if( size > _values.length ) {
+         _values = Arrays.copyOf( _values, HeapColumnFactory.grownSize( _values.length, size ) );
+      }
+   }
+
+   @Override
+   public void reset( final int key ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _values[key] = 0;
+         fireValueChanged( key );
+      }
+      else {
+         _values[key] = 0;
+      }
+   }
+
+   @Override
+   public long get( final int key ) {
+      return _values[key];
+   }
+
+   @Override
+   public void set( final int key, final long value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _values[key] = value;
+         fireValueChanged( key );
+      }
+      else {
+         _values[key] = value;
+      }
+   }
+
+   /**
+    * Returns the backing array for tight loops. The array is replaced when
+    * the column grows, so it must not be kept across modifications of the
+    * graph.
+    */
+   public long[] values() {
+      return _values;
+   }
+}
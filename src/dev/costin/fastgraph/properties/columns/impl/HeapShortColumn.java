@@ -0,0 +1,77 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.util.Arrays;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.AbstractColumn;
+import dev.costin.fastgraph.properties.columns.ShortColumn;
+
+/**
+ * {@link ShortColumn} backed by a {@code short[]} on the heap.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class HeapShortColumn extends AbstractColumn implements ShortColumn {
+
+   private short[] _values;
+
+   public HeapShortColumn( final int size ) {
+      _values = new short[size];
+   }
+
+   @Override
+   public ColumnType type() {
+      return ColumnType.SHORT;
+   }
+
+   @Override
+   public int size() {
+      return _values.length;
+   }
+
+   @Override
+   public void ensureSize( final int size ) {
+      if( size > _values.length ) {
+         _values = Arrays.copyOf( _values, HeapColumnFactory.grownSize( _values.length, size ) );
+      }
+   }
+
+   @Override
+   public void reset( final int key ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _values[key] = 0;
+         fireValueChanged( key );
+      }
+      else {
+         _values[key] = 0;
+      }
+   }
+
+   @Override
+   public short get( final int key ) {
+      return _values[key];
+   }
+
+   @Override
+   public void set( final int key, final short value ) {
+      if( hasListeners() ) {
+         fireValueChanging( key );
+         _values[key] = value;
+         fireValueChanged( key );
+      }
+      else {
+         _values[key] = value;
+      }
+   }
+
+   /**
+    * Returns the backing array for tight loops. The array is replaced when
+    * the column grows, so it must not be kept across modifications of the
+    * graph.
+    */
+   public short[] values() {
+      return _values;
+   }
+}
@@ -0,0 +1,86 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.Column;
+import dev.costin.fastgraph.properties.columns.ColumnFactory;
+
+/**
+ * Creates columns memory mapped from one file per column in a directory.
+ *
+ * <p>
+ * The file of a column is {@code <name>.<type>} (e.g. {@code weight.int}) and
+ * contains the raw values in little endian order. If the file already exists
+ * its values are kept, so a column persisted by an earlier run is available
+ * as soon as it is added again, without reading the file. Growing a column
+ * extends the file and maps it again. Use {@link BufferColumn#force()} to
+ * write the values to the storage device.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class MappedColumnFactory implements ColumnFactory {
+
+   private final File _directory;
+
+   public MappedColumnFactory( final File directory ) {
+      _directory = directory;
+   }
+
+   public File directory() {
+      return _directory;
+   }
+
+   /** Returns the file used for the column. */
+   public File fileOf( final String name, final ColumnType type ) {
+      return new File( _directory, name + "." + type.name().toLowerCase( Locale.ROOT ) );
+   }
+
+   /**
+    * Maps the file of the column. Its size is at least {@code size} keys or
+    * more if the file is larger.
+    *
+    * @throws IllegalStateException
+    *            If the file cannot be mapped.
+    */
+   @Override
+   public Column newColumn( final String name, final ColumnType type, final int size ) {
+      final File file = fileOf( name, type );
+      final int existing = (int) Math.min( Integer.MAX_VALUE / type.width(), file.length() / type.width() );
+      return BufferColumn.newColumn( type, new FileAllocator( file ), Math.max( size, existing ) );
+   }
+
+   private static class FileAllocator implements BufferColumn.Allocator {
+
+      private final File _file;
+
+      FileAllocator( final File file ) {
+         _file = file;
+      }
+
+      @Override
+      public ByteBuffer allocate( final ByteBuffer previous, final int bytes ) {
+         try {
+            final RandomAccessFile raf = new RandomAccessFile( _file, "rw" );
+            try {
+               // the values are in the file, nothing to copy; the mapping stays valid after closing
+               return raf.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, bytes ).order( ByteOrder.LITTLE_ENDIAN );
+            }
+            finally {
+               raf.close();
+            }
+         }
+         catch( final IOException e ) {
+            throw new IllegalStateException( "Cannot map column file " + _file, e );
+         }
+      }
+   }
+}
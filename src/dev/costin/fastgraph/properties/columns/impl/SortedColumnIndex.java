@@ -0,0 +1,53 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastgraph.properties.columns.Column;
+
+/**
+ * Sorted index over a numeric column for range queries, e.g. all edges with a
+ * weight in {@code [a,b]}. The values are ordered as {@code double}, which is
+ * exact for all but very large {@code long} values. {@link #keysInRange(double, double)}
+ * costs {@code O(log v + r)} for {@code v} distinct values and {@code r}
+ * matching keys, an update of a value {@code O(log v)}.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class SortedColumnIndex extends AbstractColumnIndex<Double> {
+
+   /**
+    * Creates an empty index, see
+    * {@link dev.costin.fastgraph.properties.columns.PropertyColumns#addSortedIndex(String)}.
+    */
+   public SortedColumnIndex( final Column column ) {
+      super( column, new TreeMap<Double, IntHashSet>() );
+   }
+
+   @Override
+   protected Double valueOf( final int key ) {
+      return doubleValue( column(), key );
+   }
+
+   /**
+    * Returns the valid keys whose value is {@code value}. The set is
+    * maintained by the index and must not be modified.
+    */
+   public IntSet keysWith( final double value ) {
+      return keysWithValue( value );
+   }
+
+   /** Returns the valid keys with a value in {@code [from,to]} as a new set. */
+   public IntSet keysInRange( final double from, final double to ) {
+      final IntHashSet result = new IntHashSet();
+      if( from <= to ) {
+         for( final IntHashSet keys : ( (NavigableMap<Double, IntHashSet>) keys() ).subMap( from, true, to, true ).values() ) {
+            result.addAll( keys );
+         }
+      }
+      return result;
+   }
+}
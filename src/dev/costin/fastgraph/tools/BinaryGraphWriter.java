@@ -0,0 +1,301 @@
+package dev.costin.fastgraph.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.MappedDiGraph;
+import dev.costin.fastgraph.properties.ColumnType;
+
+/**
+ * Writes a {@link Graph} in the binary format read by {@link MappedDiGraph}.
+ *
+ * <pre>
+ * new BinaryGraphWriter( graph ).addVertexColumn( "rank", ranks ).write( file );
+ * final MappedDiGraph mapped = MappedDiGraph.open( file );
+ * </pre>
+ *
+ * <p>
+ * Edge columns must be indexed like the targets section, i.e. the edges
+ * ordered by source vertex and within each source by ascending target. For a
+ * {@link dev.costin.fastgraph.impl.CompactDiGraph} this is the index used by
+ * {@code targetAt(int)}.
+ * </p>
+ *
+ * <p>
+ * An undirected graph is written as directed graph with both directions of
+ * every edge, thus its edge columns need a value per direction: the sum of
+ * the out degrees instead of {@link Graph#edgesCount()}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class BinaryGraphWriter {
+
+   private static final int BUFFER_SIZE = 1 << 20;
+
+   private static class Column {
+      final byte       kind;
+      final ColumnType type;
+      final String     name;
+      final byte[]     nameBytes;
+      final Object     values;
+
+      Column( final byte kind, final ColumnType type, final String name, final Object values ) {
+         this.kind = kind;
+         this.type = type;
+         this.name = name;
+         this.nameBytes = name.getBytes( MappedDiGraph.NAME_CHARSET );
+         this.values = values;
+      }
+   }
+
+   private final Graph        _graph;
+   private final List<Column> _columns;
+
+   public BinaryGraphWriter( final Graph graph ) {
+      _graph = graph;
+      _columns = new ArrayList<Column>();
+   }
+
+   public BinaryGraphWriter addVertexColumn( final String name, final short[] values ) {
+      return addColumn( MappedDiGraph.VERTEX_COLUMN, ColumnType.SHORT, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addVertexColumn( final String name, final int[] values ) {
+      return addColumn( MappedDiGraph.VERTEX_COLUMN, ColumnType.INT, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addVertexColumn( final String name, final long[] values ) {
+      return addColumn( MappedDiGraph.VERTEX_COLUMN, ColumnType.LONG, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addVertexColumn( final String name, final float[] values ) {
+      return addColumn( MappedDiGraph.VERTEX_COLUMN, ColumnType.FLOAT, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addVertexColumn( final String name, final double[] values ) {
+      return addColumn( MappedDiGraph.VERTEX_COLUMN, ColumnType.DOUBLE, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addEdgeColumn( final String name, final short[] values ) {
+      return addColumn( MappedDiGraph.EDGE_COLUMN, ColumnType.SHORT, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addEdgeColumn( final String name, final int[] values ) {
+      return addColumn( MappedDiGraph.EDGE_COLUMN, ColumnType.INT, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addEdgeColumn( final String name, final long[] values ) {
+      return addColumn( MappedDiGraph.EDGE_COLUMN, ColumnType.LONG, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addEdgeColumn( final String name, final float[] values ) {
+      return addColumn( MappedDiGraph.EDGE_COLUMN, ColumnType.FLOAT, name, values, values.length );
+   }
+
+   public BinaryGraphWriter addEdgeColumn( final String name, final double[] values ) {
+      return addColumn( MappedDiGraph.EDGE_COLUMN, ColumnType.DOUBLE, name, values, values.length );
+   }
+
+   private BinaryGraphWriter addColumn( final byte kind, final ColumnType type, final String name,
+                                        final Object values, final int length ) {
+      final int expected = kind == MappedDiGraph.VERTEX_COLUMN ? _graph.verticesCount() : targetsCount();
+      if( length != expected ) {
+         throw new IllegalArgumentException( "Column " + name + " has " + length + " values, expected " + expected );
+      }
+      final Column column = new Column( kind, type, name, values );
+      if( column.nameBytes.length > 0xFFFF ) {
+         throw new IllegalArgumentException( "Column name too long: " + name );
+      }
+      _columns.add( column );
+      return this;
+   }
+
+   /**
+    * Writes the graph and all columns added to {@code file}. An existing file
+    * is overwritten.
+    */
+   public void write( final File file ) throws IOException {
+      final int n = _graph.verticesCount();
+      final int m = targetsCount();
+
+      final long offsetsPos = MappedDiGraph.HEADER_SIZE;
+      final long targetsPos = MappedDiGraph.align8( offsetsPos + 4L * ( n + 1 ) );
+      final long inDegreePos = MappedDiGraph.align8( targetsPos + 4L * m );
+      final long columnTablePos = MappedDiGraph.align8( inDegreePos + 4L * n );
+
+      long pos = columnTablePos;
+      for( final Column column : _columns ) {
+         pos += MappedDiGraph.align8( 4 + column.nameBytes.length ) + 8;
+      }
+      final long[] dataPos = new long[_columns.size()];
+      for( int c = 0; c < dataPos.length; c++ ) {
+         final Column column = _columns.get( c );
+         dataPos[c] = pos;
+         final long count = column.kind == MappedDiGraph.VERTEX_COLUMN ? n : m;
+         pos = MappedDiGraph.align8( pos + count * column.type.width() );
+      }
+
+      final RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+      try {
+         raf.setLength( 0 );
+         final FileChannel channel = raf.getChannel();
+         final ByteBuffer buffer = ByteBuffer.allocateDirect( BUFFER_SIZE ).order( MappedDiGraph.BYTE_ORDER );
+
+         // header
+         buffer.putLong( MappedDiGraph.MAGIC );
+         buffer.putInt( MappedDiGraph.VERSION );
+         buffer.putInt( n );
+         buffer.putLong( m );
+         buffer.putInt( _columns.size() );
+         buffer.putInt( 0 );
+         buffer.putLong( offsetsPos );
+         buffer.putLong( targetsPos );
+         buffer.putLong( inDegreePos );
+         buffer.putLong( columnTablePos );
+
+         // offsets
+         int offset = 0;
+         putInt( channel, buffer, offset );
+         for( int v = 0; v < n; v++ ) {
+            offset += _graph.getOutDegree( v );
+            putInt( channel, buffer, offset );
+         }
+         pad( channel, buffer );
+
+         // targets
+         int[] row = new int[16];
+         for( int v = 0; v < n; v++ ) {
+            final int degree = _graph.getOutDegree( v );
+            if( degree > row.length ) {
+               row = new int[Math.max( degree, row.length * 2 )];
+            }
+            int i = 0;
+            for( final IntIterator iter = _graph.adjacencyOf( v ).intIterator(); iter.hasNext(); ) {
+               row[i++] = iter.nextInt();
+            }
+            Arrays.sort( row, 0, i );
+            for( int j = 0; j < i; j++ ) {
+               putInt( channel, buffer, row[j] );
+            }
+         }
+         pad( channel, buffer );
+
+         // in-degrees
+         for( int v = 0; v < n; v++ ) {
+            putInt( channel, buffer, _graph.getInDegree( v ) );
+         }
+         pad( channel, buffer );
+
+         // column table
+         for( int c = 0; c < dataPos.length; c++ ) {
+            final Column column = _columns.get( c );
+            ensureRemaining( channel, buffer, 4 );
+            buffer.put( column.kind );
+            buffer.put( (byte) column.type.code() );
+            buffer.putShort( (short) column.nameBytes.length );
+            for( final byte b : column.nameBytes ) {
+               ensureRemaining( channel, buffer, 1 );
+               buffer.put( b );
+            }
+            pad( channel, buffer );
+            ensureRemaining( channel, buffer, 8 );
+            buffer.putLong( dataPos[c] );
+         }
+
+         // column data
+         for( final Column column : _columns ) {
+            writeValues( channel, buffer, column.values );
+            pad( channel, buffer );
+         }
+
+         flush( channel, buffer );
+      }
+      finally {
+         raf.close();
+      }
+   }
+
+   /**
+    * Returns the number of entries of the targets section, which differs from
+    * {@link Graph#edgesCount()} for undirected graphs.
+    */
+   private int targetsCount() {
+      int count = 0;
+      for( int v = 0; v < _graph.verticesCount(); v++ ) {
+         count += _graph.getOutDegree( v );
+      }
+      return count;
+   }
+
+   private static void writeValues( final FileChannel channel, final ByteBuffer buffer, final Object values )
+         throws IOException {
+      if( values instanceof short[] ) {
+         for( final short v : (short[]) values ) {
+            ensureRemaining( channel, buffer, 2 );
+            buffer.putShort( v );
+         }
+      }
+      else if( values instanceof int[] ) {
+         for( final int v : (int[]) values ) {
+            putInt( channel, buffer, v );
+         }
+      }
+      else if( values instanceof long[] ) {
+         for( final long v : (long[]) values ) {
+            ensureRemaining( channel, buffer, 8 );
+            buffer.putLong( v );
+         }
+      }
+      else if( values instanceof float[] ) {
+         for( final float v : (float[]) values ) {
+            ensureRemaining( channel, buffer, 4 );
+            buffer.putFloat( v );
+         }
+      }
+      else {
+         for( final double v : (double[]) values ) {
+            ensureRemaining( channel, buffer, 8 );
+            buffer.putDouble( v );
+         }
+      }
+   }
+
+   private static void putInt( final FileChannel channel, final ByteBuffer buffer, final int value )
+         throws IOException {
+      ensureRemaining( channel, buffer, 4 );
+      buffer.putInt( value );
+   }
+
+   /** Pads with zeros up to the next file position that is a multiple of 8. */
+   private static void pad( final FileChannel channel, final ByteBuffer buffer ) throws IOException {
+      ensureRemaining( channel, buffer, 8 );
+      while( ( ( channel.position() + buffer.position() ) & 7 ) != 0 ) {
+         buffer.put( (byte) 0 );
+      }
+   }
+
+   private static void ensureRemaining( final FileChannel channel, final ByteBuffer buffer, final int count )
+         throws IOException {
+      if( buffer.remaining() < count ) {
+         flush( channel, buffer );
+      }
+   }
+
+   private static void flush( final FileChannel channel, final ByteBuffer buffer ) throws IOException {
+      buffer.flip();
+      while( buffer.hasRemaining() ) {
+         channel.write( buffer );
+      }
+      buffer.clear();
+   }
+}
@@ -0,0 +1,415 @@
+package dev.costin.fastgraph.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parser for text edge lists as used e.g. by the SNAP data sets.
+ *
+ * <p>
+ * Every line holds one edge {@code source dest [weight]}, separated by tabs,
+ * blanks or commas. Empty lines and lines starting with {@code #} or
+ * {@code %} are skipped. The file is split into chunks which are mapped with
+ * {@link FileChannel#map} and parsed byte-wise by several threads, without
+ * creating objects per line. The parsed edges are fed into a
+ * {@link GraphBuilder}:
+ * </p>
+ *
+ * <pre>
+ * final CompactDiGraph graph = new EdgeListLoader().load( file ).buildCompact();
+ * </pre>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class EdgeListLoader {
+
+   /** The size of the chunks a file is split into. */
+   static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+   /** Lines may cross the end of their chunk by at most this many bytes. */
+   static final int MAX_LINE_LENGTH = 64 << 10;
+
+   private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+      1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+   };
+
+   private boolean _weighted;
+   private int     _verticesCount;
+   private int     _parallelism;
+   private int     _chunkSize;
+
+   public EdgeListLoader() {
+      _weighted = false;
+      _verticesCount = -1;
+      _parallelism = Runtime.getRuntime().availableProcessors();
+      _chunkSize = DEFAULT_CHUNK_SIZE;
+   }
+
+   /**
+    * If {@code true} the third column is parsed as edge weight. Edges without
+    * a third column get {@link GraphBuilder#DEFAULT_WEIGHT}. Otherwise further
+    * columns are ignored.
+    */
+   public EdgeListLoader setWeighted( final boolean weighted ) {
+      _weighted = weighted;
+      return this;
+   }
+
+   /**
+    * Sets the number of vertices of the graph. By default it is the largest
+    * vertex id found plus one.
+    */
+   public EdgeListLoader setVerticesCount( final int verticesCount ) {
+      _verticesCount = verticesCount;
+      return this;
+   }
+
+   /** Sets the number of parsing threads, defaults to the number of processors. */
+   public EdgeListLoader setParallelism( final int parallelism ) {
+      if( parallelism < 1 ) {
+         throw new IllegalArgumentException( "Parallelism must be positive: " + parallelism );
+      }
+      _parallelism = parallelism;
+      return this;
+   }
+
+   EdgeListLoader setChunkSize( final int chunkSize ) {
+      _chunkSize = chunkSize;
+      return this;
+   }
+
+   /**
+    * Parses the edge list in {@code file}.
+    *
+    * @return A builder holding all edges parsed, the graph is built by calling
+    *         e.g. {@link GraphBuilder#buildCompact()}.
+    * @throws IOException
+    *            If the file cannot be read or contains a malformed line.
+    */
+   public GraphBuilder load( final File file ) throws IOException {
+      final RandomAccessFile raf = new RandomAccessFile( file, "r" );
+      final ForkJoinPool pool = new ForkJoinPool( _parallelism );
+
+      try {
+         final FileChannel channel = raf.getChannel();
+         final long size = channel.size();
+
+         final List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+         for( long start = 0; start < size; start += _chunkSize ) {
+            tasks.add( new ChunkParser( channel, size, start, Math.min( size, start + _chunkSize ), _weighted ) );
+         }
+
+         final List<Chunk> chunks = new ArrayList<Chunk>( tasks.size() );
+         int maxVertex = -1;
+         for( final Future<Chunk> future : pool.invokeAll( tasks ) ) {
+            final Chunk chunk = getChunk( future );
+            maxVertex = Math.max( maxVertex, chunk.maxVertex );
+            chunks.add( chunk );
+         }
+
+         final int n = _verticesCount >= 0 ? _verticesCount : maxVertex + 1;
+         final GraphBuilder builder = new GraphBuilder( n ).setParallelism( _parallelism );
+
+         for( int i = 0; i < chunks.size(); i++ ) {
+            final Chunk chunk = chunks.get( i );
+            if( _weighted ) {
+               builder.addEdges( chunk.src, chunk.dst, chunk.weights, 0, chunk.size );
+            }
+            else {
+               builder.addEdges( chunk.src, chunk.dst, 0, chunk.size );
+            }
+            chunks.set( i, null ); // for GC
+         }
+
+         return builder;
+      }
+      finally {
+         pool.shutdown();
+         raf.close();
+      }
+   }
+
+   private static Chunk getChunk( final Future<Chunk> future ) throws IOException {
+      try {
+         return future.get();
+      }
+      catch( InterruptedException e ) {
+         Thread.currentThread().interrupt();
+         throw new IOException( e );
+      }
+      catch( ExecutionException e ) {
+         if( e.getCause() instanceof IOException ) {
+            throw (IOException) e.getCause();
+         }
+         throw new IOException( e.getCause() );
+      }
+   }
+
+   /** The edges parsed from one chunk. */
+   private static class Chunk {
+      int[]    src       = new int[1024];
+      int[]    dst       = new int[1024];
+      double[] weights;
+      int      size      = 0;
+      int      maxVertex = -1;
+
+      void add( final int s, final int d ) {
+         if( size == src.length ) {
+            final int newCapacity = size + ( size >> 1 );
+            src = Arrays.copyOf( src, newCapacity );
+            dst = Arrays.copyOf( dst, newCapacity );
+            if( weights != null ) {
+               weights = Arrays.copyOf( weights, newCapacity );
+            }
+         }
+         src[size] = s;
+         dst[size] = d;
+         ++size;
+         if( s > maxVertex ) {
+            maxVertex = s;
+         }
+         if( d > maxVertex ) {
+            maxVertex = d;
+         }
+      }
+   }
+
+   /**
+    * Parses all lines starting within {@code [start,end)}. A line crossing
+    * {@code end} is parsed completely, the line crossing {@code start} belongs
+    * to the previous chunk.
+    */
+   private static class ChunkParser implements Callable<Chunk> {
+
+      private final FileChannel _channel;
+      private final long        _fileSize;
+      private final long        _start;
+      private final long        _end;
+      private final boolean     _weighted;
+
+      private MappedByteBuffer  _buffer;
+      private int               _pos;
+      private int               _limit;
+
+      ChunkParser( final FileChannel channel, final long fileSize, final long start, final long end,
+                   final boolean weighted ) {
+         _channel = channel;
+         _fileSize = fileSize;
+         _start = start;
+         _end = end;
+         _weighted = weighted;
+      }
+
+      @Override
+      public Chunk call() throws IOException {
+         // map one byte before the chunk to detect whether it starts a line
+         final long mapStart = _start > 0 ? _start - 1 : 0;
+         final long mapEnd = Math.min( _fileSize, _end + MAX_LINE_LENGTH );
+         _buffer = _channel.map( FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart );
+         _limit = (int) ( mapEnd - mapStart );
+         _pos = 0;
+
+         final int chunkEnd = (int) ( _end - mapStart );
+         final Chunk chunk = new Chunk();
+         if( _weighted ) {
+            chunk.weights = new double[chunk.src.length];
+         }
+
+         if( _start > 0 ) {
+            // skip the rest of the line started in the previous chunk
+            if( _buffer.get( 0 ) != '\n' ) {
+               skipLine();
+            }
+            else {
+               _pos = 1;
+            }
+         }
+
+         while( _pos < chunkEnd ) {
+            final int lineStart = _pos;
+            skipBlanks();
+
+            if( _pos >= _limit ) {
+               break;
+            }
+
+            final byte c = _buffer.get( _pos );
+            if( c == '\n' ) {
+               ++_pos;
+               continue;
+            }
+            if( c == '#' || c == '%' ) {
+               skipLine();
+               continue;
+            }
+
+            final int s = parseVertex( lineStart );
+            skipSeparators();
+            final int d = parseVertex( lineStart );
+            chunk.add( s, d );
+
+            if( _weighted ) {
+               skipSeparators();
+               chunk.weights[chunk.size - 1] = atLineEnd() ? GraphBuilder.DEFAULT_WEIGHT : parseDouble( lineStart );
+            }
+
+            skipLine();
+
+            if( _pos > _limit && mapEnd < _fileSize ) {
+               throw error( lineStart, "Line too long" );
+            }
+         }
+
+         return chunk;
+      }
+
+      private boolean atLineEnd() {
+         return _pos >= _limit || _buffer.get( _pos ) == '\n';
+      }
+
+      private void skipBlanks() {
+         while( _pos < _limit ) {
+            final byte c = _buffer.get( _pos );
+            if( c != ' ' && c != '\t' && c != '\r' ) {
+               return;
+            }
+            ++_pos;
+         }
+      }
+
+      private void skipSeparators() {
+         while( _pos < _limit ) {
+            final byte c = _buffer.get( _pos );
+            if( c != ' ' && c != '\t' && c != '\r' && c != ',' ) {
+               return;
+            }
+            ++_pos;
+         }
+      }
+
+      /** Moves behind the next line feed. */
+      private void skipLine() {
+         while( _pos < _limit ) {
+            if( _buffer.get( _pos++ ) == '\n' ) {
+               return;
+            }
+         }
+         _pos = _limit + 1; // no line feed within the mapped region, see check in call()
+      }
+
+      private int parseVertex( final int lineStart ) throws IOException {
+         long value = 0;
+         final int start = _pos;
+
+         while( _pos < _limit ) {
+            final int digit = _buffer.get( _pos ) - '0';
+            if( digit < 0 || digit > 9 ) {
+               break;
+            }
+            value = value * 10 + digit;
+            if( value > Integer.MAX_VALUE ) {
+               throw error( lineStart, "Vertex id too large" );
+            }
+            ++_pos;
+         }
+
+         if( _pos == start ) {
+            throw error( lineStart, "Vertex id expected" );
+         }
+         return (int) value;
+      }
+
+      /**
+       * Parses a decimal number with optional sign, fraction and exponent. Up to
+       * 18 significant digits are taken into account.
+       */
+      private double parseDouble( final int lineStart ) throws IOException {
+         boolean negative = false;
+         if( _pos < _limit && ( _buffer.get( _pos ) == '-' || _buffer.get( _pos ) == '+' ) ) {
+            negative = _buffer.get( _pos++ ) == '-';
+         }
+
+         long mantissa = 0;
+         int digits = 0;
+         int scale = 0;
+         boolean fraction = false;
+         boolean any = false;
+
+         for( ; _pos < _limit; _pos++ ) {
+            final byte c = _buffer.get( _pos );
+            if( c >= '0' && c <= '9' ) {
+               any = true;
+               if( digits < 18 ) {
+                  mantissa = mantissa * 10 + ( c - '0' );
+                  if( mantissa > 0 ) {
+                     ++digits;
+                  }
+                  if( fraction ) {
+                     --scale;
+                  }
+               }
+               else if( !fraction ) {
+                  ++scale;
+               }
+            }
+            else if( c == '.' && !fraction ) {
+               fraction = true;
+            }
+            else {
+               break;
+            }
+         }
+
+         if( !any ) {
+            throw error( lineStart, "Weight expected" );
+         }
+
+         if( _pos < _limit && ( _buffer.get( _pos ) == 'e' || _buffer.get( _pos ) == 'E' ) ) {
+            ++_pos;
+            boolean negativeExp = false;
+            if( _pos < _limit && ( _buffer.get( _pos ) == '-' || _buffer.get( _pos ) == '+' ) ) {
+               negativeExp = _buffer.get( _pos++ ) == '-';
+            }
+            int exp = 0;
+            final int start = _pos;
+            while( _pos < _limit && _buffer.get( _pos ) >= '0' && _buffer.get( _pos ) <= '9' ) {
+               if( exp < 10000 ) {
+                  exp = exp * 10 + ( _buffer.get( _pos ) - '0' );
+               }
+               ++_pos;
+            }
+            if( _pos == start ) {
+               throw error( lineStart, "Exponent expected" );
+            }
+            scale += negativeExp ? -exp : exp;
+         }
+
+         double value = mantissa;
+         if( scale < 0 ) {
+            value = -scale < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-scale] : value / Math.pow( 10, -scale );
+         }
+         else if( scale > 0 ) {
+            value = scale < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[scale] : value * Math.pow( 10, scale );
+         }
+
+         return negative ? -value : value;
+      }
+
+      private IOException error( final int lineStart, final String message ) {
+         final long position = ( _start > 0 ? _start - 1 : 0 ) + lineStart;
+         return new IOException( message + " in line starting at byte " + position + "!" );
+      }
+   }
+}
@@ -0,0 +1,372 @@
+package dev.costin.fastgraph.tools;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+
+/**
+ * Bulk builder for directed graphs.
+ *
+ * <p>
+ * Edges are collected as plain {@code int} pairs and turned into a graph in one
+ * go: the out degrees are counted, prefix sums give the row offsets and the
+ * targets are scattered into their final position (a counting sort by source
+ * vertex). Counting, scattering and sorting of the rows are executed in
+ * parallel on a {@link ForkJoinPool}.
+ * </p>
+ *
+ * <pre>
+ * final CompactDiGraph graph = new GraphBuilder( n ).addEdges( src, dst ).buildCompact();
+ * </pre>
+ *
+ * <p>
+ * Edges may optionally carry a {@code double} weight. After building, the
+ * weights are available through {@link #getEdgeWeights()}, indexed like the
+ * targets of the built {@link CompactDiGraph}.
+ * </p>
+ *
+ * <p>
+ * <strong>NOTE:</strong> This class is not thread-safe, but the build methods
+ * use several threads internally.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class GraphBuilder {
+
+   private static final int[] EMPTY = {};
+
+   /** The weight of edges added without weight to a weighted builder. */
+   public static final double DEFAULT_WEIGHT = 1.0;
+
+   private final int _n;
+   private int[]     _src;
+   private int[]     _dst;
+   private double[]  _weights;
+   private int       _size;
+   private double[]  _builtWeights;
+   private boolean   _removeDuplicates;
+   private int       _parallelism;
+
+   /**
+    * Creates a builder for a graph with {@code n} vertices.
+    */
+   public GraphBuilder( final int n ) {
+      if( n < 0 ) {
+         throw new IllegalArgumentException( "Negative vertices count: " + n );
+      }
+      _n = n;
+      _src = EMPTY;
+      _dst = EMPTY;
+      _size = 0;
+      _removeDuplicates = true;
+      _parallelism = Runtime.getRuntime().availableProcessors();
+   }
+
+   /**
+    * Whether duplicated edges are removed while building, which is the default.
+    * Only switch this off if the edges are known to be unique, as the graphs
+    * built do not support parallel edges.
+    */
+   public GraphBuilder setRemoveDuplicates( final boolean removeDuplicates ) {
+      _removeDuplicates = removeDuplicates;
+      return this;
+   }
+
+   /**
+    * Sets the number of threads used for building. A value of {@code 1} builds
+    * in the calling thread only. Defaults to the number of available processors.
+    */
+   public GraphBuilder setParallelism( final int parallelism ) {
+      if( parallelism < 1 ) {
+         throw new IllegalArgumentException( "Parallelism must be positive: " + parallelism );
+      }
+      _parallelism = parallelism;
+      return this;
+   }
+
+   public int verticesCount() {
+      return _n;
+   }
+
+   /** The number of edges added so far, including duplicates. */
+   public int edgesCount() {
+      return _size;
+   }
+
+   public GraphBuilder addEdge( final int source, final int dest ) {
+      ensureCapacity( _size + 1 );
+      _src[_size] = source;
+      _dst[_size] = dest;
+      if( _weights != null ) {
+         _weights[_size] = DEFAULT_WEIGHT;
+      }
+      ++_size;
+      return this;
+   }
+
+   public GraphBuilder addEdge( final int source, final int dest, final double weight ) {
+      ensureWeights();
+      addEdge( source, dest );
+      _weights[_size - 1] = weight;
+      return this;
+   }
+
+   /**
+    * Adds the edges {@code src[i]->dst[i]} for all {@code i}. The arrays are
+    * copied.
+    */
+   public GraphBuilder addEdges( final int[] src, final int[] dst ) {
+      if( src.length != dst.length ) {
+         throw new IllegalArgumentException( "Source and destination arrays differ in length!" );
+      }
+      return addEdges( src, dst, 0, src.length );
+   }
+
+   /**
+    * Adds the edges {@code src[i]->dst[i]} for
+    * {@code offset <= i < offset+length}. The arrays are copied, so they can be
+    * reused for the next chunk of edges.
+    */
+   public GraphBuilder addEdges( final int[] src, final int[] dst, final int offset, final int length ) {
+      ensureCapacity( _size + length );
+      System.arraycopy( src, offset, _src, _size, length );
+      System.arraycopy( dst, offset, _dst, _size, length );
+      if( _weights != null ) {
+         Arrays.fill( _weights, _size, _size + length, DEFAULT_WEIGHT );
+      }
+      _size += length;
+      return this;
+   }
+
+   /**
+    * Adds the weighted edges {@code src[i]->dst[i]} for
+    * {@code offset <= i < offset+length}. The arrays are copied.
+    */
+   public GraphBuilder addEdges( final int[] src, final int[] dst, final double[] weights, final int offset,
+                                 final int length ) {
+      ensureWeights();
+      addEdges( src, dst, offset, length );
+      System.arraycopy( weights, offset, _weights, _size - length, length );
+      return this;
+   }
+
+   /** Removes all edges added so far. */
+   public void clear() {
+      _src = EMPTY;
+      _dst = EMPTY;
+      _weights = null;
+      _size = 0;
+   }
+
+   /**
+    * Returns the edge weights of the graph returned by the last call to
+    * {@link #buildCompact()} or {@link #buildDiGraph(boolean)}, indexed like
+    * {@link CompactDiGraph#targetAt(int)}, or {@code null} if no weighted edges
+    * have been added. If duplicated edges are removed, the weight of one of the
+    * duplicates is kept.
+    */
+   public double[] getEdgeWeights() {
+      return _builtWeights;
+   }
+
+   /**
+    * Builds an immutable {@link CompactDiGraph} from the edges added so far.
+    *
+    * @throws IndexOutOfBoundsException
+    *            If an edge refers to a vertex outside {@code [0,n)}.
+    */
+   public CompactDiGraph buildCompact() {
+      final int[][] csr = buildCsr();
+      return new CompactDiGraph( csr[0], csr[1] );
+   }
+
+   /**
+    * Builds a mutable {@link DiGraph} from the edges added so far. The
+    * adjacencies are filled directly from the CSR arrays, the edge ids are the
+    * indices of {@link #getEdgeWeights()}.
+    *
+    * @see DiGraph#DiGraph(int[], int[], boolean)
+    */
+   public DiGraph buildDiGraph( final boolean sparse ) {
+      final int[][] csr = buildCsr();
+      return new DiGraph( csr[0], csr[1], sparse );
+   }
+
+   /** Returns the offsets and the targets. */
+   private int[][] buildCsr() {
+      final ForkJoinPool pool = _parallelism > 1 ? new ForkJoinPool( _parallelism ) : null;
+
+      try {
+         return build( pool );
+      }
+      finally {
+         if( pool != null ) {
+            pool.shutdown();
+         }
+      }
+   }
+
+   private int[][] build( final ForkJoinPool pool ) {
+      final int n = _n;
+      final int m = _size;
+      final int[] src = _src;
+      final int[] dst = _dst;
+      final double[] weights = _weights;
+      _builtWeights = null;
+
+      // 1. count the out degrees
+      final AtomicIntegerArray degrees = new AtomicIntegerArray( n );
+      ParallelLoop.run( pool, 0, m, new ParallelLoop.Body() {
+         @Override
+         public void run( final int from, final int to ) {
+            for( int i = from; i < to; i++ ) {
+               final int s = src[i];
+               final int d = dst[i];
+               if( s < 0 || s >= n || d < 0 || d >= n ) {
+                  throw new IndexOutOfBoundsException( "Edge " + s + "->" + d + " is out of range!" );
+               }
+               degrees.incrementAndGet( s );
+            }
+         }
+      } );
+
+      // 2. prefix sums
+      final int[] offsets = new int[n + 1];
+      for( int v = 0; v < n; v++ ) {
+         offsets[v + 1] = offsets[v] + degrees.get( v );
+         degrees.set( v, offsets[v] );
+      }
+
+      // 3. scatter the targets, 'degrees' now holds the insert position of each row
+      final int[] targets = new int[m];
+      final double[] targetWeights = weights != null ? new double[m] : null;
+      ParallelLoop.run( pool, 0, m, new ParallelLoop.Body() {
+         @Override
+         public void run( final int from, final int to ) {
+            for( int i = from; i < to; i++ ) {
+               final int pos = degrees.getAndIncrement( src[i] );
+               targets[pos] = dst[i];
+               if( weights != null ) {
+                  targetWeights[pos] = weights[i];
+               }
+            }
+         }
+      } );
+
+      // 4. sort each row and optionally remove duplicates
+      final boolean removeDuplicates = _removeDuplicates;
+      final int[] sizes = removeDuplicates ? new int[n] : null;
+      ParallelLoop.run( pool, 0, n, new ParallelLoop.Body() {
+         @Override
+         public void run( final int from, final int to ) {
+            long[] keys = null;
+            double[] rowWeights = null;
+
+            for( int v = from; v < to; v++ ) {
+               final int begin = offsets[v];
+               final int end = offsets[v + 1];
+
+               if( targetWeights == null ) {
+                  Arrays.sort( targets, begin, end );
+               }
+               else if( end - begin > 1 ) {
+                  // sort (target, index) pairs and permute the weights accordingly
+                  if( keys == null || keys.length < end - begin ) {
+                     keys = new long[Math.max( end - begin, 16 )];
+                     rowWeights = new double[keys.length];
+                  }
+                  for( int i = begin; i < end; i++ ) {
+                     keys[i - begin] = ( (long) targets[i] << 32 ) | ( i - begin );
+                  }
+                  System.arraycopy( targetWeights, begin, rowWeights, 0, end - begin );
+                  Arrays.sort( keys, 0, end - begin );
+                  for( int i = begin; i < end; i++ ) {
+                     final long key = keys[i - begin];
+                     targets[i] = (int) ( key >>> 32 );
+                     targetWeights[i] = rowWeights[(int) key];
+                  }
+               }
+
+               if( removeDuplicates ) {
+                  int last = begin;
+                  for( int i = begin + 1; i < end; i++ ) {
+                     if( targets[i] != targets[last] ) {
+                        targets[++last] = targets[i];
+                        if( targetWeights != null ) {
+                           targetWeights[last] = targetWeights[i];
+                        }
+                     }
+                  }
+                  sizes[v] = end > begin ? last - begin + 1 : 0;
+               }
+            }
+         }
+      } );
+
+      if( !removeDuplicates ) {
+         _builtWeights = targetWeights;
+         return new int[][] { offsets, targets };
+      }
+
+      // 5. compact the rows if there were duplicates
+      final int[] newOffsets = new int[n + 1];
+      for( int v = 0; v < n; v++ ) {
+         newOffsets[v + 1] = newOffsets[v] + sizes[v];
+      }
+      if( newOffsets[n] == m ) {
+         _builtWeights = targetWeights;
+         return new int[][] { offsets, targets };
+      }
+
+      final int[] newTargets = new int[newOffsets[n]];
+      final double[] newWeights = targetWeights != null ? new double[newOffsets[n]] : null;
+      ParallelLoop.run( pool, 0, n, new ParallelLoop.Body() {
+         @Override
+         public void run( final int from, final int to ) {
+            for( int v = from; v < to; v++ ) {
+               System.arraycopy( targets, offsets[v], newTargets, newOffsets[v], sizes[v] );
+               if( newWeights != null ) {
+                  System.arraycopy( targetWeights, offsets[v], newWeights, newOffsets[v], sizes[v] );
+               }
+            }
+         }
+      } );
+
+      _builtWeights = newWeights;
+      return new int[][] { newOffsets, newTargets };
+   }
+
+   private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+   private void ensureCapacity( final int minCapacity ) {
+      if( minCapacity < 0 ) { // overflow
+         throw new OutOfMemoryError();
+      }
+      if( minCapacity > _src.length ) {
+         int newCapacity = _src.length + ( _src.length >> 1 );
+         if( newCapacity - minCapacity < 0 ) {
+            newCapacity = minCapacity;
+         }
+         if( newCapacity - MAX_ARRAY_SIZE > 0 ) {
+            newCapacity = MAX_ARRAY_SIZE;
+         }
+         _src = Arrays.copyOf( _src, newCapacity );
+         _dst = Arrays.copyOf( _dst, newCapacity );
+         if( _weights != null ) {
+            _weights = Arrays.copyOf( _weights, newCapacity );
+         }
+      }
+   }
+
+   private void ensureWeights() {
+      if( _weights == null ) {
+         _weights = new double[_src.length];
+         Arrays.fill( _weights, 0, _size, DEFAULT_WEIGHT );
+      }
+   }
+}
@@ -1,9 +1,21 @@
 package dev.costin.fastgraph.tools;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
 import dev.costin.fastgraph.Graph;
-import dev.costin.fastgraph.algos.DepthFirstSearch;
+import dev.costin.fastgraph.GraphWithProperties;
 import dev.costin.fastgraph.algos.DepthFirstSearch.DFSVertexVisitor;
+import dev.costin.fastgraph.algos.IterativeDepthFirstSearch;
+import dev.costin.fastgraph.algos.TraversalWorkspace;
+import dev.costin.fastgraph.impl.CompactDiGraph;
 import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.impl.SubGraphView;
+import dev.costin.fastgraph.impl.SubGraphWithPropertiesView;
+import dev.costin.fastgraph.impl.UndiGraph;
+import dev.costin.fastgraph.properties.BasicProperties;
 
 
 public class GraphUtils {
@@ -20,10 +32,155 @@ public class GraphUtils {
       return graph;
    }
    
+   public static UndiGraph newFullUndiGraph( final int n ) {
+      final UndiGraph graph = new UndiGraph( n );
+      for( int u=0; u<n-1; u++ ) {
+         for( int v=u+1; v<n; v++ ) {
+            graph.addEdge( u, v );
+         }
+      }
+      
+      return graph;
+   }
+   
+   /**
+    * Returns the sub graph of {@code graph} induced by {@code vertices} as a
+    * view, without copying anything.
+    *
+    * @see SubGraphView
+    */
+   public static SubGraphView subGraphView( final Graph graph, final IntSet vertices ) {
+      return new SubGraphView( graph, vertices );
+   }
+   
+   /**
+    * Returns the sub graph of {@code graph} induced by {@code vertices} as a
+    * view sharing the properties of {@code graph}.
+    */
+   public static <V extends BasicProperties, E extends BasicProperties> SubGraphWithPropertiesView<V, E> subGraphView(
+            final GraphWithProperties<V, E> graph, final IntSet vertices ) {
+      return new SubGraphWithPropertiesView<V, E>( graph, vertices );
+   }
+   
+   /**
+    * Copies the sub graph of {@code graph} induced by {@code vertices} with
+    * the vertices renumbered to {@code [0,k)}, {@code k} being the number of
+    * vertices of {@code vertices} within {@code graph}. Unlike
+    * {@link Graph#subGraph(IntSet)} the memory needed depends only on the size
+    * of the sub graph. Large selections are copied using all available
+    * processors.
+    */
+   public static RenumberedSubGraph compactSubGraph( final Graph graph, final IntSet vertices ) {
+      return compactSubGraph( graph, vertices, Runtime.getRuntime().availableProcessors() );
+   }
+   
+   /**
+    * Like {@link #compactSubGraph(Graph, IntSet)} using at most
+    * {@code parallelism} threads.
+    */
+   public static RenumberedSubGraph compactSubGraph( final Graph graph, final IntSet vertices,
+            final int parallelism ) {
+      final int n = graph.verticesCount();
+      
+      // backward map: the selected vertices in ascending order
+      int[] selected = new int[vertices.size()];
+      int k = 0;
+      for( final IntIterator iter = vertices.intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+         if( v >= 0 && v < n ) {
+            selected[k++] = v;
+         }
+      }
+      Arrays.sort( selected, 0, k );
+      final int[] toParent = k == selected.length ? selected : Arrays.copyOf( selected, k );
+      
+      // forward map, only worth its memory if the selection is not tiny
+      final int[] toSub;
+      if( k > ( n >>> 5 ) ) {
+         toSub = new int[n];
+         Arrays.fill( toSub, -1 );
+         for( int i = 0; i < k; i++ ) {
+            toSub[toParent[i]] = i;
+         }
+      }
+      else {
+         toSub = null;
+      }
+      
+      final ForkJoinPool pool = parallelism > 1 && k > ParallelLoop.MIN_GRAIN ? new ForkJoinPool( parallelism ) : null;
+      try {
+         // 1. count the remaining edges of every vertex
+         final int[] offsets = new int[k + 1];
+         ParallelLoop.run( pool, 0, k, new ParallelLoop.Body() {
+            @Override
+            public void run( final int from, final int to ) {
+               for( int i = from; i < to; i++ ) {
+                  int degree = 0;
+                  for( final IntIterator iter = graph.adjacencyOf( toParent[i] ).intIterator(); iter.hasNext(); ) {
+                     if( renumber( toParent, toSub, iter.nextInt() ) >= 0 ) {
+                        ++degree;
+                     }
+                  }
+                  offsets[i + 1] = degree;
+               }
+            }
+         } );
+         
+         for( int i = 0; i < k; i++ ) {
+            offsets[i + 1] += offsets[i];
+         }
+         
+         // 2. copy the renumbered targets
+         final int[] targets = new int[offsets[k]];
+         ParallelLoop.run( pool, 0, k, new ParallelLoop.Body() {
+            @Override
+            public void run( final int from, final int to ) {
+               for( int i = from; i < to; i++ ) {
+                  int pos = offsets[i];
+                  for( final IntIterator iter = graph.adjacencyOf( toParent[i] ).intIterator(); iter.hasNext(); ) {
+                     final int w = renumber( toParent, toSub, iter.nextInt() );
+                     if( w >= 0 ) {
+                        targets[pos++] = w;
+                     }
+                  }
+                  Arrays.sort( targets, offsets[i], pos );
+               }
+            }
+         } );
+         
+         return new RenumberedSubGraph( new CompactDiGraph( offsets, targets ), toParent, toSub, n );
+      }
+      finally {
+         if( pool != null ) {
+            pool.shutdown();
+         }
+      }
+   }
+   
+   private static int renumber( final int[] toParent, final int[] toSub, final int vertex ) {
+      if( toSub != null ) {
+         return toSub[vertex];
+      }
+      final int i = Arrays.binarySearch( toParent, vertex );
+      return i >= 0 ? i : -1;
+   }
+   
+   /**
+    * Returns {@code true} if the graph has no cycles. Uses an
+    * {@link IterativeDepthFirstSearch}, so arbitrarily long paths are fine.
+    */
    public static boolean isCycleFree( final Graph graph ) {
+      return isCycleFree( graph, new TraversalWorkspace() );
+   }
+   
+   /**
+    * Same as {@link #isCycleFree(Graph)}, reusing the arrays of
+    * {@code workspace} for repeated checks.
+    */
+   public static boolean isCycleFree( final Graph graph, final TraversalWorkspace workspace ) {
       final CycleFinderVisitor visitor = new CycleFinderVisitor();
       
-      new DepthFirstSearch().traverse2( graph, visitor );
+      new IterativeDepthFirstSearch( workspace ).traverse2( graph, visitor );
       
       return !visitor.foundCycle;
    }
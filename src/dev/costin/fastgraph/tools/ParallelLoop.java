@@ -0,0 +1,72 @@
+package dev.costin.fastgraph.tools;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Minimal fork/join helper for running a loop over an int range in parallel.
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+class ParallelLoop {
+
+   /** The loop body, called for disjoint sub ranges of the loop range. */
+   interface Body {
+      void run( int from, int to );
+   }
+
+   /** Sub ranges are not split any further below this size. */
+   static final int MIN_GRAIN = 4096;
+
+   private static class RangeAction extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final Body _body;
+      private final int  _from;
+      private final int  _to;
+      private final int  _grain;
+
+      RangeAction( final Body body, final int from, final int to, final int grain ) {
+         _body = body;
+         _from = from;
+         _to = to;
+         _grain = grain;
+      }
+
+      @Override
+      protected void compute() {
+         if( _to - _from <= _grain ) {
+            _body.run( _from, _to );
+         }
+         else {
+            final int mid = ( _from + _to ) >>> 1;
+            invokeAll( new RangeAction( _body, _from, mid, _grain ),
+                       new RangeAction( _body, mid, _to, _grain ) );
+         }
+      }
+   }
+
+   /**
+    * Runs {@code body} for the range {@code [from,to)}. If {@code pool} is
+    * {@code null} or the range is small the body is executed in the calling
+    * thread.
+    */
+   static void run( final ForkJoinPool pool, final int from, final int to, final Body body ) {
+      final int length = to - from;
+
+      if( pool == null || length <= MIN_GRAIN ) {
+         if( length > 0 ) {
+            body.run( from, to );
+         }
+      }
+      else {
+         final int grain = Math.max( MIN_GRAIN, length / ( pool.getParallelism() * 8 ) );
+         pool.invoke( new RangeAction( body, from, to, grain ) );
+      }
+   }
+
+   private ParallelLoop() {
+   }
+}
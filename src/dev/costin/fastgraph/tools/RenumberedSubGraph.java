@@ -0,0 +1,85 @@
+package dev.costin.fastgraph.tools;
+
+import java.util.Arrays;
+
+import dev.costin.fastgraph.impl.CompactDiGraph;
+
+/**
+ * A sub graph whose vertices have been renumbered to {@code [0,k)}, as
+ * created by {@link GraphUtils#compactSubGraph(dev.costin.fastgraph.Graph,
+ * dev.costin.fastcollections.sets.IntSet)}.
+ *
+ * <p>
+ * The vertices keep their relative order, i.e. the vertex with the smallest id
+ * of the parent graph becomes {@code 0}.
+ * </p>
+ *
+ * @author Stefan C. Ionescu
+ *
+ */
+public class RenumberedSubGraph {
+
+   private final CompactDiGraph _graph;
+   private final int[]          _toParent;
+   private final int            _parentVerticesCount;
+   private int[]                _toSub;
+
+   RenumberedSubGraph( final CompactDiGraph graph, final int[] toParent, final int[] toSub,
+                       final int parentVerticesCount ) {
+      _graph = graph;
+      _toParent = toParent;
+      _toSub = toSub;
+      _parentVerticesCount = parentVerticesCount;
+   }
+
+   /** Returns the sub graph with the vertices {@code [0,k)}. */
+   public CompactDiGraph graph() {
+      return _graph;
+   }
+
+   /**
+    * Returns the backward map of length {@code k}: entry {@code i} is the id in
+    * the parent graph of vertex {@code i}. The array is sorted ascending and
+    * must not be modified.
+    */
+   public int[] toParentMap() {
+      return _toParent;
+   }
+
+   /**
+    * Returns the forward map of length {@code n} of the parent graph: entry
+    * {@code v} is the id of the parent vertex {@code v} in the sub graph or
+    * {@code -1}. For small sub graphs the map is only created on the first
+    * call; prefer {@link #toSub(int)} for single lookups. The array must not
+    * be modified.
+    */
+   public int[] toSubMap() {
+      int[] toSub = _toSub;
+      if( toSub == null ) {
+         toSub = new int[_parentVerticesCount];
+         Arrays.fill( toSub, -1 );
+         for( int i = 0; i < _toParent.length; i++ ) {
+            toSub[_toParent[i]] = i;
+         }
+         _toSub = toSub;
+      }
+      return toSub;
+   }
+
+   /** Returns the id in the parent graph of the sub graph vertex {@code vertex}, see {@link #toParentMap()}. */
+   public int toParent( final int vertex ) {
+      return _toParent[vertex];
+   }
+
+   /**
+    * Returns the id of the parent vertex {@code vertex} in the sub graph, or
+    * {@code -1} if it is not part of the sub graph.
+    */
+   public int toSub( final int vertex ) {
+      if( _toSub != null ) {
+         return _toSub[vertex];
+      }
+      final int i = Arrays.binarySearch( _toParent, vertex );
+      return i >= 0 ? i : -1;
+   }
+}
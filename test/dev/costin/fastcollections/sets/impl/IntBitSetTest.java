@@ -0,0 +1,123 @@
+package dev.costin.fastcollections.sets.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntIterator;
+
+public class IntBitSetTest {
+
+   @Test
+   public void testAddRemove() {
+      final IntBitSet set = new IntBitSet( 130 );
+
+      assertTrue( set.add( 0 ) );
+      assertTrue( set.add( 63 ) );
+      assertTrue( set.add( 64 ) );
+      assertTrue( set.add( 129 ) );
+      assertFalse( set.add( 64 ) );
+
+      assertTrue( set.size() == 4 );
+      assertTrue( set.contains( 129 ) );
+      assertFalse( set.contains( 130 ) );
+      assertFalse( set.contains( -1 ) );
+
+      assertTrue( set.remove( 63 ) );
+      assertFalse( set.remove( 63 ) );
+      assertTrue( set.size() == 3 );
+
+      try {
+         set.add( 130 );
+         fail();
+      }
+      catch( IndexOutOfBoundsException e ) {
+      }
+   }
+
+   @Test
+   public void testIteration() {
+      final IntBitSet set = new IntBitSet( 1000 );
+      for( int i = 0; i < 1000; i += 7 ) {
+         set.add( i );
+      }
+
+      int expected = 0;
+      for( final IntIterator iter = set.intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+         assertTrue( v == expected );
+         if( v % 2 == 0 ) {
+            iter.remove();
+         }
+         expected += 7;
+      }
+      assertTrue( expected == 1001 );
+      assertTrue( set.size() == 71 );
+      assertTrue( set.nextSetBit( 0 ) == 7 );
+      assertTrue( set.nextSetBit( 996 ) == -1 );
+
+      final IntIterator iter = set.intIterator();
+      iter.nextInt();
+      set.add( 1 );
+      try {
+         iter.nextInt();
+         fail();
+      }
+      catch( ConcurrentModificationException e ) {
+      }
+   }
+
+   @Test
+   public void testBulkOperations() {
+      final IntBitSet a = new IntBitSet( 200 );
+      final IntBitSet b = new IntBitSet( 100 );
+      a.addAll( 1, 2, 3, 150 );
+      b.addAll( 2, 3, 4, 99 );
+
+      assertTrue( a.intersectionSize( b ) == 2 );
+
+      final IntBitSet union = new IntBitSet( a );
+      assertTrue( union.addAll( b ) );
+      assertTrue( union.size() == 6 );
+      assertFalse( union.addAll( b ) );
+
+      final IntBitSet intersection = new IntBitSet( a );
+      assertTrue( intersection.retainAll( b ) );
+      assertTrue( intersection.size() == 2 );
+      assertTrue( intersection.contains( 2 ) && intersection.contains( 3 ) );
+
+      final IntBitSet difference = new IntBitSet( a );
+      assertTrue( difference.removeAll( b ) );
+      assertTrue( difference.size() == 2 );
+      assertTrue( difference.contains( 1 ) && difference.contains( 150 ) );
+
+      // elements beyond the capacity are dropped
+      final IntBitSet small = new IntBitSet( 70 );
+      small.addAll( a );
+      assertTrue( small.size() == 3 );
+      assertFalse( small.contains( 150 ) );
+   }
+
+   @Test
+   public void testRank() {
+      final IntBitSet set = new IntBitSet( 200 );
+      set.addAll( 0, 5, 63, 64, 127, 128, 199 );
+
+      assertTrue( set.rank( 0 ) == 0 );
+      assertTrue( set.rank( 5 ) == 1 );
+      assertTrue( set.rank( 6 ) == 2 );
+      assertTrue( set.rank( 64 ) == 3 );
+      assertTrue( set.rank( 128 ) == 5 );
+      assertTrue( set.rank( 199 ) == 6 );
+      assertTrue( set.rank( 200 ) == 7 );
+      assertTrue( set.rank( 1000 ) == 7 );
+      assertTrue( set.rank( -1 ) == 0 );
+
+      int rank = 0;
+      for( int v = set.nextSetBit( 0 ); v >= 0; v = set.nextSetBit( v + 1 ) ) {
+         assertTrue( set.rank( v ) == rank++ );
+      }
+   }
+}
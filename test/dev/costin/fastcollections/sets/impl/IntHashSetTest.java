@@ -0,0 +1,146 @@
+package dev.costin.fastcollections.sets.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntCursor;
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.IntSet;
+
+public class IntHashSetTest {
+
+   boolean equals( IntSet intSet, Set<Integer> javaSet ) {
+      if( intSet.size() != javaSet.size() ) {
+         return false;
+      }
+      for( IntCursor cursor : intSet ) {
+         if( !javaSet.contains( Integer.valueOf( cursor.value() ) ) ) {
+            return false;
+         }
+      }
+      for( Integer i : javaSet ) {
+         if( !intSet.contains( i.intValue() ) ) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Test
+   public void testAddRemove() {
+      final IntHashSet set = new IntHashSet();
+
+      assertFalse( set.contains( 0 ) );
+      assertTrue( set.add( 5 ) );
+      assertFalse( set.add( 5 ) );
+      assertTrue( set.add( -7 ) );
+      assertTrue( set.add( Integer.MAX_VALUE ) );
+
+      assertTrue( set.size() == 3 );
+      assertTrue( set.contains( -7 ) );
+      assertTrue( set.contains( Integer.MAX_VALUE ) );
+
+      assertTrue( set.remove( 5 ) );
+      assertFalse( set.remove( 5 ) );
+      assertFalse( set.contains( 5 ) );
+      assertTrue( set.contains( -7 ) );
+      assertTrue( set.contains( Integer.MAX_VALUE ) );
+      assertTrue( set.size() == 2 );
+
+      set.clear();
+      assertTrue( set.isEmpty() );
+      assertFalse( set.contains( -7 ) );
+   }
+
+   @Test
+   public void testClearCollidingKeys() {
+      // 1 and 337 fall into the same probe chain
+      final IntHashSet set = new IntHashSet( 100 );
+      set.add( 1 );
+      set.add( 337 );
+      set.clear();
+      assertTrue( set.isEmpty() );
+      assertFalse( set.contains( 1 ) );
+      assertFalse( set.contains( 337 ) );
+      assertTrue( set.add( 337 ) );
+      assertTrue( set.contains( 337 ) );
+
+      // few elements in a large table are cleared slot by slot
+      final Random rnd = new Random( 5 );
+      final IntHashSet sparse = new IntHashSet( 4096 );
+      for( int round = 0; round < 50; round++ ) {
+         final int[] values = new int[100];
+         for( int i = 0; i < values.length; i++ ) {
+            values[i] = rnd.nextInt( 1 << 20 );
+            sparse.add( values[i] );
+         }
+         sparse.clear();
+         assertTrue( sparse.isEmpty() );
+         for( final int v : values ) {
+            assertFalse( sparse.contains( v ) );
+         }
+      }
+   }
+
+   @Test
+   public void testRandom() {
+      final int n = 10000;
+      final Random rnd = new Random( 17 );
+
+      final IntHashSet intSet = new IntHashSet( 4 );
+      final Set<Integer> javaSet = new HashSet<>( n );
+
+      for( int i = 0; i < n; i++ ) {
+         final int val = rnd.nextInt( n * 10 );
+
+         assertTrue( intSet.add( val ) == javaSet.add( val ) );
+      }
+
+      assertTrue( equals( intSet, javaSet ) );
+
+      for( int i = 0; i < n * 2; i++ ) {
+         final int val = rnd.nextInt( n * 10 );
+
+         assertTrue( intSet.remove( val ) == javaSet.remove( val ) );
+      }
+
+      assertTrue( equals( intSet, javaSet ) );
+
+      int j = 0;
+      for( IntIterator iter = intSet.intIterator(); j < n / 4 && iter.hasNext(); j++ ) {
+         final int val = iter.nextInt();
+
+         iter.remove();
+         javaSet.remove( val );
+      }
+
+      assertTrue( equals( intSet, javaSet ) );
+   }
+
+   @Test
+   public void testRemoveAllByIterator() {
+      final int n = 1000;
+
+      final IntHashSet intSet = new IntHashSet();
+
+      for( int i = 0; i < n; i++ ) {
+         intSet.add( i * 31 );
+      }
+
+      int c = 0;
+      for( IntIterator iter = intSet.intIterator(); iter.hasNext(); ) {
+         iter.nextInt();
+         iter.remove();
+         c++;
+      }
+
+      assertTrue( c == n );
+      assertTrue( intSet.size() == 0 );
+      assertFalse( intSet.contains( 31 ) );
+   }
+}
@@ -0,0 +1,60 @@
+package dev.costin.fastcollections.tools;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.maps.impl.IntObjectGrowingMap;
+import dev.costin.fastcollections.sets.impl.IntGrowingSet;
+
+public class MemoryReportTest {
+
+   @Test
+   public void testTotals() {
+      final MemoryReport report = new MemoryReport( "root", 16, 0 );
+      report.add( "a", 100, 40 );
+      report.add( new MemoryReport( "b" ).add( "c", 24, 8 ) );
+
+      assertEquals( 140, report.bytes() );
+      assertEquals( 48, report.wastedBytes() );
+      assertEquals( 24, report.component( "b" ).bytes() );
+      assertNull( report.component( "d" ) );
+   }
+
+   @Test
+   public void testMerge() {
+      final MemoryReport sum = new MemoryReport( "sum" );
+      sum.merge( new MemoryReport( "x", 16, 0 ).add( "list", 32, 8 ) );
+      sum.merge( new MemoryReport( "y", 16, 0 ).add( "list", 48, 16 ).add( "ids", 24, 0 ) );
+
+      assertEquals( 2, sum.components().size() );
+      assertEquals( 80, sum.component( "list" ).bytes() );
+      assertEquals( 24, sum.component( "list" ).wastedBytes() );
+      assertEquals( 136, sum.bytes() );
+   }
+
+   @Test
+   public void testSizes() {
+      assertEquals( 16, MemoryReport.arrayBytes( 0, 4 ) );
+      assertEquals( 24, MemoryReport.arrayBytes( 1, 4 ) );
+      assertEquals( 56, MemoryReport.arrayBytes( 10, 4 ) );
+      assertEquals( 16, MemoryReport.objectBytes( 4 ) );
+   }
+
+   @Test
+   public void testCollections() {
+      final IntGrowingSet set = new IntGrowingSet( 0, 99, 100 );
+      set.add( 5 );
+      MemoryReport report = set.memoryFootprint();
+      assertEquals( 99 * 4, report.component( "list" ).wastedBytes() );
+      assertEquals( 99 * 4, report.component( "set" ).wastedBytes() );
+
+      final IntObjectGrowingMap<String> map = new IntObjectGrowingMap<String>();
+      for( int i = 0; i < 10; i++ ) {
+         map.put( i, "v" );
+      }
+      report = map.memoryFootprint();
+      assertTrue( report.component( "entries" ).bytes() > 0 );
+      assertTrue( report.component( "entry list" ).bytes() >= MemoryReport.arrayBytes( 10, MemoryReport.REFERENCE ) );
+   }
+}
@@ -0,0 +1,101 @@
+package dev.costin.fastgraph.algos;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.algos.BreadthFirstSearch.BFSVertexVisitor;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+
+public class BreadthFirstSearchTest {
+
+   private static Graph createGraph() {
+      final Graph graph = new DiGraph( 7 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 0, 2 );
+      graph.addEdge( 1, 3 );
+      graph.addEdge( 2, 3 );
+      graph.addEdge( 3, 4 );
+      graph.addEdge( 4, 0 );
+      graph.addEdge( 5, 6 );
+      return graph;
+   }
+
+   @Test
+   public void testDepthAndParent() {
+      for( final Graph graph : new Graph[] { createGraph(), new CompactDiGraph( createGraph() ) } ) {
+         final int[] depth = new int[7];
+         final int[] parent = new int[7];
+         Arrays.fill( depth, -1 );
+         final List<Integer> order = new ArrayList<Integer>();
+
+         new BreadthFirstSearch().traverse2( graph, 0, new BFSVertexVisitor() {
+            @Override
+            public boolean visit( int vertex, int d, int p ) {
+               order.add( vertex );
+               depth[vertex] = d;
+               parent[vertex] = p;
+               return true;
+            }
+         } );
+
+         assertEquals( Arrays.asList( 0, 1, 2, 3, 4 ), order );
+         assertArrayEquals( new int[] { 0, 1, 1, 2, 3, -1, -1 }, depth );
+         assertEquals( -1, parent[0] );
+         assertEquals( 1, parent[3] );
+         assertEquals( 3, parent[4] );
+      }
+   }
+
+   @Test
+   public void testAllVertices() {
+      final boolean[] visited = new boolean[7];
+      new BreadthFirstSearch().traverse( createGraph(), new VertexVisitor() {
+         @Override
+         public boolean visit( int vertex ) {
+            assertFalse( visited[vertex] );
+            visited[vertex] = true;
+            return true;
+         }
+      } );
+      for( final boolean v : visited ) {
+         assertTrue( v );
+      }
+   }
+
+   @Test
+   public void testEarlyTermination() {
+      final int[] count = new int[1];
+      new BreadthFirstSearch().traverse( createGraph(), new VertexVisitor() {
+         @Override
+         public boolean visit( int vertex ) {
+            return ++count[0] < 3;
+         }
+      } );
+      assertEquals( 3, count[0] );
+   }
+
+   @Test
+   public void testRecording() {
+      final Graph graph = createGraph();
+      assertArrayEquals( new int[] { 2, 3, 3, 0, 1, -1, -1 }, BreadthFirstSearch.distances( graph, 3 ) );
+
+      final int[] parents = new int[7];
+      Arrays.fill( parents, -2 );
+      final BreadthFirstSearch bfs = new BreadthFirstSearch( new TraversalWorkspace() );
+      bfs.recordParents( parents );
+      bfs.traverse( graph, 5, new VertexVisitor() {
+         @Override
+         public boolean visit( int vertex ) {
+            return true;
+         }
+      } );
+      assertArrayEquals( new int[] { -2, -2, -2, -2, -2, -1, 5 }, parents );
+   }
+}
@@ -0,0 +1,87 @@
+package dev.costin.fastgraph.algos;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.impl.UndiGraph;
+
+public class DirectionOptimizingBFSTest {
+
+   /** A graph with a few hubs, so the middle levels contain most vertices. */
+   private static void addScaleFreeEdges( final Graph graph, final Random rnd ) {
+      final int n = graph.verticesCount();
+      for( int v = 1; v < n; v++ ) {
+         for( int k = 0; k < 4; k++ ) {
+            // prefer small ids, which become hubs
+            final int u = (int) ( v * Math.pow( rnd.nextDouble(), 3 ) );
+            graph.addEdge( v, u );
+            graph.addEdge( u, v );
+         }
+      }
+   }
+
+   @Test
+   public void testSameAsBfs() {
+      final Random rnd = new Random( 7 );
+      final DiGraph directed = new DiGraph( 3000, true );
+      addScaleFreeEdges( directed, rnd );
+      // some one way edges
+      for( int i = 0; i < 500; i++ ) {
+         directed.addEdge( rnd.nextInt( 3000 ), rnd.nextInt( 3000 ) );
+      }
+      final UndiGraph undirected = new UndiGraph( 3000, true );
+      addScaleFreeEdges( undirected, rnd );
+
+      for( final Graph graph : new Graph[] { directed, new CompactDiGraph( directed ), undirected } ) {
+         for( final int start : new int[] { 0, 1234, 2999 } ) {
+            final DirectionOptimizingBFS bfs = new DirectionOptimizingBFS();
+            final int[] parents = new int[graph.verticesCount()];
+            bfs.recordParents( parents );
+            final int[] distances = bfs.distances( graph, start );
+
+            assertArrayEquals( BreadthFirstSearch.distances( graph, start ), distances );
+            assertTrue( bfs.bottomUpLevels() > 0 );
+            // the search uses its own transposed graph
+            assertFalse( directed.isPredecessorIndexEnabled() );
+            for( int v = 0; v < distances.length; v++ ) {
+               if( distances[v] > 0 ) {
+                  assertTrue( graph.hasEdge( parents[v], v ) );
+                  assertEquals( distances[v] - 1, distances[parents[v]] );
+               }
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testUnreachable() {
+      final Graph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 3, 4 );
+      assertArrayEquals( new int[] { 0, 1, 2, -1, -1 }, new DirectionOptimizingBFS().distances( graph, 0 ) );
+   }
+
+   @Test
+   public void testLeavesPredecessorIndex() {
+      final DiGraph graph = new DiGraph( 3000, true );
+      addScaleFreeEdges( graph, new Random( 11 ) );
+      final int[] expected = BreadthFirstSearch.distances( graph, 0 );
+
+      for( final boolean enabled : new boolean[] { false, true } ) {
+         if( enabled ) {
+            graph.enablePredecessorIndex();
+         }
+         final DirectionOptimizingBFS bfs = new DirectionOptimizingBFS();
+         assertArrayEquals( expected, bfs.distances( graph, 0 ) );
+         assertTrue( bfs.bottomUpLevels() > 0 );
+         assertEquals( enabled, graph.isPredecessorIndexEnabled() );
+      }
+   }
+}
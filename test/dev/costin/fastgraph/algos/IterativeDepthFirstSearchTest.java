@@ -0,0 +1,131 @@
+package dev.costin.fastgraph.algos;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.algos.DepthFirstSearch.DFSVertexVisitor;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.impl.UndiGraph;
+
+public class IterativeDepthFirstSearchTest {
+
+   /** Records all events of a traversal as strings. */
+   private static class Recorder implements DFSVertexVisitor {
+
+      final List<String> _events = new ArrayList<String>();
+
+      @Override
+      public boolean visitEdge( int source, int dest ) {
+         _events.add( "visit " + source + "->" + dest );
+         return true;
+      }
+
+      @Override
+      public void onNewTree( int root ) {
+         _events.add( "tree " + root );
+      }
+
+      @Override
+      public boolean onBackEdge( int source, int dest ) {
+         _events.add( "back " + source + "->" + dest );
+         return true;
+      }
+
+      @Override
+      public boolean onTreeCrossingEdge( int source, int dest ) {
+         _events.add( "cross " + source + "->" + dest );
+         return true;
+      }
+
+      @Override
+      public boolean onSameTreeCrossingEdge( int source, int dest ) {
+         _events.add( "same " + source + "->" + dest );
+         return true;
+      }
+   }
+
+   @Test
+   public void testSameAsRecursive() {
+      final Random rnd = new Random( 42 );
+      for( int run = 0; run < 20; run++ ) {
+         final int n = 1 + rnd.nextInt( 40 );
+         final Graph directed = new DiGraph( n );
+         final Graph undirected = new UndiGraph( n );
+         for( int i = rnd.nextInt( 3 * n ); i > 0; i-- ) {
+            final int u = rnd.nextInt( n );
+            final int v = rnd.nextInt( n );
+            directed.addEdge( u, v );
+            undirected.addEdge( u, v );
+         }
+
+         for( final Graph graph : new Graph[] { directed, undirected } ) {
+            final Recorder expected = new Recorder();
+            new DepthFirstSearch().traverse2( graph, expected );
+            final Recorder actual = new Recorder();
+            new IterativeDepthFirstSearch().traverse2( graph, actual );
+            assertEquals( expected._events, actual._events );
+
+            final Recorder expectedEdges = new Recorder();
+            new DepthFirstSearch().traverse( graph, expectedEdges );
+            final Recorder actualEdges = new Recorder();
+            new IterativeDepthFirstSearch().traverse( graph, actualEdges );
+            assertEquals( expectedEdges._events, actualEdges._events );
+         }
+      }
+   }
+
+   @Test
+   public void testEarlyTermination() {
+      final Graph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 2, 0 );
+      graph.addEdge( 3, 4 );
+
+      final List<Integer> visited = new ArrayList<Integer>();
+      new IterativeDepthFirstSearch().traverse2( graph, new Recorder() {
+         @Override
+         public boolean onBackEdge( int source, int dest ) {
+            return false;
+         }
+
+         @Override
+         public boolean visitEdge( int source, int dest ) {
+            visited.add( dest );
+            return true;
+         }
+      } );
+      assertEquals( 3, visited.size() );
+   }
+
+   @Test
+   public void testDeepChain() {
+      final int n = 1000000;
+      final int[] offsets = new int[n + 1];
+      final int[] targets = new int[n - 1];
+      for( int v = 0; v < n - 1; v++ ) {
+         targets[v] = v + 1;
+         offsets[v + 1] = v + 1;
+      }
+      offsets[n] = n - 1;
+      final Graph chain = new CompactDiGraph( offsets, targets );
+
+      final int[] count = new int[1];
+      new IterativeDepthFirstSearch().traverse( chain, new EdgeVisitor() {
+         @Override
+         public boolean visitEdge( int source, int dest ) {
+            assertTrue( source == dest - 1 );
+            count[0]++;
+            return true;
+         }
+      } );
+      assertEquals( n, count[0] );
+   }
+}
@@ -0,0 +1,49 @@
+package dev.costin.fastgraph.algos;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+
+public class ParallelBFSTest {
+
+   @Test
+   public void testSameAsBfs() {
+      final Random rnd = new Random( 11 );
+      final int n = 50000;
+      final DiGraph graph = new DiGraph( n, true );
+      for( int i = 0; i < 8 * n; i++ ) {
+         graph.addEdge( rnd.nextInt( n ), rnd.nextInt( n ) );
+      }
+      final CompactDiGraph compact = new CompactDiGraph( graph );
+
+      final ForkJoinPool pool = new ForkJoinPool( 4 );
+      try {
+         for( final Graph g : new Graph[] { graph, compact } ) {
+            for( final int start : new int[] { 0, 17, n - 1 } ) {
+               final int[] expected = BreadthFirstSearch.distances( g, start );
+               assertArrayEquals( expected, ParallelBFS.distances( g, start, pool ) );
+               assertArrayEquals( expected, ParallelBFS.distances( g, start, 1 ) );
+            }
+         }
+      }
+      finally {
+         pool.shutdown();
+      }
+   }
+
+   @Test
+   public void testUnreachable() {
+      final Graph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 3, 4 );
+      assertArrayEquals( new int[] { 0, 1, 2, -1, -1 }, ParallelBFS.distances( graph, 0 ) );
+   }
+}
@@ -0,0 +1,64 @@
+package dev.costin.fastgraph.algos;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.tools.GraphUtils;
+
+public class TraversalWorkspaceTest {
+
+   @Test
+   public void testMarks() {
+      final TraversalWorkspace workspace = new TraversalWorkspace( 4 );
+      workspace.mark( 1, 1 );
+      workspace.mark( 2, TraversalWorkspace.MAX_MARK );
+      assertEquals( 0, workspace.mark( 0 ) );
+      assertEquals( 1, workspace.mark( 1 ) );
+      assertEquals( TraversalWorkspace.MAX_MARK, workspace.mark( 2 ) );
+      assertTrue( workspace.isMarked( 1 ) );
+
+      // a new traversal forgets all marks
+      workspace.begin( 8 );
+      for( int v = 0; v < 8; v++ ) {
+         assertFalse( workspace.isMarked( v ) );
+      }
+      assertTrue( workspace.parents().length >= 8 );
+   }
+
+   @Test
+   public void testReuse() {
+      final Graph graph = new DiGraph( 6 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 3, 4 );
+      graph.addEdge( 4, 3 );
+
+      final TraversalWorkspace workspace = new TraversalWorkspace();
+      for( final DepthFirstSearch dfs : new DepthFirstSearch[] { new DepthFirstSearch( workspace ),
+               new IterativeDepthFirstSearch( workspace ) } ) {
+         for( int run = 0; run < 3; run++ ) {
+            final int[] count = new int[1];
+            final EdgeVisitor counter = new EdgeVisitor() {
+               @Override
+               public boolean visitEdge( int source, int dest ) {
+                  count[0]++;
+                  return true;
+               }
+            };
+            dfs.traverse( graph, 0, counter );
+            assertEquals( 3, count[0] );
+
+            count[0] = 0;
+            dfs.traverse( graph, 3, counter );
+            assertEquals( 2, count[0] );
+         }
+      }
+
+      assertFalse( GraphUtils.isCycleFree( graph, workspace ) );
+      graph.removeEdge( 4, 3 );
+      assertTrue( GraphUtils.isCycleFree( graph, workspace ) );
+   }
+}
@@ -0,0 +1,136 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.impl.IntBitSet;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.tools.GraphUtils;
+
+
+public class BitMatrixDiGraphTest {
+
+   @Test
+   public void testFullGraph() {
+      final int n = 100;
+      final BitMatrixDiGraph graph = new BitMatrixDiGraph( GraphUtils.newFullDiGraph( n ) );
+
+      assertTrue( graph.edgesCount() == n * ( n - 1 ) );
+      assertTrue( graph.getOutDegree( 5 ) == n - 1 );
+      assertTrue( graph.getInDegree( 5 ) == n - 1 );
+      assertFalse( graph.hasEdge( 5, 5 ) );
+      assertTrue( graph.hasEdge( 5, 99 ) );
+
+      int previous = -1;
+      for( final IntIterator iter = graph.adjacencyOf( 7 ).intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+         assertTrue( v > previous && v != 7 );
+         previous = v;
+      }
+
+      final IntBitSet common = new IntBitSet( graph.adjacencyOf( 1 ) );
+      common.retainAll( graph.adjacencyOf( 2 ) );
+      assertTrue( common.size() == n - 2 );
+   }
+
+   @Test
+   public void testEdgesCount() {
+      final BitMatrixDiGraph graph = new BitMatrixDiGraph( 70 );
+      graph.addEdge( 0, 69 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 1, 3 );
+      assertTrue( graph.edgesCount() == 3 );
+
+      graph.adjacencyOf( 0 ).addAll( graph.adjacencyOf( 1 ) );
+      assertTrue( graph.edgesCount() == 5 );
+
+      graph.adjacencyOf( 0 ).removeAll( graph.adjacencyOf( 1 ) );
+      assertTrue( graph.edgesCount() == 3 );
+
+      graph.adjacencyOf( 1 ).clear();
+      assertTrue( graph.edgesCount() == 1 );
+      assertTrue( graph.predecessorsOf( 69 ).contains( 0 ) );
+   }
+
+   @Test
+   public void testEdgeIds() {
+      final int n = 150;
+      final BitMatrixDiGraph graph = new BitMatrixDiGraph( n );
+      for( int u = 0; u < n; u += 3 ) {
+         for( int v = u % 7; v < n; v += 5 ) {
+            graph.addEdge( u, v );
+         }
+      }
+      assertTrue( graph.edgeIdBound() == graph.edgesCount() );
+
+      // the ids are unique and stay with their edge
+      final int[] ids = new int[n * n];
+      final boolean[] used = new boolean[graph.edgeIdBound()];
+      for( int u = 0; u < n; u++ ) {
+         for( int v = 0; v < n; v++ ) {
+            final int id = ids[u * n + v] = graph.edgeId( u, v );
+            assertTrue( id == graph.adjacencyOf( u ).edgeId( v ) );
+            assertTrue( ( id >= 0 ) == graph.hasEdge( u, v ) );
+            if( id >= 0 ) {
+               assertFalse( used[id] );
+               used[id] = true;
+            }
+         }
+      }
+
+      final int removed = graph.edgeId( 0, 5 );
+      assertTrue( graph.removeEdge( 0, 5 ) );
+      assertTrue( graph.addEdge( 0, 1 ) );
+      assertTrue( graph.edgeId( 0, 1 ) == removed );
+      assertTrue( graph.addEdge( 0, 2 ) );
+      assertTrue( graph.edgeId( 0, 2 ) == used.length );
+
+      // bulk operations keep the ids of the remaining edges
+      final BitMatrixDiGraph.BitRowAdjacency row = graph.adjacencyOf( 3 );
+      row.retainAll( graph.adjacencyOf( 6 ) );
+      row.addAll( graph.adjacencyOf( 9 ) );
+      graph.adjacencyOf( 12 ).clear();
+      for( int u = 0; u < n; u++ ) {
+         for( int v = 0; v < n; v++ ) {
+            if( u == 0 && v < 6 || u == 3 || u == 12 ) {
+               continue;
+            }
+            assertTrue( graph.edgeId( u, v ) == ids[u * n + v] );
+         }
+      }
+      for( int v = 0; v < n; v++ ) {
+         if( graph.hasEdge( 3, v ) && ids[3 * n + v] >= 0 ) {
+            assertTrue( graph.edgeId( 3, v ) == ids[3 * n + v] );
+         }
+         assertTrue( graph.edgeId( 12, v ) == -1 );
+      }
+
+      // all ids of the existing edges are still unique and below the bound
+      final boolean[] seen = new boolean[graph.edgeIdBound()];
+      int count = 0;
+      for( int u = 0; u < n; u++ ) {
+         for( int v = 0; v < n; v++ ) {
+            final int id = graph.edgeId( u, v );
+            if( id >= 0 ) {
+               assertFalse( seen[id] );
+               seen[id] = true;
+               ++count;
+            }
+         }
+      }
+      assertTrue( count == graph.edgesCount() );
+   }
+
+   @Test
+   public void testSubGraph() {
+      final BitMatrixDiGraph graph = new BitMatrixDiGraph( GraphUtils.newFullDiGraph( 100 ) );
+      final BitMatrixDiGraph subGraph = graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 1, 7 ) );
+
+      assertTrue( subGraph.edgesCount() == 6 );
+      assertTrue( subGraph.hasEdge( 7, 1 ) );
+      assertFalse( subGraph.hasEdge( 7, 2 ) );
+      assertTrue( subGraph.getOutDegree( 2 ) == 0 );
+   }
+}
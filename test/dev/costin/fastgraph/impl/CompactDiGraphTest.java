@@ -0,0 +1,131 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntCursor;
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.Adjacency;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.tools.GraphUtils;
+
+
+public class CompactDiGraphTest {
+
+   @Test
+   public void testToCompact() {
+      final DiGraph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 3 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 3, 0 );
+      graph.addEdge( 3, 4 );
+      graph.addEdge( 3, 2 );
+
+      final CompactDiGraph compact = graph.toCompact();
+
+      assertTrue( compact.verticesCount() == 5 );
+      assertTrue( compact.edgesCount() == 6 );
+
+      for( int u = 0; u < 5; u++ ) {
+         assertTrue( compact.getOutDegree( u ) == graph.getOutDegree( u ) );
+         assertTrue( compact.getInDegree( u ) == graph.getInDegree( u ) );
+         for( int v = 0; v < 5; v++ ) {
+            assertTrue( compact.hasEdge( u, v ) == graph.hasEdge( u, v ) );
+            assertTrue( compact.adjacencyOf( u ).contains( v ) == graph.hasEdge( u, v ) );
+         }
+      }
+
+      // targets are sorted
+      final IntIterator iter = compact.adjacencyOf( 3 ).intIterator();
+      assertTrue( iter.nextInt() == 0 );
+      assertTrue( iter.nextInt() == 2 );
+      assertTrue( iter.nextInt() == 4 );
+      assertFalse( iter.hasNext() );
+
+      int count = 0;
+      for( final IntCursor cursor : compact.adjacencyOf( 0 ) ) {
+         assertTrue( graph.hasEdge( 0, cursor.value() ) );
+         count++;
+      }
+      assertTrue( count == 2 );
+
+      assertTrue( compact.adjacencyOf( 4 ).isEmpty() );
+   }
+
+   @Test
+   public void testImmutable() {
+      final CompactDiGraph compact = GraphUtils.newFullDiGraph( 4 ).toCompact();
+      final Adjacency adj = compact.adjacencyOf( 1 );
+
+      try {
+         compact.addEdge( 0, 1 );
+         fail();
+      }
+      catch( UnsupportedOperationException e ) {
+      }
+
+      try {
+         adj.remove( 0 );
+         fail();
+      }
+      catch( UnsupportedOperationException e ) {
+      }
+
+      assertTrue( compact.edgesCount() == 12 );
+   }
+
+   @Test
+   public void testPredecessors() {
+      final DiGraph graph = new DiGraph( 5 );
+      graph.addEdge( 4, 1 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 2, 1 );
+      graph.addEdge( 1, 3 );
+
+      final CompactDiGraph compact = graph.toCompact();
+      final IntIterator iter = compact.predecessorsOf( 1 ).intIterator();
+      assertTrue( iter.nextInt() == 0 );
+      assertTrue( iter.nextInt() == 2 );
+      assertTrue( iter.nextInt() == 4 );
+      assertFalse( iter.hasNext() );
+
+      assertTrue( compact.predecessorsOf( 3 ).contains( 1 ) );
+      assertTrue( compact.predecessorsOf( 0 ).isEmpty() );
+   }
+
+   @Test
+   public void testSubGraph() {
+      final CompactDiGraph compact = GraphUtils.newFullDiGraph( 100 ).toCompact();
+      final CompactDiGraph subGraph = compact.subGraph( FastCollections.newIntRangeSetWithElements( 0, 1, 7 ) );
+
+      assertTrue( subGraph.edgesCount() == 6 );
+      assertTrue( subGraph.hasEdge( 0, 7 ) );
+      assertTrue( subGraph.hasEdge( 7, 1 ) );
+      assertFalse( subGraph.hasEdge( 0, 2 ) );
+      assertTrue( subGraph.getInDegree( 7 ) == 2 );
+      assertTrue( subGraph.getOutDegree( 50 ) == 0 );
+   }
+
+   @Test
+   public void testEdgeIds() {
+      final DiGraph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 4 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 2, 0 );
+      graph.addEdge( 4, 0 );
+
+      for( final Graph g : new Graph[] { new CompactDiGraph( graph ), new CompressedDiGraph( graph ) } ) {
+         assertTrue( g.edgeIdBound() == 4 );
+         assertTrue( g.edgeId( 0, 1 ) == 0 );
+         assertTrue( g.edgeId( 0, 4 ) == 1 );
+         assertTrue( g.edgeId( 2, 0 ) == 2 );
+         assertTrue( g.edgeId( 4, 0 ) == 3 );
+         assertTrue( g.edgeId( 4, 1 ) == -1 );
+         assertTrue( g.adjacencyOf( 2 ).edgeId( 0 ) == 2 );
+      }
+      assertTrue( new CompactDiGraph( graph ).predecessorsOf( 0 ).edgeId( 4 ) == 3 );
+   }
+}
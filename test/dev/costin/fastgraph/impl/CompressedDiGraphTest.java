@@ -0,0 +1,67 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.tools.FastCollections;
+
+
+public class CompressedDiGraphTest {
+
+   @Test
+   public void testSameAsSource() {
+      final int n = 1000;
+      final DiGraph graph = new DiGraph( n, true );
+      final Random random = new Random( 42 );
+      for( int i = 0; i < 10000; i++ ) {
+         final int u = random.nextInt( n );
+         // mostly local edges, some long ones
+         final int v = i % 10 == 0 ? random.nextInt( n ) : Math.max( 0, Math.min( n - 1, u + random.nextInt( 41 ) - 20 ) );
+         graph.addEdge( u, v );
+      }
+      graph.addEdge( n - 1, 0 );
+
+      final CompressedDiGraph compressed = new CompressedDiGraph( graph );
+
+      assertTrue( compressed.verticesCount() == n );
+      assertTrue( compressed.edgesCount() == graph.edgesCount() );
+      assertTrue( compressed.compressedSize() * 3 < 4L * ( n + 1 + graph.edgesCount() ) );
+
+      for( int u = 0; u < n; u++ ) {
+         assertTrue( compressed.getOutDegree( u ) == graph.getOutDegree( u ) );
+         assertTrue( compressed.getInDegree( u ) == graph.getInDegree( u ) );
+         assertTrue( compressed.adjacencyOf( u ).size() == graph.getOutDegree( u ) );
+
+         int previous = -1;
+         for( final IntIterator iter = compressed.adjacencyOf( u ).intIterator(); iter.hasNext(); ) {
+            final int v = iter.nextInt();
+            assertTrue( v > previous );
+            assertTrue( graph.hasEdge( u, v ) );
+            previous = v;
+         }
+      }
+
+      assertTrue( compressed.hasEdge( n - 1, 0 ) );
+      assertFalse( compressed.hasEdge( n - 1, 1 ) );
+      assertTrue( compressed.predecessorsOf( 0 ).contains( n - 1 ) );
+   }
+
+   @Test
+   public void testSubGraph() {
+      final DiGraph graph = new DiGraph( 40 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 39 );
+      graph.addEdge( 39, 0 );
+      graph.addEdge( 20, 0 );
+
+      final CompressedDiGraph subGraph =
+            new CompressedDiGraph( graph ).subGraph( FastCollections.newIntRangeSetWithElements( 0, 1, 39 ) );
+      assertTrue( subGraph.edgesCount() == 3 );
+      assertTrue( subGraph.hasEdge( 39, 0 ) );
+      assertFalse( subGraph.hasEdge( 20, 0 ) );
+   }
+}
@@ -0,0 +1,91 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.algos.DepthFirstSearch;
+import dev.costin.fastgraph.algos.EdgeVisitor;
+import dev.costin.fastgraph.tools.GraphUtils;
+
+
+public class DeactivatableGraphTest {
+
+   @Test
+   public void testDisable() {
+      final DiGraph graph = GraphUtils.newFullDiGraph( 10 );
+      final DeactivatableGraph view = new DeactivatableGraph( graph );
+
+      view.disable( 3 );
+      view.disableAll( FastCollections.newIntRangeSetWithElements( 7, 8 ) );
+
+      assertFalse( view.isEnabled( 3 ) );
+      assertTrue( view.disabledCount() == 3 );
+      assertTrue( view.getOutDegree( 0 ) == 6 );
+      assertTrue( view.getInDegree( 0 ) == 6 );
+      assertTrue( view.getOutDegree( 3 ) == 0 );
+      assertTrue( view.adjacencyOf( 3 ).isEmpty() );
+      assertTrue( view.edgesCount() == 7 * 6 );
+      assertFalse( view.hasEdge( 0, 3 ) );
+      assertFalse( view.removeEdge( 0, 3 ) );
+
+      for( final IntIterator iter = view.adjacencyOf( 0 ).intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+         assertTrue( v != 3 && v != 7 && v != 8 );
+      }
+
+      try {
+         view.addEdge( 3, 0 );
+         fail();
+      }
+      catch( IllegalStateException e ) {
+      }
+
+      // the underlying graph is unchanged
+      assertTrue( graph.edgesCount() == 90 );
+
+      view.enable( 3 );
+      assertTrue( view.hasEdge( 0, 3 ) );
+      view.enableAll();
+      assertTrue( view.edgesCount() == 90 );
+   }
+
+   @Test
+   public void testUndirectedEdgesCount() {
+      final UndiGraph graph = GraphUtils.newFullUndiGraph( 5 );
+      graph.addEdge( 1, 1 );
+      final DeactivatableGraph view = new DeactivatableGraph( graph );
+      view.disable( 0 );
+      assertTrue( view.edgesCount() == 7 );
+   }
+
+   @Test
+   public void testDepthFirstSearch() {
+      final DiGraph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 0, 3 );
+      graph.addEdge( 3, 4 );
+
+      final DeactivatableGraph view = new DeactivatableGraph( graph );
+      view.disable( 1 );
+      view.disable( 4 );
+
+      final int[] visited = new int[5];
+      new DepthFirstSearch().traverse( view, new EdgeVisitor() {
+         @Override
+         public boolean visitEdge( int source, int dest ) {
+            visited[dest]++;
+            return true;
+         }
+      } );
+
+      assertTrue( visited[0] == 1 );
+      assertTrue( visited[1] == 0 );
+      assertTrue( visited[2] == 1 ); // reached as root only
+      assertTrue( visited[3] == 1 );
+      assertTrue( visited[4] == 0 );
+   }
+}
@@ -10,6 +10,7 @@ import dev.costin.fastcollections.IntCursor;
 import dev.costin.fastcollections.IntIterator;
 import dev.costin.fastcollections.sets.impl.IntGrowingSet;
 import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastcollections.tools.MemoryReport;
 import dev.costin.fastgraph.tools.GraphUtils;
 
 
@@ -39,6 +40,122 @@ public class DiGraphTest {
       assertTrue( subGraph.getInDegree( 7 ) == 2 );
    }
    
+   @Test
+   public void testSparse() {
+      final int n = 1000000;
+      final DiGraph graph = new DiGraph( n, true );
+
+      assertTrue( graph.isSparse() );
+      assertTrue( graph.adjacencyOf( 0 ) instanceof DiGraph.IntHashSetAdjacency );
+
+      assertTrue( graph.addEdge( 0, n-1 ) );
+      assertFalse( graph.addEdge( 0, n-1 ) );
+      assertTrue( graph.addEdge( n-1, 0 ) );
+      assertTrue( graph.addEdge( 12345, n-1 ) );
+
+      assertTrue( graph.edgesCount() == 3 );
+      assertTrue( graph.hasEdge( 0, n-1 ) );
+      assertFalse( graph.hasEdge( n-1, 12345 ) );
+      assertTrue( graph.getInDegree( n-1 ) == 2 );
+
+      assertTrue( graph.removeEdge( 0, n-1 ) );
+      assertTrue( graph.getInDegree( n-1 ) == 1 );
+      assertTrue( graph.edgesCount() == 2 );
+
+      graph.adjacencyOf( 12345 ).clear();
+      assertTrue( graph.getInDegree( n-1 ) == 0 );
+      assertTrue( graph.edgesCount() == 1 );
+
+      final DiGraph subGraph = (DiGraph) graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, n-1 ) );
+      assertTrue( subGraph.isSparse() );
+      assertTrue( subGraph.hasEdge( n-1, 0 ) );
+   }
+
+   @Test
+   public void testPredecessors() {
+      final DiGraph graph = new DiGraph( 6 );
+      graph.addEdge( 0, 2 );
+      graph.addEdge( 1, 2 );
+
+      // without index the predecessors are collected by scanning
+      assertTrue( graph.predecessorsOf( 2 ).size() == 2 );
+      assertTrue( graph.predecessorsOf( 2 ).contains( 0 ) );
+
+      graph.enablePredecessorIndex();
+      assertTrue( graph.isPredecessorIndexEnabled() );
+
+      graph.addEdge( 5, 2 );
+      graph.addEdge( 2, 3 );
+      graph.adjacencyOf( 4 ).add( 3 );
+
+      assertTrue( graph.predecessorsOf( 2 ).size() == 3 );
+      assertTrue( graph.predecessorsOf( 2 ).contains( 5 ) );
+      assertTrue( graph.predecessorsOf( 3 ).size() == 2 );
+      assertTrue( graph.predecessorsOf( 0 ).isEmpty() );
+
+      graph.removeEdge( 0, 2 );
+      assertFalse( graph.predecessorsOf( 2 ).contains( 0 ) );
+
+      graph.adjacencyOf( 2 ).clear();
+      assertTrue( graph.predecessorsOf( 3 ).size() == 1 );
+      assertTrue( graph.predecessorsOf( 3 ).contains( 4 ) );
+      assertTrue( graph.edgesCount() == 3 );
+
+      try {
+         graph.predecessorsOf( 3 ).add( 1 );
+         fail();
+      }
+      catch( UnsupportedOperationException e ) {
+      }
+
+      final IntIterator iter = graph.adjacencyOf( 1 ).intIterator();
+      iter.nextInt();
+      iter.remove();
+      assertTrue( graph.predecessorsOf( 2 ).size() == 1 );
+
+      final DiGraph subGraph = (DiGraph) graph.subGraph( FastCollections.newIntRangeSetWithElements( 2, 5 ) );
+      assertTrue( subGraph.isPredecessorIndexEnabled() );
+      assertTrue( subGraph.predecessorsOf( 2 ).contains( 5 ) );
+   }
+
+   @Test
+   public void testAddVertex() {
+      final DiGraph graph = new DiGraph( 2 );
+      graph.addEdge( 0, 1 );
+      graph.enablePredecessorIndex();
+
+      try {
+         graph.addEdge( 0, 2 );
+         fail();
+      }
+      catch( IndexOutOfBoundsException e ) {
+      }
+
+      for( int i = 2; i < 1000; i++ ) {
+         assertTrue( graph.addVertex() == i );
+         graph.addEdge( i - 1, i );
+      }
+
+      assertTrue( graph.verticesCount() == 1000 );
+      assertTrue( graph.edgesCount() == 999 );
+      assertTrue( graph.hasEdge( 0, 1 ) );
+      assertTrue( graph.hasEdge( 998, 999 ) );
+      assertTrue( graph.getInDegree( 999 ) == 1 );
+      assertTrue( graph.predecessorsOf( 500 ).contains( 499 ) );
+
+      graph.ensureVertices( 10 );
+      assertTrue( graph.verticesCount() == 1000 );
+      graph.ensureVertices( 5000 );
+      assertTrue( graph.verticesCount() == 5000 );
+      assertTrue( graph.addEdge( 4999, 0 ) );
+      assertTrue( graph.getInDegree( 0 ) == 1 );
+
+      final DiGraph sparse = new DiGraph( 0, true );
+      sparse.ensureVertices( 3 );
+      assertTrue( sparse.addEdge( 2, 0 ) );
+      assertTrue( sparse.addVertex() == 3 );
+   }
+
    @Test
    public void testInDeGree() {
       final int n = 100;
@@ -68,4 +185,52 @@ public class DiGraphTest {
       assertTrue( graph.getInDegree( 50 ) == n-1 );
       assertTrue( graph.getInDegree( v2 ) == n-2 );
    }
+
+   @Test
+   public void testEdgeIds() {
+      for( final boolean sparse : new boolean[] { false, true } ) {
+         final DiGraph graph = new DiGraph( 10, sparse );
+         graph.addEdge( 0, 1 );
+         graph.addEdge( 0, 2 );
+         graph.addEdge( 0, 3 );
+         graph.addEdge( 5, 0 );
+
+         final int id02 = graph.edgeId( 0, 2 );
+         final int id03 = graph.edgeId( 0, 3 );
+         assertTrue( graph.edgeIdBound() == 4 );
+         assertTrue( graph.edgeId( 0, 4 ) == -1 );
+         assertTrue( graph.adjacencyOf( 0 ).edgeId( 2 ) == id02 );
+
+         // removing an edge moves the last one, the ids have to stay
+         graph.removeEdge( 0, 1 );
+         assertTrue( graph.edgeId( 0, 1 ) == -1 );
+         assertTrue( graph.edgeId( 0, 2 ) == id02 );
+         assertTrue( graph.edgeId( 0, 3 ) == id03 );
+
+         // the freed id is reused
+         graph.addEdge( 7, 8 );
+         assertTrue( graph.edgeIdBound() == 4 );
+         assertTrue( graph.edgeId( 7, 8 ) >= 0 && graph.edgeId( 7, 8 ) < 4 );
+         assertTrue( graph.edgeId( 7, 8 ) != id02 && graph.edgeId( 7, 8 ) != id03 );
+      }
+   }
+
+   @Test
+   public void testMemoryFootprint() {
+      final DiGraph dense = new DiGraph( 100 );
+      final DiGraph sparse = new DiGraph( 100, true );
+      for( int u = 0; u < 100; u++ ) {
+         dense.addEdge( u, ( u + 1 ) % 100 );
+         sparse.addEdge( u, ( u + 1 ) % 100 );
+      }
+
+      final MemoryReport denseReport = dense.memoryFootprint();
+      final MemoryReport sparseReport = sparse.memoryFootprint();
+      assertTrue( denseReport.component( "adjacencies" ).component( "edge ids" ) != null );
+      assertTrue( denseReport.wastedBytes() > denseReport.bytes() / 2 );
+      assertTrue( sparseReport.bytes() < denseReport.bytes() );
+
+      dense.edgeColumns().addIntColumn( "weight" );
+      assertTrue( dense.memoryFootprint().component( "edge columns" ).bytes() >= 100 * 4 );
+   }
 }
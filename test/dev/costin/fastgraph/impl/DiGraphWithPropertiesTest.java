@@ -0,0 +1,191 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.GraphWithProperties;
+import dev.costin.fastgraph.properties.BasicProperties;
+import dev.costin.fastgraph.properties.BasicPropertiesFactory;
+
+
+public class DiGraphWithPropertiesTest {
+
+   private static DiGraphWithProperties<BasicProperties, BasicProperties> newGraph( final int n ) {
+      return new DiGraphWithProperties<BasicProperties, BasicProperties>( n, BasicPropertiesFactory.INSTANCE,
+                                                                         BasicPropertiesFactory.INSTANCE );
+   }
+
+   @Test
+   public void testEdgeProperties() {
+      final DiGraphWithProperties<BasicProperties, BasicProperties> graph = newGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 0, 2 );
+      graph.getEdgeProperties( 0, 1 ).weight = 3;
+      graph.adjacencyOf( 0 ).getEdgeProperties( 2 ).weight = 4;
+
+      assertTrue( graph.getEdgeProperties( 0, 1 ).weight == 3 );
+      assertTrue( graph.getEdgeProperties( 0, 2 ).weight == 4 );
+      assertTrue( graph.getEdgeProperties( 1, 0 ) == null );
+
+      // the properties go with the edge, also if its id is reused
+      graph.removeEdge( 0, 1 );
+      graph.addEdge( 3, 4 );
+      assertTrue( graph.getEdgeProperties( 3, 4 ).weight == 0 );
+      assertTrue( graph.getEdgeProperties( 0, 2 ).weight == 4 );
+
+      graph.adjacencyOf( 0 ).clear();
+      graph.addEdge( 0, 2 );
+      assertTrue( graph.getEdgeProperties( 0, 2 ).weight == 0 );
+   }
+
+   @Test
+   public void testManyVertices() {
+      // an n*n matrix would overflow
+      final int n = 100000;
+      final DiGraphWithProperties<BasicProperties, BasicProperties> graph =
+            new DiGraphWithProperties<BasicProperties, BasicProperties>( n, true, BasicPropertiesFactory.INSTANCE,
+                                                                        BasicPropertiesFactory.INSTANCE );
+      graph.addEdge( n - 1, n - 2 );
+      graph.getEdgeProperties( n - 1, n - 2 ).weight = 1;
+      assertTrue( graph.getEdgeProperties( n - 1, n - 2 ).weight == 1 );
+
+      final int v = graph.addVertex();
+      graph.addEdge( v, 0 );
+      graph.getVertexProperties( v ).color = 2;
+      assertTrue( graph.getEdgeProperties( v, 0 ) != null );
+      assertTrue( graph.getVertexProperties( v ).color == 2 );
+   }
+
+   @Test
+   public void testAddVertex() {
+      for( final boolean sparse : new boolean[] { false, true } ) {
+         final DiGraphWithProperties<BasicProperties, BasicProperties> graph =
+               new DiGraphWithProperties<BasicProperties, BasicProperties>( 2, sparse, BasicPropertiesFactory.INSTANCE,
+                                                                           BasicPropertiesFactory.INSTANCE );
+         graph.addEdge( 0, 1 );
+         graph.getVertexProperties( 1 ).color = 1;
+         graph.getEdgeProperties( 0, 1 ).weight = 1;
+
+         assertTrue( graph.addVertex() == 2 );
+         graph.ensureVertices( 40 );
+         assertTrue( graph.verticesCount() == 40 );
+         assertTrue( graph.readVertexProperties( 39 ) == null );
+
+         graph.addEdge( 1, 39 );
+         graph.addEdge( 39, 2 );
+         graph.getVertexProperties( 39 ).color = 39;
+         graph.getEdgeProperties( 39, 2 ).weight = 2;
+         graph.adjacencyOf( 1 ).getEdgeProperties( 39 ).weight = 3;
+
+         assertTrue( graph.edgesCount() == 3 );
+         assertTrue( graph.getInDegree( 39 ) == 1 );
+         assertTrue( graph.getVertexProperties( 39 ).color == 39 );
+         assertTrue( graph.getEdgeProperties( 39, 2 ).weight == 2 );
+         assertTrue( graph.getEdgeProperties( 1, 39 ).weight == 3 );
+         // the existing vertices keep their properties
+         assertTrue( graph.getVertexProperties( 1 ).color == 1 );
+         assertTrue( graph.getEdgeProperties( 0, 1 ).weight == 1 );
+
+         // a copy-on-write sub graph can grow as well
+         final DiGraphWithProperties<BasicProperties, BasicProperties> subGraph =
+               graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 40, 1, 39 ), true );
+         final int v = subGraph.addVertex();
+         subGraph.addEdge( 39, v );
+         subGraph.getVertexProperties( v ).color = 40;
+         assertTrue( subGraph.getVertexProperties( v ).color == 40 );
+         assertTrue( subGraph.getVertexProperties( 39 ).color == 39 );
+         assertTrue( graph.verticesCount() == 40 );
+      }
+   }
+
+   @Test
+   public void testSubGraph() {
+      final DiGraphWithProperties<BasicProperties, BasicProperties> graph = newGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 2, 3 );
+      graph.getEdgeProperties( 1, 2 ).weight = 7;
+      graph.getVertexProperties( 1 ).color = 5;
+
+      final GraphWithProperties<BasicProperties, BasicProperties> subGraph =
+            graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 5, 1, 2 ) );
+      assertTrue( subGraph.edgesCount() == 2 );
+      assertTrue( subGraph.getEdgeProperties( 1, 2 ).weight == 7 );
+      assertTrue( subGraph.getEdgeProperties( 1, 2 ) != graph.getEdgeProperties( 1, 2 ) );
+      assertTrue( subGraph.getVertexProperties( 1 ).color == 5 );
+      assertTrue( subGraph.adjacencyOf( 3 ).isEmpty() );
+   }
+
+   @Test
+   public void testCopyOnWriteSubGraph() {
+      final DiGraphWithProperties<BasicProperties, BasicProperties> graph = newGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.getEdgeProperties( 0, 1 ).weight = 7;
+      graph.getVertexProperties( 1 ).color = 5;
+
+      final DiGraphWithProperties<BasicProperties, BasicProperties> subGraph =
+            graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 5, 0, 1 ), true );
+
+      // reading does not copy
+      assertTrue( subGraph.readEdgeProperties( 0, 1 ) == graph.readEdgeProperties( 0, 1 ) );
+      assertTrue( subGraph.readVertexProperties( 1 ) == graph.readVertexProperties( 1 ) );
+      assertTrue( subGraph.readEdgeProperties( 1, 2 ) == null );
+
+      // the first write access copies, the parent is not changed
+      subGraph.getEdgeProperties( 0, 1 ).weight = 8;
+      subGraph.getVertexProperties( 1 ).color = 6;
+      assertTrue( subGraph.getEdgeProperties( 0, 1 ).weight == 8 );
+      assertTrue( graph.getEdgeProperties( 0, 1 ).weight == 7 );
+      assertTrue( graph.getVertexProperties( 1 ).color == 5 );
+      assertTrue( subGraph.readVertexProperties( 1 ) != graph.readVertexProperties( 1 ) );
+
+      final DiGraphWithProperties<BasicProperties, BasicProperties> copy =
+            graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 5, 0, 1 ) );
+      assertTrue( copy.readEdgeProperties( 0, 1 ) != graph.readEdgeProperties( 0, 1 ) );
+      assertTrue( copy.readEdgeProperties( 0, 1 ).weight == 7 );
+   }
+
+   @Test
+   public void testCopyOnWriteParentWrites() {
+      final DiGraphWithProperties<BasicProperties, BasicProperties> graph = newGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 2, 1 );
+      graph.getEdgeProperties( 2, 1 ).weight = 3;
+      graph.getEdgeProperties( 1, 2 ).weight = 4;
+      graph.getVertexProperties( 2 ).color = 5;
+
+      final DiGraphWithProperties<BasicProperties, BasicProperties> subGraph =
+            graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 5, 1, 2 ), true );
+      assertTrue( subGraph.readEdgeProperties( 2, 1 ) == graph.readEdgeProperties( 2, 1 ) );
+
+      // writes through the parent copy the shared objects, the sub graph is unchanged
+      graph.getEdgeProperties( 2, 1 ).weight = 30;
+      graph.adjacencyOf( 1 ).getEdgeProperties( 2 ).weight = 40;
+      graph.getVertexProperties( 2 ).color = 50;
+      assertTrue( subGraph.readEdgeProperties( 2, 1 ).weight == 3 );
+      assertTrue( subGraph.readEdgeProperties( 1, 2 ).weight == 4 );
+      assertTrue( subGraph.readVertexProperties( 2 ).color == 5 );
+      assertTrue( graph.getEdgeProperties( 2, 1 ).weight == 30 );
+      assertTrue( graph.getEdgeProperties( 1, 2 ).weight == 40 );
+      assertTrue( graph.getVertexProperties( 2 ).color == 50 );
+
+      // reads through the adjacencies do not copy
+      final DiGraphWithProperties<BasicProperties, BasicProperties> other =
+            graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 5, 1, 2 ), true );
+      final DiGraphWithProperties<BasicProperties, BasicProperties>.IntSetAdjacencyWithProperties adj =
+            (DiGraphWithProperties<BasicProperties, BasicProperties>.IntSetAdjacencyWithProperties) other.adjacencyOf( 2 );
+      assertTrue( adj.readEdgeProperties( 1 ) == graph.readEdgeProperties( 2, 1 ) );
+      assertTrue( adj.readEdgeProperties( 1 ).weight == 30 );
+
+      // an edge added to the parent later does not disturb the sharing
+      graph.addEdge( 3, 4 );
+      graph.getEdgeProperties( 3, 4 ).weight = 1;
+      graph.getEdgeProperties( 2, 1 ).weight = 31;
+      assertTrue( other.readEdgeProperties( 2, 1 ).weight == 30 );
+      assertTrue( subGraph.readEdgeProperties( 2, 1 ).weight == 3 );
+   }
+}
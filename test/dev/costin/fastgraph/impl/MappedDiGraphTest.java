@@ -0,0 +1,134 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.tools.BinaryGraphWriter;
+
+
+public class MappedDiGraphTest {
+
+   @Test
+   public void testWriteAndMap() throws IOException {
+      final DiGraph graph = new DiGraph( 6 );
+      graph.addEdge( 0, 5 );
+      graph.addEdge( 0, 2 );
+      graph.addEdge( 2, 3 );
+      graph.addEdge( 3, 0 );
+      graph.addEdge( 5, 2 );
+
+      final int[] ranks = { 10, 11, 12, 13, 14, 15 };
+      final double[] weights = { 0.5, 1.5, 2.5, 3.5, 4.5 };
+
+      final File file = File.createTempFile( "fastgraph", ".bin" );
+      try {
+         new BinaryGraphWriter( graph )
+               .addVertexColumn( "rank", ranks )
+               .addEdgeColumn( "weight", weights )
+               .write( file );
+
+         final MappedDiGraph mapped = MappedDiGraph.open( file );
+
+         assertTrue( mapped.verticesCount() == 6 );
+         assertTrue( mapped.edgesCount() == 5 );
+
+         for( int u = 0; u < 6; u++ ) {
+            assertTrue( mapped.getOutDegree( u ) == graph.getOutDegree( u ) );
+            assertTrue( mapped.getInDegree( u ) == graph.getInDegree( u ) );
+            for( int v = 0; v < 6; v++ ) {
+               assertTrue( mapped.hasEdge( u, v ) == graph.hasEdge( u, v ) );
+            }
+         }
+
+         final IntIterator iter = mapped.adjacencyOf( 0 ).intIterator();
+         assertTrue( iter.nextInt() == 2 );
+         assertTrue( iter.nextInt() == 5 );
+         assertFalse( iter.hasNext() );
+
+         assertTrue( mapped.predecessorsOf( 2 ).size() == 2 );
+         assertTrue( mapped.predecessorsOf( 2 ).contains( 5 ) );
+
+         assertTrue( mapped.vertexColumnType( "rank" ) == ColumnType.INT );
+         final ByteBuffer rank = mapped.vertexColumn( "rank" );
+         assertTrue( rank.getInt( 4 * 4 ) == 14 );
+
+         assertTrue( mapped.edgeColumnType( "weight" ) == ColumnType.DOUBLE );
+         final ByteBuffer weight = mapped.edgeColumn( "weight" );
+         assertTrue( weight.getDouble( 8 * mapped.edgesBegin( 3 ) ) == 3.5 );
+
+         assertTrue( mapped.vertexColumn( "weight" ) == null );
+
+         final CompactDiGraph subGraph = mapped.subGraph( FastCollections.newIntRangeSetWithElements( 0, 2, 3 ) );
+         assertTrue( subGraph.edgesCount() == 3 );
+      }
+      finally {
+         file.delete();
+      }
+   }
+
+   @Test
+   public void testWriteUndirected() throws IOException {
+      final UndiGraph graph = new UndiGraph( 5 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 3, 1 );
+      graph.addEdge( 4, 4 );
+
+      final File file = File.createTempFile( "fastgraph", ".bin" );
+      try {
+         // one value per direction, the self loop is stored once
+         new BinaryGraphWriter( graph ).addEdgeColumn( "weight", new float[7] ).write( file );
+
+         final MappedDiGraph mapped = MappedDiGraph.open( file );
+
+         assertTrue( mapped.verticesCount() == 5 );
+         assertTrue( mapped.edgesCount() == 7 );
+         for( int u = 0; u < 5; u++ ) {
+            assertTrue( mapped.getOutDegree( u ) == graph.getOutDegree( u ) );
+            assertTrue( mapped.getInDegree( u ) == graph.getInDegree( u ) );
+            for( int v = 0; v < 5; v++ ) {
+               assertTrue( mapped.hasEdge( u, v ) == graph.hasEdge( u, v ) );
+            }
+         }
+         assertTrue( mapped.edgesEnd( 4 ) == 7 );
+         assertTrue( mapped.edgeColumn( "weight" ).capacity() == 7 * 4 );
+      }
+      finally {
+         file.delete();
+      }
+
+      try {
+         new BinaryGraphWriter( graph ).addEdgeColumn( "weight", new float[graph.edgesCount()] );
+         fail();
+      }
+      catch( IllegalArgumentException e ) {
+      }
+   }
+
+   @Test
+   public void testNotAGraphFile() throws IOException {
+      final File file = File.createTempFile( "fastgraph", ".bin" );
+      try {
+         final FileOutputStream out = new FileOutputStream( file );
+         out.write( new byte[128] );
+         out.close();
+
+         MappedDiGraph.open( file );
+         fail();
+      }
+      catch( IOException e ) {
+      }
+      finally {
+         file.delete();
+      }
+   }
+}
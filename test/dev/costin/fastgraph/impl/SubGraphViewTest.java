@@ -0,0 +1,115 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.IntIterator;
+import dev.costin.fastcollections.sets.impl.IntGrowingSet;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.Graph;
+import dev.costin.fastgraph.GraphWithProperties;
+import dev.costin.fastgraph.properties.BasicProperties;
+import dev.costin.fastgraph.properties.BasicPropertiesFactory;
+import dev.costin.fastgraph.tools.GraphUtils;
+
+
+public class SubGraphViewTest {
+
+   @Test
+   public void testView() {
+      final int n = 100;
+      final DiGraph graph = GraphUtils.newFullDiGraph( n );
+      final IntGrowingSet vertices = FastCollections.newIntRangeSetWithElements( 0, 1, 7 );
+      final SubGraphView view = graph.subGraphView( vertices );
+
+      assertTrue( view.verticesCount() == n );
+      assertTrue( view.edgesCount() == 6 );
+      assertTrue( view.getOutDegree( 0 ) == 2 );
+      assertTrue( view.getInDegree( 7 ) == 2 );
+      assertTrue( view.getOutDegree( 2 ) == 0 );
+      assertTrue( view.hasEdge( 7, 1 ) );
+      assertFalse( view.hasEdge( 7, 2 ) );
+
+      int count = 0;
+      for( final IntIterator iter = view.adjacencyOf( 1 ).intIterator(); iter.hasNext(); ) {
+         final int v = iter.nextInt();
+         assertTrue( v == 0 || v == 7 );
+         ++count;
+      }
+      assertTrue( count == 2 );
+
+      // changes of the vertex set and the parent are visible immediately
+      vertices.add( 50 );
+      assertTrue( view.edgesCount() == 12 );
+      graph.removeEdge( 0, 50 );
+      assertFalse( view.hasEdge( 0, 50 ) );
+      assertTrue( view.edgesCount() == 11 );
+
+      assertTrue( view.removeEdge( 0, 1 ) );
+      assertFalse( graph.hasEdge( 0, 1 ) );
+   }
+
+   @Test
+   public void testInDegree() {
+      final DiGraph graph = new DiGraph( 6, true );
+      graph.addEdge( 0, 2 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 3, 2 );
+      graph.addEdge( 2, 2 );
+      graph.addEdge( 2, 4 );
+      final UndiGraph undirected = new UndiGraph( 6 );
+      undirected.addEdge( 0, 2 );
+      undirected.addEdge( 3, 2 );
+      undirected.addEdge( 2, 2 );
+      undirected.addEdge( 2, 4 );
+      final IntGrowingSet vertices = FastCollections.newIntRangeSetWithElements( 0, 6, 0, 2, 3 );
+
+      final int[] expected = { 0, 0, 3, 0, 0, 0 };
+      for( final Graph g : new Graph[] { graph, new CompactDiGraph( graph ) } ) {
+         final SubGraphView view = new SubGraphView( g, vertices );
+         for( int v = 0; v < 6; v++ ) {
+            assertTrue( view.getInDegree( v ) == expected[v] );
+            assertTrue( view.getInDegree( v ) == view.predecessorsOf( v ).size() );
+         }
+      }
+      graph.enablePredecessorIndex();
+      assertTrue( graph.subGraphView( vertices ).getInDegree( 2 ) == 3 );
+
+      final SubGraphView view = new SubGraphView( undirected, vertices );
+      assertTrue( view.getInDegree( 2 ) == 3 );
+      assertTrue( view.getInDegree( 0 ) == 1 );
+      assertTrue( view.getInDegree( 4 ) == 0 );
+   }
+
+   @Test
+   public void testPropertiesAreShared() {
+      final DiGraphWithProperties<BasicProperties, BasicProperties> graph =
+            new DiGraphWithProperties<BasicProperties, BasicProperties>( 10, BasicPropertiesFactory.INSTANCE,
+                                                                        BasicPropertiesFactory.INSTANCE );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.getEdgeProperties( 0, 1 ).weight = 5;
+
+      final GraphWithProperties<BasicProperties, BasicProperties> view =
+            graph.subGraphView( FastCollections.newIntRangeSetWithElements( 0, 1 ) );
+
+      assertTrue( view.edgesCount() == 1 );
+      assertTrue( view.adjacencyOf( 0 ).getEdgeProperties( 1 ).weight == 5 );
+      assertTrue( view.getEdgeProperties( 0, 1 ) == graph.getEdgeProperties( 0, 1 ) );
+
+      view.getVertexProperties( 1 ).color = 3;
+      assertTrue( graph.getVertexProperties( 1 ).color == 3 );
+
+      // hidden vertices and edges expose no properties and create none
+      assertTrue( view.getEdgeProperties( 1, 2 ) == null );
+      assertTrue( graph.readEdgeProperties( 1, 2 ) == null );
+      try {
+         view.getVertexProperties( 2 );
+         fail();
+      }
+      catch( IllegalStateException e ) {
+      }
+      assertTrue( graph.readVertexProperties( 2 ) == null );
+   }
+}
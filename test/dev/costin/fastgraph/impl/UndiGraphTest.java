@@ -0,0 +1,129 @@
+package dev.costin.fastgraph.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.tools.GraphUtils;
+
+
+public class UndiGraphTest {
+
+   @Test
+   public void testSymmetric() {
+      final UndiGraph graph = new UndiGraph( 5 );
+
+      assertFalse( graph.isDirected() );
+      assertTrue( graph.addEdge( 0, 1 ) );
+      assertFalse( graph.addEdge( 1, 0 ) );
+      assertTrue( graph.adjacencyOf( 2 ).add( 1 ) );
+      assertTrue( graph.addEdge( 3, 3 ) );
+
+      assertTrue( graph.edgesCount() == 3 );
+      assertTrue( graph.hasEdge( 1, 0 ) );
+      assertTrue( graph.hasEdge( 1, 2 ) );
+      assertTrue( graph.getOutDegree( 1 ) == 2 );
+      assertTrue( graph.getInDegree( 1 ) == 2 );
+      assertTrue( graph.getOutDegree( 3 ) == 1 );
+      assertTrue( graph.predecessorsOf( 1 ).contains( 2 ) );
+
+      assertTrue( graph.removeEdge( 1, 0 ) );
+      assertFalse( graph.hasEdge( 0, 1 ) );
+      assertTrue( graph.edgesCount() == 2 );
+
+      graph.adjacencyOf( 1 ).clear();
+      assertFalse( graph.hasEdge( 2, 1 ) );
+      assertTrue( graph.edgesCount() == 1 );
+
+      graph.adjacencyOf( 3 ).clear();
+      assertTrue( graph.edgesCount() == 0 );
+   }
+
+   @Test
+   public void testSparseSubGraph() {
+      final UndiGraph graph = new UndiGraph( 1000, true );
+      graph.addEdge( 0, 999 );
+      graph.addEdge( 999, 5 );
+      graph.addEdge( 5, 0 );
+      graph.addEdge( 5, 7 );
+
+      final UndiGraph subGraph = graph.subGraph( FastCollections.newIntRangeSetWithElements( 0, 5, 7 ) );
+      assertTrue( subGraph.isSparse() );
+      assertTrue( subGraph.edgesCount() == 2 );
+      assertTrue( subGraph.hasEdge( 0, 5 ) );
+      assertTrue( subGraph.hasEdge( 7, 5 ) );
+      assertFalse( subGraph.hasEdge( 0, 999 ) );
+   }
+
+   @Test
+   public void testFullGraph() {
+      final UndiGraph graph = GraphUtils.newFullUndiGraph( 10 );
+      assertTrue( graph.edgesCount() == 45 );
+      assertTrue( graph.getOutDegree( 3 ) == 9 );
+   }
+
+   @Test
+   public void testCycleFree() {
+      final UndiGraph graph = new UndiGraph( 6 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 1, 2 );
+      graph.addEdge( 1, 3 );
+      graph.addEdge( 4, 5 );
+      assertTrue( GraphUtils.isCycleFree( graph ) );
+
+      graph.addEdge( 3, 0 );
+      assertFalse( GraphUtils.isCycleFree( graph ) );
+
+      graph.removeEdge( 3, 0 );
+      graph.addEdge( 5, 5 );
+      assertFalse( GraphUtils.isCycleFree( graph ) );
+   }
+
+   @Test
+   public void testEdgeIds() {
+      final UndiGraph graph = new UndiGraph( 6, true );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 2, 1 );
+      graph.addEdge( 3, 3 );
+
+      assertTrue( graph.edgeIdBound() == 3 );
+      assertTrue( graph.edgeId( 0, 1 ) == graph.edgeId( 1, 0 ) );
+      assertTrue( graph.edgeId( 1, 2 ) == graph.edgeId( 2, 1 ) );
+      assertTrue( graph.edgeId( 0, 1 ) != graph.edgeId( 1, 2 ) );
+      assertTrue( graph.edgeId( 3, 3 ) >= 0 );
+
+      final int id = graph.edgeId( 1, 2 );
+      graph.removeEdge( 0, 1 );
+      assertTrue( graph.edgeId( 1, 0 ) == -1 );
+      assertTrue( graph.edgeId( 2, 1 ) == id );
+   }
+
+   @Test
+   public void testOutOfRange() {
+      for( final boolean sparse : new boolean[] { false, true } ) {
+         final UndiGraph graph = new UndiGraph( 3, sparse );
+         graph.addEdge( 0, 1 );
+         try {
+            graph.addEdge( 0, 3 );
+            fail();
+         }
+         catch( IndexOutOfBoundsException e ) {
+         }
+         try {
+            graph.adjacencyOf( 1 ).add( -1 );
+            fail();
+         }
+         catch( IndexOutOfBoundsException e ) {
+         }
+
+         // the graph is unchanged
+         assertTrue( graph.edgesCount() == 1 );
+         assertTrue( graph.getOutDegree( 0 ) == 1 );
+         assertTrue( graph.getOutDegree( 1 ) == 1 );
+         assertTrue( graph.edgeIdBound() == 1 );
+         assertTrue( graph.removeEdge( 1, 0 ) );
+         assertTrue( graph.edgesCount() == 0 );
+      }
+   }
+}
@@ -0,0 +1,81 @@
+package dev.costin.fastgraph.properties.columns;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.impl.UndiGraph;
+import dev.costin.fastgraph.properties.ColumnType;
+
+
+public class PropertyColumnsTest {
+
+   @Test
+   public void testColumns() {
+      final PropertyColumns columns = new PropertyColumns( 10 );
+      final IntColumn ints = columns.addIntColumn( "weight" );
+      final DoubleColumn doubles = columns.addDoubleColumn( "rank" );
+
+      ints.set( 3, 42 );
+      doubles.set( 9, 0.5 );
+      assertTrue( columns.intColumn( "weight" ).get( 3 ) == 42 );
+      assertTrue( columns.doubleColumn( "rank" ).get( 9 ) == 0.5 );
+      assertTrue( columns.column( "rank" ).type() == ColumnType.DOUBLE );
+      assertTrue( columns.intColumn( "missing" ) == null );
+
+      try {
+         columns.intColumn( "rank" );
+         fail();
+      }
+      catch( final IllegalArgumentException e ) {
+         // expected
+      }
+
+      columns.ensureSize( 100 );
+      assertTrue( ints.size() >= 100 );
+      assertTrue( ints.get( 3 ) == 42 );
+      assertTrue( ints.get( 99 ) == 0 );
+
+      columns.reset( 3 );
+      assertTrue( ints.get( 3 ) == 0 );
+
+      assertTrue( columns.removeColumn( "weight" ) );
+      assertTrue( columns.names().size() == 1 );
+   }
+
+   @Test
+   public void testEdgeColumns() {
+      final DiGraph graph = new DiGraph( 5 );
+      graph.addEdge( 0, 1 );
+      final IntColumn weights = graph.edgeColumns().addIntColumn( "weight" );
+      weights.set( graph.edgeId( 0, 1 ), 7 );
+
+      for( int v = 2; v < 5; v++ ) {
+         graph.addEdge( 0, v );
+         weights.set( graph.edgeId( 0, v ), v );
+      }
+      assertTrue( weights.get( graph.edgeId( 0, 1 ) ) == 7 );
+      assertTrue( weights.get( graph.edgeId( 0, 4 ) ) == 4 );
+
+      // a reused id starts with 0
+      graph.removeEdge( 0, 1 );
+      graph.addEdge( 3, 1 );
+      assertTrue( weights.get( graph.edgeId( 3, 1 ) ) == 0 );
+
+      final ShortColumn colors = graph.vertexColumns().addShortColumn( "color" );
+      colors.set( 4, (short) 2 );
+      final int v = graph.addVertex();
+      assertTrue( colors.get( v ) == 0 );
+      assertTrue( colors.get( 4 ) == 2 );
+   }
+
+   @Test
+   public void testUndirectedEdgeColumns() {
+      final UndiGraph graph = new UndiGraph( 3 );
+      graph.addEdge( 0, 1 );
+      final FloatColumn lengths = graph.edgeColumns().addFloatColumn( "length" );
+      lengths.set( graph.edgeId( 1, 0 ), 1.5f );
+      assertTrue( lengths.get( graph.edgeId( 0, 1 ) ) == 1.5f );
+   }
+}
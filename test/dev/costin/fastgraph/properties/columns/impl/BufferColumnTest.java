@@ -0,0 +1,77 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.properties.ColumnType;
+import dev.costin.fastgraph.properties.columns.DoubleColumn;
+import dev.costin.fastgraph.properties.columns.IntColumn;
+import dev.costin.fastgraph.properties.columns.LongColumn;
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
+import dev.costin.fastgraph.properties.columns.ShortColumn;
+
+
+public class BufferColumnTest {
+
+   @Test
+   public void testDirectColumns() {
+      final PropertyColumns columns = new PropertyColumns( 10, DirectColumnFactory.INSTANCE );
+      final LongColumn longs = columns.addLongColumn( "id" );
+      final ShortColumn shorts = columns.addShortColumn( "color" );
+
+      longs.set( 9, Long.MAX_VALUE );
+      shorts.set( 9, (short) -3 );
+      columns.ensureSize( 1000 );
+      assertTrue( longs.size() >= 1000 );
+      assertTrue( longs.get( 9 ) == Long.MAX_VALUE );
+      assertTrue( shorts.get( 9 ) == -3 );
+      assertTrue( longs.get( 999 ) == 0 );
+
+      columns.reset( 9 );
+      assertTrue( longs.get( 9 ) == 0 );
+      assertTrue( shorts.get( 9 ) == 0 );
+   }
+
+   @Test
+   public void testGraphWithDirectEdgeColumn() {
+      final DiGraph graph = new DiGraph( 100 );
+      graph.edgeColumns().setFactory( DirectColumnFactory.INSTANCE );
+      final DoubleColumn weights = graph.edgeColumns().addDoubleColumn( "weight" );
+      for( int v = 1; v < 100; v++ ) {
+         graph.addEdge( 0, v );
+         weights.set( graph.edgeId( 0, v ), v * 0.5 );
+      }
+      assertTrue( weights instanceof BufferColumn );
+      assertTrue( weights.get( graph.edgeId( 0, 42 ) ) == 21.0 );
+   }
+
+   @Test
+   public void testMappedColumnsArePersisted() throws IOException {
+      final File directory = File.createTempFile( "fastgraph", "columns" );
+      assertTrue( directory.delete() && directory.mkdir() );
+      final MappedColumnFactory factory = new MappedColumnFactory( directory );
+      try {
+         final PropertyColumns columns = new PropertyColumns( 4, factory );
+         final IntColumn ranks = columns.addIntColumn( "rank" );
+         ranks.set( 3, 17 );
+         columns.ensureSize( 5000 );
+         ranks.set( 4999, 18 );
+         ( (BufferColumn) ranks ).force();
+
+         final PropertyColumns reopened = new PropertyColumns( 0, factory );
+         final IntColumn ranks2 = (IntColumn) reopened.addColumn( "rank", ColumnType.INT );
+         assertTrue( ranks2.size() >= 5000 );
+         assertTrue( ranks2.get( 3 ) == 17 );
+         assertTrue( ranks2.get( 4999 ) == 18 );
+      }
+      finally {
+         factory.fileOf( "rank", ColumnType.INT ).delete();
+         directory.delete();
+      }
+   }
+}
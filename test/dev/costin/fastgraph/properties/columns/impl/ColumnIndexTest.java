@@ -0,0 +1,89 @@
+package dev.costin.fastgraph.properties.columns.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.sets.IntSet;
+import dev.costin.fastgraph.impl.DiGraph;
+import dev.costin.fastgraph.properties.columns.DoubleColumn;
+import dev.costin.fastgraph.properties.columns.IntColumn;
+import dev.costin.fastgraph.properties.columns.PropertyColumns;
+import dev.costin.fastgraph.properties.columns.ShortColumn;
+
+
+public class ColumnIndexTest {
+
+   @Test
+   public void testHashIndex() {
+      final PropertyColumns columns = new PropertyColumns( 10 );
+      final ShortColumn colors = columns.addShortColumn( "color" );
+      colors.set( 1, (short) 3 );
+      colors.set( 2, (short) 3 );
+
+      final HashColumnIndex index = columns.addHashIndex( "color" );
+      assertTrue( index.keysWith( 3 ).size() == 2 );
+      assertTrue( index.keysWith( 0 ).size() == 8 );
+
+      colors.set( 2, (short) 4 );
+      colors.set( 5, (short) 3 );
+      final IntSet threes = index.keysWith( 3 );
+      assertTrue( threes.size() == 2 && threes.contains( 1 ) && threes.contains( 5 ) );
+      assertTrue( index.keysWith( 4 ).contains( 2 ) );
+      assertTrue( index.keysWith( 7 ).isEmpty() );
+
+      columns.ensureSize( 12 );
+      assertTrue( index.keysWith( 0 ).contains( 11 ) );
+
+      columns.reset( 1 );
+      assertTrue( index.keysWith( 3 ).size() == 1 );
+
+      assertTrue( columns.removeIndex( index ) );
+      colors.set( 0, (short) 3 );
+      assertTrue( index.keysWith( 3 ).size() == 1 );
+   }
+
+   @Test
+   public void testSortedIndexOverEdges() {
+      final DiGraph graph = new DiGraph( 10 );
+      for( int v = 1; v < 10; v++ ) {
+         graph.addEdge( 0, v );
+      }
+      final DoubleColumn weights = graph.edgeColumns().addDoubleColumn( "weight" );
+      for( int v = 1; v < 10; v++ ) {
+         weights.set( graph.edgeId( 0, v ), v * 1.5 );
+      }
+
+      final SortedColumnIndex index = graph.edgeColumns().addSortedIndex( "weight" );
+      IntSet edges = index.keysInRange( 3.0, 6.0 );
+      assertTrue( edges.size() == 3 );
+      assertTrue( edges.contains( graph.edgeId( 0, 2 ) ) && edges.contains( graph.edgeId( 0, 4 ) ) );
+
+      // removed edges disappear, a new edge starts with 0
+      final int removed = graph.edgeId( 0, 3 );
+      graph.removeEdge( 0, 3 );
+      assertFalse( index.keysInRange( 3.0, 6.0 ).contains( removed ) );
+      graph.addEdge( 5, 6 );
+      assertTrue( index.keysWith( 0.0 ).contains( graph.edgeId( 5, 6 ) ) );
+
+      weights.set( graph.edgeId( 5, 6 ), 4.0 );
+      edges = index.keysInRange( 3.0, 6.0 );
+      assertTrue( edges.size() == 3 && edges.contains( graph.edgeId( 5, 6 ) ) );
+      assertTrue( index.keysInRange( 6.0, 3.0 ).isEmpty() );
+   }
+
+   @Test
+   public void testIndexCreatedAfterRemoval() {
+      final DiGraph graph = new DiGraph( 4 );
+      graph.addEdge( 0, 1 );
+      graph.addEdge( 0, 2 );
+      graph.removeEdge( 0, 1 );
+
+      final IntColumn labels = graph.edgeColumns().addIntColumn( "label" );
+      final HashColumnIndex index = graph.edgeColumns().addHashIndex( "label" );
+      assertTrue( index.keysWith( 0 ).size() == 1 );
+      labels.set( graph.edgeId( 0, 2 ), 9 );
+      assertTrue( index.keysWith( 9 ).contains( graph.edgeId( 0, 2 ) ) );
+      assertTrue( index.keysWith( 0 ).isEmpty() );
+   }
+}
@@ -0,0 +1,112 @@
+package dev.costin.fastgraph.tools;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.impl.CompactDiGraph;
+
+
+public class EdgeListLoaderTest {
+
+   private static File write( final String content ) throws IOException {
+      final File file = File.createTempFile( "fastgraph", ".txt" );
+      final FileOutputStream out = new FileOutputStream( file );
+      out.write( content.getBytes( "US-ASCII" ) );
+      out.close();
+      return file;
+   }
+
+   @Test
+   public void testSnapFormat() throws IOException {
+      final File file = write( "# Directed graph\n# FromNodeId\tToNodeId\n0\t1\n0\t2\r\n\n2\t3\n3 0\n1,3" );
+      try {
+         final CompactDiGraph graph = new EdgeListLoader().load( file ).buildCompact();
+
+         assertTrue( graph.verticesCount() == 4 );
+         assertTrue( graph.edgesCount() == 5 );
+         assertTrue( graph.hasEdge( 0, 1 ) );
+         assertTrue( graph.hasEdge( 0, 2 ) );
+         assertTrue( graph.hasEdge( 2, 3 ) );
+         assertTrue( graph.hasEdge( 3, 0 ) );
+         assertTrue( graph.hasEdge( 1, 3 ) );
+      }
+      finally {
+         file.delete();
+      }
+   }
+
+   @Test
+   public void testChunks() throws IOException {
+      final StringBuilder content = new StringBuilder( "% comment\n" );
+      for( int i = 0; i < 1000; i++ ) {
+         content.append( i ).append( ' ' ).append( ( i * 7 ) % 1000 ).append( '\n' );
+      }
+      final File file = write( content.toString() );
+      try {
+         final CompactDiGraph graph = new EdgeListLoader().setChunkSize( 37 ).setParallelism( 3 )
+                                                          .setVerticesCount( 1200 ).load( file ).buildCompact();
+
+         assertTrue( graph.verticesCount() == 1200 );
+         assertTrue( graph.edgesCount() == 1000 );
+         for( int i = 0; i < 1000; i++ ) {
+            assertTrue( graph.hasEdge( i, ( i * 7 ) % 1000 ) );
+         }
+      }
+      finally {
+         file.delete();
+      }
+   }
+
+   @Test
+   public void testWeights() throws IOException {
+      final File file = write( "0 1 2.5\n1 2 -1e-3\n2 0\n0 2 +3E2\n" );
+      try {
+         final GraphBuilder builder = new EdgeListLoader().setWeighted( true ).load( file );
+         final CompactDiGraph graph = builder.buildCompact();
+         final double[] weights = builder.getEdgeWeights();
+
+         assertTrue( graph.edgesCount() == 4 );
+         assertTrue( weights[graph.edgesBegin( 0 )] == 2.5 );
+         assertTrue( weights[graph.edgesBegin( 0 ) + 1] == 300 );
+         assertTrue( weights[graph.edgesBegin( 1 )] == -0.001 );
+         assertTrue( weights[graph.edgesBegin( 2 )] == GraphBuilder.DEFAULT_WEIGHT );
+      }
+      finally {
+         file.delete();
+      }
+   }
+
+   @Test
+   public void testMalformed() throws IOException {
+      final File file = write( "0 1\n2\n" );
+      try {
+         new EdgeListLoader().load( file );
+         fail();
+      }
+      catch( IOException e ) {
+         assertTrue( e.getMessage().contains( "byte 4" ) );
+      }
+      finally {
+         file.delete();
+      }
+   }
+
+   @Test
+   public void testNegativeId() throws IOException {
+      final File file = write( "0 -1\n" );
+      try {
+         new EdgeListLoader().load( file );
+         fail();
+      }
+      catch( IOException e ) {
+      }
+      finally {
+         file.delete();
+      }
+   }
+}
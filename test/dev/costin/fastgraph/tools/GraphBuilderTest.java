@@ -0,0 +1,130 @@
+package dev.costin.fastgraph.tools;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+
+
+public class GraphBuilderTest {
+
+   @Test
+   public void testBuildCompact() {
+      final CompactDiGraph graph = new GraphBuilder( 4 )
+            .addEdge( 2, 1 )
+            .addEdge( 0, 3 )
+            .addEdge( 0, 1 )
+            .addEdge( 0, 3 )
+            .addEdge( 3, 3 )
+            .buildCompact();
+
+      assertTrue( graph.verticesCount() == 4 );
+      assertTrue( graph.edgesCount() == 4 );
+      assertTrue( graph.hasEdge( 0, 1 ) );
+      assertTrue( graph.hasEdge( 0, 3 ) );
+      assertTrue( graph.hasEdge( 2, 1 ) );
+      assertTrue( graph.hasEdge( 3, 3 ) );
+      assertTrue( graph.getOutDegree( 0 ) == 2 );
+      assertTrue( graph.getInDegree( 1 ) == 2 );
+      assertTrue( graph.getOutDegree( 1 ) == 0 );
+   }
+
+   @Test
+   public void testParallelMatchesDiGraph() {
+      final int n = 5000;
+      final int m = 200000;
+      final Random rnd = new Random( 3 );
+      final int[] src = new int[m];
+      final int[] dst = new int[m];
+      final DiGraph expected = new DiGraph( n, true );
+
+      for( int i = 0; i < m; i++ ) {
+         src[i] = rnd.nextInt( n );
+         dst[i] = rnd.nextInt( n );
+         expected.addEdge( src[i], dst[i] );
+      }
+
+      final GraphBuilder builder = new GraphBuilder( n ).setParallelism( 4 );
+      builder.addEdges( src, dst, 0, m / 2 );
+      builder.addEdges( src, dst, m / 2, m - m / 2 );
+      assertTrue( builder.edgesCount() == m );
+
+      final CompactDiGraph graph = builder.buildCompact();
+      assertTrue( graph.edgesCount() == expected.edgesCount() );
+
+      for( int v = 0; v < n; v++ ) {
+         assertTrue( graph.getOutDegree( v ) == expected.getOutDegree( v ) );
+         assertTrue( graph.getInDegree( v ) == expected.getInDegree( v ) );
+         for( int i = graph.edgesBegin( v ); i < graph.edgesEnd( v ); i++ ) {
+            assertTrue( expected.hasEdge( v, graph.targetAt( i ) ) );
+         }
+      }
+
+      final DiGraph diGraph = builder.buildDiGraph( true );
+      assertTrue( diGraph.edgesCount() == expected.edgesCount() );
+      for( int v = 0; v < n; v++ ) {
+         assertTrue( diGraph.getOutDegree( v ) == expected.getOutDegree( v ) );
+         assertTrue( diGraph.getInDegree( v ) == expected.getInDegree( v ) );
+      }
+   }
+
+   @Test
+   public void testBuildDiGraph() {
+      final GraphBuilder builder = new GraphBuilder( 5 )
+            .addEdge( 2, 1, 0.5 )
+            .addEdge( 0, 3, 1.5 )
+            .addEdge( 0, 1, 2.5 )
+            .addEdge( 0, 3, 1.5 )
+            .addEdge( 4, 0, 3.5 );
+
+      for( final boolean sparse : new boolean[] { false, true } ) {
+         final DiGraph graph = builder.buildDiGraph( sparse );
+         final CompactDiGraph compact = builder.buildCompact();
+         final double[] weights = builder.getEdgeWeights();
+
+         assertTrue( graph.isSparse() == sparse );
+         assertTrue( graph.verticesCount() == 5 );
+         assertTrue( graph.edgesCount() == 4 );
+         assertTrue( graph.edgeIdBound() == 4 );
+         assertTrue( graph.getInDegree( 1 ) == 2 );
+         assertTrue( graph.getInDegree( 0 ) == 1 );
+         assertTrue( graph.getOutDegree( 3 ) == 0 );
+
+         // the edge ids are the indices of the weights like in the compact graph
+         assertTrue( graph.edgeId( 0, 1 ) == compact.edgeId( 0, 1 ) );
+         assertTrue( graph.edgeId( 0, 3 ) == compact.edgeId( 0, 3 ) );
+         assertTrue( graph.edgeId( 2, 1 ) == compact.edgeId( 2, 1 ) );
+         assertTrue( graph.edgeId( 4, 0 ) == compact.edgeId( 4, 0 ) );
+         assertTrue( weights[graph.edgeId( 2, 1 )] == 0.5 );
+         assertTrue( weights[graph.edgeId( 4, 0 )] == 3.5 );
+
+         // the graph stays mutable and the freed ids are reused
+         final int id = graph.edgeId( 0, 3 );
+         assertTrue( graph.removeEdge( 0, 3 ) );
+         assertTrue( graph.getInDegree( 3 ) == 0 );
+         assertTrue( graph.addEdge( 3, 2 ) );
+         assertTrue( graph.edgeId( 3, 2 ) == id );
+         assertTrue( graph.addEdge( 1, 4 ) );
+         assertTrue( graph.edgeId( 1, 4 ) == 4 );
+         assertTrue( graph.edgesCount() == 5 );
+
+         graph.enablePredecessorIndex();
+         assertTrue( graph.predecessorsOf( 1 ).contains( 2 ) );
+         assertTrue( graph.predecessorsOf( 1 ).contains( 0 ) );
+      }
+   }
+
+   @Test
+   public void testOutOfRange() {
+      try {
+         new GraphBuilder( 3 ).addEdge( 0, 3 ).buildCompact();
+         fail();
+      }
+      catch( IndexOutOfBoundsException e ) {
+      }
+   }
+}
@@ -0,0 +1,65 @@
+package dev.costin.fastgraph.tools;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import dev.costin.fastcollections.sets.impl.IntHashSet;
+import dev.costin.fastcollections.tools.FastCollections;
+import dev.costin.fastgraph.impl.CompactDiGraph;
+import dev.costin.fastgraph.impl.DiGraph;
+
+
+public class GraphUtilsTest {
+
+   @Test
+   public void testCompactSubGraph() {
+      final DiGraph graph = GraphUtils.newFullDiGraph( 100 );
+      final RenumberedSubGraph sub =
+            GraphUtils.compactSubGraph( graph, FastCollections.newIntRangeSetWithElements( 90, 7, 1 ) );
+
+      final CompactDiGraph subGraph = sub.graph();
+      assertTrue( subGraph.verticesCount() == 3 );
+      assertTrue( subGraph.edgesCount() == 6 );
+      assertTrue( sub.toParent( 0 ) == 1 );
+      assertTrue( sub.toParent( 2 ) == 90 );
+      assertTrue( sub.toSub( 7 ) == 1 );
+      assertTrue( sub.toSub( 8 ) == -1 );
+      assertTrue( sub.toSubMap().length == 100 );
+      assertTrue( sub.toSubMap()[90] == 2 );
+   }
+
+   @Test
+   public void testCompactSubGraphParallel() {
+      final int n = 50000;
+      final Random random = new Random( 7 );
+      final GraphBuilder builder = new GraphBuilder( n );
+      for( int i = 0; i < 200000; i++ ) {
+         builder.addEdge( random.nextInt( n ), random.nextInt( n ) );
+      }
+      final CompactDiGraph graph = builder.buildCompact();
+
+      final IntHashSet vertices = new IntHashSet();
+      for( int v = 0; v < n; v += 2 ) {
+         vertices.add( v );
+      }
+
+      final RenumberedSubGraph sub = GraphUtils.compactSubGraph( graph, vertices, 4 );
+      final CompactDiGraph subGraph = sub.graph();
+      assertTrue( subGraph.verticesCount() == n / 2 );
+
+      int edges = 0;
+      for( int u = 0; u < n; u += 2 ) {
+         for( int i = graph.edgesBegin( u ); i < graph.edgesEnd( u ); i++ ) {
+            final int v = graph.targetAt( i );
+            if( v % 2 == 0 ) {
+               assertTrue( subGraph.hasEdge( u / 2, v / 2 ) );
+               ++edges;
+            }
+         }
+      }
+      assertTrue( subGraph.edgesCount() == edges );
+   }
+}